@@ -0,0 +1,102 @@
+#!/usr/bin/env bash
+# Measures time-to-first-request (process start until GET /api/employees answers 200) for each
+# startup mode and prints the median over several runs. Needs the database from
+# application.properties to be up.
+#
+#   scripts/startup-benchmark.sh [runs] [modes...]
+#
+# Modes: default (fat jar), faststart (fat jar + faststart profile), faststart-novalidate
+# (faststart without the schema check, to see what the check costs), cds (faststart + AppCDS
+# archive, JDK 13+) and native (GraalVM binary). Missing artifacts are built first, except the
+# native binary, which is skipped unless ./gradlew nativeCompile -Pnative has been run.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+shift || true
+MODES=${*:-default faststart faststart-novalidate cds native}
+PORT=${PORT:-18080}
+URL="http://localhost:${PORT}/api/employees"
+MAIN_CLASS=com.udemy.springboottest.SpringBootTestApplication
+NATIVE_BINARY=build/native/nativeCompile/spring-boot-test
+
+now_ms() {
+  date +%s%3N
+}
+
+fat_jar() {
+  if ! ls build/libs/*-SNAPSHOT.jar >/dev/null 2>&1; then
+    ./gradlew -q bootJar
+  fi
+  ls build/libs/*-SNAPSHOT.jar | grep -v plain | head -n 1
+}
+
+command_for() {
+  case "$1" in
+    default)
+      echo "java -jar $(fat_jar)"
+      ;;
+    faststart)
+      echo "java -jar $(fat_jar) --spring.profiles.active=faststart"
+      ;;
+    faststart-novalidate)
+      echo "java -jar $(fat_jar) --spring.profiles.active=faststart --spring.jpa.hibernate.ddl-auto=none"
+      ;;
+    cds)
+      if [ ! -f build/cds/app.jsa ]; then
+        ./gradlew -q cdsArchive
+      fi
+      echo "java -XX:SharedArchiveFile=build/cds/app.jsa -cp $(cat build/cds/classpath.txt) ${MAIN_CLASS} --spring.profiles.active=faststart"
+      ;;
+    native)
+      if [ -x "${NATIVE_BINARY}" ]; then
+        echo "${NATIVE_BINARY} --spring.profiles.active=faststart"
+      fi
+      ;;
+    *)
+      echo "Unknown mode: $1" >&2
+      exit 2
+      ;;
+  esac
+}
+
+measure_once() {
+  local start pid status elapsed
+  start=$(now_ms)
+  $1 --server.port="${PORT}" >/dev/null 2>&1 &
+  pid=$!
+  while true; do
+    status=$(curl -s -o /dev/null -w '%{http_code}' "${URL}" || true)
+    if [ "${status}" = "200" ]; then
+      elapsed=$(( $(now_ms) - start ))
+      break
+    fi
+    if ! kill -0 "${pid}" 2>/dev/null; then
+      echo "Application exited before answering" >&2
+      return 1
+    fi
+    sleep 0.02
+  done
+  kill "${pid}"
+  wait "${pid}" 2>/dev/null || true
+  echo "${elapsed}"
+}
+
+median() {
+  sort -n | awk '{ values[NR] = $1 } END { print (NR % 2) ? values[(NR + 1) / 2] : int((values[NR / 2] + values[NR / 2 + 1]) / 2) }'
+}
+
+printf '%-20s %10s %s\n' mode median_ms runs_ms
+for mode in ${MODES}; do
+  cmd=$(command_for "${mode}")
+  if [ -z "${cmd}" ]; then
+    printf '%-20s %10s %s\n' "${mode}" skipped "(no native binary)"
+    continue
+  fi
+  samples=()
+  for _ in $(seq "${RUNS}"); do
+    samples+=("$(measure_once "${cmd}")")
+  done
+  printf '%-20s %10s %s\n' "${mode}" "$(printf '%s\n' "${samples[@]}" | median)" "${samples[*]}"
+done
@@ -1,13 +1,23 @@
 package com.udemy.springboottest;
 
+import com.udemy.springboottest.tenant.TenantEvaluationContextExtension;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class SpringBootTestApplication {
 
 	public static void main(String[] args) {
 		SpringApplication.run(SpringBootTestApplication.class, args);
 	}
 
+	// declared here rather than scanned so that repository test slices get it too
+	@Bean
+	public TenantEvaluationContextExtension tenantEvaluationContextExtension() {
+		return new TenantEvaluationContextExtension();
+	}
+
 }
@@ -0,0 +1,170 @@
+package com.udemy.springboottest.batch;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one chunked batch job, safe to read while the job is running. The counters
+ * include chunks completed by earlier runs of a resumed job.
+ */
+public class BatchJob {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final String id;
+
+    private final String tenantId;
+
+    private final String task;
+
+    private final int chunkSize;
+
+    private final long minId;
+
+    private final long maxId;
+
+    private final Instant submittedAt;
+
+    private final AtomicLong chunksCompleted = new AtomicLong();
+
+    private final AtomicLong rowsScanned = new AtomicLong();
+
+    private final AtomicLong rowsUpdated = new AtomicLong();
+
+    private final AtomicLong rowsSkipped = new AtomicLong();
+
+    private volatile Status status = Status.QUEUED;
+
+    private volatile Instant finishedAt;
+
+    private volatile String error;
+
+    BatchJob(String id, String tenantId, String task, int chunkSize, long minId, long maxId, Instant submittedAt) {
+        this.id = id;
+        this.tenantId = tenantId;
+        this.task = task;
+        this.chunkSize = chunkSize;
+        this.minId = minId;
+        this.maxId = maxId;
+        this.submittedAt = submittedAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    @JsonIgnore
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public String getTask() {
+        return task;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    @JsonIgnore
+    public long getMinId() {
+        return minId;
+    }
+
+    @JsonIgnore
+    public long getMaxId() {
+        return maxId;
+    }
+
+    public long getChunksTotal() {
+        return maxId < minId ? 0 : (maxId - minId) / chunkSize + 1;
+    }
+
+    public long getChunksCompleted() {
+        return chunksCompleted.get();
+    }
+
+    public long getRowsScanned() {
+        return rowsScanned.get();
+    }
+
+    public long getRowsUpdated() {
+        return rowsUpdated.get();
+    }
+
+    /**
+     * Rows the task changed that were modified concurrently and therefore left alone.
+     */
+    public long getRowsSkipped() {
+        return rowsSkipped.get();
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    /**
+     * First id of the {@code chunk}-th chunk; a chunk covers {@code chunkSize} ids from there.
+     */
+    long chunkStart(long chunk) {
+        return minId + chunk * chunkSize;
+    }
+
+    void chunkCompleted(long scanned, long updated, long skipped) {
+        chunksCompleted.incrementAndGet();
+        rowsScanned.addAndGet(scanned);
+        rowsUpdated.addAndGet(updated);
+        rowsSkipped.addAndGet(skipped);
+    }
+
+    void restored(long chunks, long scanned, long updated, long skipped) {
+        chunksCompleted.set(chunks);
+        rowsScanned.set(scanned);
+        rowsUpdated.set(updated);
+        rowsSkipped.set(skipped);
+    }
+
+    void status(Status status) {
+        this.status = status;
+    }
+
+    void completed() {
+        finishedAt = Instant.now();
+        status = Status.COMPLETED;
+    }
+
+    void failed(String error) {
+        this.error = error;
+        finishedAt = Instant.now();
+        status = Status.FAILED;
+    }
+
+    void finished(Status status, Instant finishedAt, String error) {
+        this.status = status;
+        this.finishedAt = finishedAt;
+        this.error = error;
+    }
+}
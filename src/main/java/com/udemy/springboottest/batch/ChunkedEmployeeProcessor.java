@@ -0,0 +1,201 @@
+package com.udemy.springboottest.batch;
+
+import com.udemy.springboottest.model.Employee;
+import com.udemy.springboottest.service.EmployeeChangedEvent;
+import com.udemy.springboottest.tenant.TenantContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs an {@link EmployeeBatchTask} over a tenant's employees in id-range chunks, processed
+ * in parallel on a fork-join pool. Each chunk is read, transformed and written back with one
+ * JDBC batch in its own short transaction, which also inserts the chunk's row in
+ * {@code employee_batch_chunks}: a chunk is applied and checkpointed together or not at all,
+ * and a second run of the same chunk, here or on another instance, fails on that row and
+ * leaves the employees alone. Updates are guarded by the row version, so employees modified
+ * while their chunk ran are skipped rather than overwritten, and so are employees whose new
+ * email is already used by another employee of the tenant. Every update is published as an
+ * {@link EmployeeChangedEvent} inside the chunk's transaction, like a write through the service.
+ */
+public class ChunkedEmployeeProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(ChunkedEmployeeProcessor.class);
+
+    private static final String SELECT_CHUNK = "select id, version, first_name, last_name, email, created_at, updated_at " +
+            "from employees where tenant_id = ? and id >= ? and id < ? and deleted_at is null order by id";
+
+    private static final String UPDATE = "update employees set first_name = ?, last_name = ?, email = ?, updated_at = ?, " +
+            "version = version + 1 where id = ? and tenant_id = ? and version = ? and deleted_at is null";
+
+    private static final String CHECKPOINT = "insert into employee_batch_chunks " +
+            "(job_id, chunk_start, rows_scanned, rows_updated, rows_skipped, completed_at) values (?, ?, 0, 0, 0, ?)";
+
+    private static final String RECORD = "update employee_batch_chunks set rows_scanned = ?, rows_updated = ?, rows_skipped = ? " +
+            "where job_id = ? and chunk_start = ?";
+
+    private static final RowMapper<Employee> EMPLOYEE = (resultSet, row) -> Employee.builder()
+            .id(resultSet.getLong("id"))
+            .version(resultSet.getLong("version"))
+            .firstName(resultSet.getString("first_name"))
+            .lastName(resultSet.getString("last_name"))
+            .email(resultSet.getString("email"))
+            .createdAt(toInstant(resultSet.getTimestamp("created_at")))
+            .updatedAt(toInstant(resultSet.getTimestamp("updated_at")))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final int parallelism;
+
+    public ChunkedEmployeeProcessor(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                    ApplicationEventPublisher eventPublisher, int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Processes the given chunks of {@code job} and returns once all of them are checkpointed.
+     * If a chunk fails, the chunks completed so far stay checkpointed and the failure is thrown.
+     */
+    public void process(BatchJob job, EmployeeBatchTask task, Collection<Long> chunks) throws InterruptedException {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> chunks.parallelStream().forEach(chunk ->
+                    TenantContext.runAs(job.getTenantId(), () -> processChunk(job, task, job.chunkStart(chunk))))).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause
+                    : new IllegalStateException("Batch job " + job.getId() + " failed", cause);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void processChunk(BatchJob job, EmployeeBatchTask task, long start) {
+        long[] counts = transactionTemplate.execute(status -> {
+            try {
+                jdbcTemplate.update(CHECKPOINT, job.getId(), start, Timestamp.from(Instant.now()));
+            } catch (DuplicateKeyException e) {
+                // already applied by an earlier or concurrent run of this job
+                status.setRollbackOnly();
+                return null;
+            }
+            List<Employee> employees = jdbcTemplate.query(SELECT_CHUNK, EMPLOYEE, job.getTenantId(), start, start + job.getChunkSize());
+            List<Employee> previous = new ArrayList<>();
+            List<Employee> changed = new ArrayList<>();
+            for (Employee employee : employees) {
+                Employee processed = task.process(employee.toBuilder().build());
+                if (processed != null) {
+                    previous.add(employee);
+                    changed.add(processed);
+                }
+            }
+            long updated = write(job.getTenantId(), previous, changed);
+            long skipped = changed.size() - updated;
+            jdbcTemplate.update(RECORD, employees.size(), updated, skipped, job.getId(), start);
+            return new long[]{employees.size(), updated, skipped};
+        });
+        if (counts != null) {
+            job.chunkCompleted(counts[0], counts[1], counts[2]);
+        }
+    }
+
+    private long write(String tenantId, List<Employee> previous, List<Employee> changed) {
+        if (changed.isEmpty()) {
+            return 0;
+        }
+        Instant now = Instant.now();
+        List<Object[]> arguments = new ArrayList<>(changed.size());
+        for (Employee employee : changed) {
+            arguments.add(new Object[]{employee.getFirstName(), employee.getLastName(), employee.getEmail(),
+                    Timestamp.from(now), employee.getId(), tenantId, employee.getVersion()});
+        }
+        int[] results = update(arguments);
+        long updated = 0;
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == 0) {
+                continue;
+            }
+            updated++;
+            Employee employee = changed.get(i).toBuilder()
+                    .tenantId(tenantId)
+                    .updatedAt(now)
+                    .version(changed.get(i).getVersion() + 1)
+                    .build();
+            eventPublisher.publishEvent(EmployeeChangedEvent.updated(previous.get(i), employee));
+        }
+        return updated;
+    }
+
+    /**
+     * Runs the batch behind a savepoint. If an update hits the unique email index, the batch is
+     * rolled back to it and the rows are updated one by one, each behind its own savepoint, and
+     * the colliding ones are reported as not updated.
+     */
+    private int[] update(List<Object[]> arguments) {
+        Savepoint savepoint = setSavepoint();
+        try {
+            int[] results = jdbcTemplate.batchUpdate(UPDATE, arguments);
+            releaseSavepoint(savepoint);
+            return results;
+        } catch (DuplicateKeyException e) {
+            rollbackToSavepoint(savepoint);
+        }
+        int[] results = new int[arguments.size()];
+        for (int i = 0; i < arguments.size(); i++) {
+            Object[] row = arguments.get(i);
+            savepoint = setSavepoint();
+            try {
+                results[i] = jdbcTemplate.update(UPDATE, row);
+                releaseSavepoint(savepoint);
+            } catch (DuplicateKeyException e) {
+                rollbackToSavepoint(savepoint);
+                log.warn("Skipped employee {} of tenant {}: email {} is already used by another employee", row[4], row[5], row[2]);
+            }
+        }
+        return results;
+    }
+
+    private Savepoint setSavepoint() {
+        return jdbcTemplate.execute((ConnectionCallback<Savepoint>) connection -> connection.setSavepoint());
+    }
+
+    private void releaseSavepoint(Savepoint savepoint) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            connection.releaseSavepoint(savepoint);
+            return null;
+        });
+    }
+
+    private void rollbackToSavepoint(Savepoint savepoint) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            connection.rollback(savepoint);
+            return null;
+        });
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+}
@@ -0,0 +1,187 @@
+package com.udemy.springboottest.batch;
+
+import com.udemy.springboottest.exception.ResourceNotFoundException;
+import com.udemy.springboottest.tenant.TenantContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Runs {@link EmployeeBatchTask}s over all live employees of the submitting tenant, one job at
+ * a time in the background, each split into chunks of ids processed in parallel by a
+ * {@link ChunkedEmployeeProcessor}. Jobs and their completed chunks are stored in
+ * {@code employee_batch_jobs} and {@code employee_batch_chunks}, so an interrupted or failed
+ * job is resumed from where it stopped. A job covers the ids that existed when it was submitted.
+ */
+@Service
+public class EmployeeBatchJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeBatchJobService.class);
+
+    private static final int MAX_CHUNK_SIZE = 100_000;
+
+    private static final String INSERT_JOB = "insert into employee_batch_jobs " +
+            "(id, tenant_id, task, chunk_size, min_id, max_id, status, created_at) values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String FINISH_JOB = "update employee_batch_jobs set status = ?, error = ?, finished_at = ? where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<String, EmployeeBatchTask> tasks;
+
+    private final ChunkedEmployeeProcessor processor;
+
+    private final int defaultChunkSize;
+
+    private final Map<String, BatchJob> jobs = new ConcurrentHashMap<>();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "employee-batch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public EmployeeBatchJobService(JdbcTemplate jdbcTemplate,
+                                   TransactionTemplate transactionTemplate,
+                                   ApplicationEventPublisher eventPublisher,
+                                   List<EmployeeBatchTask> tasks,
+                                   @Value("${employee.batch.parallelism:0}") int parallelism,
+                                   @Value("${employee.batch.chunk-size:10000}") int defaultChunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tasks = tasks.stream().collect(Collectors.toMap(EmployeeBatchTask::getName, Function.identity()));
+        this.processor = new ChunkedEmployeeProcessor(jdbcTemplate, transactionTemplate, eventPublisher,
+                parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.defaultChunkSize = defaultChunkSize;
+    }
+
+    /**
+     * Queues a job running {@code taskName} over the current tenant's employees.
+     */
+    public BatchJob submit(String taskName, Integer chunkSize) {
+        EmployeeBatchTask task = task(taskName);
+        String tenantId = TenantContext.getTenantId();
+        int size = Math.max(1, Math.min(chunkSize == null ? defaultChunkSize : chunkSize, MAX_CHUNK_SIZE));
+        long[] range = jdbcTemplate.queryForObject(
+                "select coalesce(min(id), 0), coalesce(max(id), -1) from employees where tenant_id = ? and deleted_at is null",
+                (resultSet, row) -> new long[]{resultSet.getLong(1), resultSet.getLong(2)}, tenantId);
+        BatchJob job = new BatchJob(UUID.randomUUID().toString(), tenantId, task.getName(), size, range[0], range[1], Instant.now());
+        jdbcTemplate.update(INSERT_JOB, job.getId(), tenantId, job.getTask(), size, job.getMinId(), job.getMaxId(),
+                job.getStatus().name(), Timestamp.from(job.getSubmittedAt()));
+        start(job, task, new HashSet<>());
+        return job;
+    }
+
+    /**
+     * Continues a failed or interrupted job of the current tenant with its chunks that were not completed.
+     */
+    public BatchJob resume(String id) {
+        BatchJob running = jobs.get(id);
+        if (running != null && !running.isFinished() && running.getTenantId().equals(TenantContext.getTenantId())) {
+            return running;
+        }
+        BatchJob job = load(id).orElseThrow(() -> new ResourceNotFoundException("Batch job not found with id: " + id));
+        if (job.getStatus() == BatchJob.Status.COMPLETED) {
+            return job;
+        }
+        Set<Long> completed = new HashSet<>(jdbcTemplate.queryForList(
+                "select chunk_start from employee_batch_chunks where job_id = ?", Long.class, id));
+        job.status(BatchJob.Status.QUEUED);
+        start(job, task(job.getTask()), completed);
+        return job;
+    }
+
+    public Optional<BatchJob> getJob(String id) {
+        BatchJob job = jobs.get(id);
+        if (job != null) {
+            return job.getTenantId().equals(TenantContext.getTenantId()) ? Optional.of(job) : Optional.empty();
+        }
+        return load(id);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void start(BatchJob job, EmployeeBatchTask task, Set<Long> completedChunkStarts) {
+        List<Long> chunks = new ArrayList<>();
+        for (long chunk = 0; chunk < job.getChunksTotal(); chunk++) {
+            if (!completedChunkStarts.contains(job.chunkStart(chunk))) {
+                chunks.add(chunk);
+            }
+        }
+        jobs.put(job.getId(), job);
+        executor.execute(() -> TenantContext.runAs(job.getTenantId(), () -> run(job, task, chunks)));
+    }
+
+    private void run(BatchJob job, EmployeeBatchTask task, List<Long> chunks) {
+        job.status(BatchJob.Status.RUNNING);
+        jdbcTemplate.update(FINISH_JOB, job.getStatus().name(), null, null, job.getId());
+        try {
+            processor.process(job, task, chunks);
+            job.completed();
+            log.info("Batch job {} ({}) finished: {} rows scanned, {} updated, {} skipped", job.getId(), job.getTask(),
+                    job.getRowsScanned(), job.getRowsUpdated(), job.getRowsSkipped());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.failed("Interrupted");
+        } catch (RuntimeException e) {
+            log.error("Batch job {} ({}) failed", job.getId(), job.getTask(), e);
+            job.failed(e.getMessage());
+        } finally {
+            jdbcTemplate.update(FINISH_JOB, job.getStatus().name(), job.getError(),
+                    Timestamp.from(job.getFinishedAt() == null ? Instant.now() : job.getFinishedAt()), job.getId());
+        }
+    }
+
+    private EmployeeBatchTask task(String name) {
+        EmployeeBatchTask task = tasks.get(name);
+        if (task == null) {
+            throw new ResourceNotFoundException("Unknown batch task '" + name + "', available tasks are " + tasks.keySet());
+        }
+        return task;
+    }
+
+    private Optional<BatchJob> load(String id) {
+        List<BatchJob> found = jdbcTemplate.query(
+                "select j.id, j.tenant_id, j.task, j.chunk_size, j.min_id, j.max_id, j.status, j.error, j.created_at, " +
+                        "j.finished_at, count(c.chunk_start) as chunks, coalesce(sum(c.rows_scanned), 0) as scanned, " +
+                        "coalesce(sum(c.rows_updated), 0) as updated, coalesce(sum(c.rows_skipped), 0) as skipped " +
+                        "from employee_batch_jobs j left join employee_batch_chunks c on c.job_id = j.id " +
+                        "where j.id = ? and j.tenant_id = ? " +
+                        "group by j.id, j.tenant_id, j.task, j.chunk_size, j.min_id, j.max_id, j.status, j.error, " +
+                        "j.created_at, j.finished_at",
+                (resultSet, row) -> {
+                    BatchJob job = new BatchJob(resultSet.getString("id"), resultSet.getString("tenant_id"),
+                            resultSet.getString("task"), resultSet.getInt("chunk_size"), resultSet.getLong("min_id"),
+                            resultSet.getLong("max_id"), resultSet.getTimestamp("created_at").toInstant());
+                    Timestamp finishedAt = resultSet.getTimestamp("finished_at");
+                    job.finished(BatchJob.Status.valueOf(resultSet.getString("status")),
+                            finishedAt == null ? null : finishedAt.toInstant(), resultSet.getString("error"));
+                    job.restored(resultSet.getLong("chunks"), resultSet.getLong("scanned"),
+                            resultSet.getLong("updated"), resultSet.getLong("skipped"));
+                    return job;
+                }, id, TenantContext.getTenantId());
+        return found.stream().findFirst();
+    }
+}
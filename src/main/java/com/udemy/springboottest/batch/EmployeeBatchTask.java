@@ -0,0 +1,21 @@
+package com.udemy.springboottest.batch;
+
+import com.udemy.springboottest.model.Employee;
+
+/**
+ * A transformation applied to every live employee of a tenant by an {@link EmployeeBatchJobService}
+ * job. Tasks are called concurrently from several chunks and must not keep state between calls.
+ */
+public interface EmployeeBatchTask {
+
+    /**
+     * Name the task is submitted by, e.g. {@code normalize-names}.
+     */
+    String getName();
+
+    /**
+     * Returns the employee with its first name, last name or email changed, or {@code null}
+     * to leave it as it is. The argument is a copy and may be modified and returned.
+     */
+    Employee process(Employee employee);
+}
@@ -0,0 +1,33 @@
+package com.udemy.springboottest.batch;
+
+import com.udemy.springboottest.model.Employee;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Trims emails and lower-cases their domain, which is case-insensitive, so that exact
+ * lookups by email find them. The local part is left alone.
+ */
+@Component
+public class NormalizeEmailsTask implements EmployeeBatchTask {
+
+    @Override
+    public String getName() {
+        return "normalize-emails";
+    }
+
+    @Override
+    public Employee process(Employee employee) {
+        String email = employee.getEmail().trim();
+        int at = email.lastIndexOf('@');
+        if (at >= 0) {
+            email = email.substring(0, at + 1) + email.substring(at + 1).toLowerCase(Locale.ROOT);
+        }
+        if (email.equals(employee.getEmail())) {
+            return null;
+        }
+        employee.setEmail(email);
+        return employee;
+    }
+}
@@ -0,0 +1,49 @@
+package com.udemy.springboottest.batch;
+
+import com.udemy.springboottest.model.Employee;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Trims names, collapses runs of whitespace and capitalizes names written entirely in lower
+ * or upper case ({@code "FUAD"}, {@code "fuad"}). Mixed-case names such as {@code McDonald}
+ * are kept as they are.
+ */
+@Component
+public class NormalizeNamesTask implements EmployeeBatchTask {
+
+    @Override
+    public String getName() {
+        return "normalize-names";
+    }
+
+    @Override
+    public Employee process(Employee employee) {
+        String firstName = normalize(employee.getFirstName());
+        String lastName = normalize(employee.getLastName());
+        if (firstName.equals(employee.getFirstName()) && lastName.equals(employee.getLastName())) {
+            return null;
+        }
+        employee.setFirstName(firstName);
+        employee.setLastName(lastName);
+        return employee;
+    }
+
+    static String normalize(String name) {
+        String collapsed = name.trim().replaceAll("\\s+", " ");
+        boolean singleCase = collapsed.equals(collapsed.toLowerCase(Locale.ROOT))
+                || collapsed.equals(collapsed.toUpperCase(Locale.ROOT));
+        if (!singleCase) {
+            return collapsed;
+        }
+        StringBuilder normalized = new StringBuilder(collapsed.length());
+        boolean wordStart = true;
+        for (int i = 0; i < collapsed.length(); i++) {
+            char c = collapsed.charAt(i);
+            normalized.append(wordStart ? Character.toUpperCase(c) : Character.toLowerCase(c));
+            wordStart = c == ' ' || c == '-' || c == '\'';
+        }
+        return normalized.toString();
+    }
+}
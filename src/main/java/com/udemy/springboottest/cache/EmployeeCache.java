@@ -0,0 +1,113 @@
+package com.udemy.springboottest.cache;
+
+import com.udemy.springboottest.model.Employee;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versioned per-instance cache of employees by id. An invalidation leaves a marker with the
+ * invalidated version, and a copy is only cached if it is at least that new. A late or
+ * reordered invalidation therefore never brings back an older copy, and neither does a read
+ * that started before the invalidation arrived. Entries and markers expire after the TTL,
+ * which bounds staleness if an invalidation is lost. Copies go in and out, so callers
+ * never share an instance.
+ */
+public class EmployeeCache implements MeterBinder {
+
+    private final long ttlMillis;
+
+    private final int maxEntries;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    public EmployeeCache(long ttlMillis, int maxEntries) {
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+    }
+
+    public Employee get(String tenantId, long employeeId) {
+        Entry entry = entries.get(key(tenantId, employeeId));
+        if (entry == null || entry.employee == null || entry.isExpired(System.currentTimeMillis())) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.employee.toBuilder().build();
+    }
+
+    public void put(String tenantId, Employee employee) {
+        long now = System.currentTimeMillis();
+        if (entries.size() >= maxEntries) {
+            entries.values().removeIf(entry -> entry.isExpired(now));
+            if (entries.size() >= maxEntries) {
+                return;
+            }
+        }
+        Entry fresh = new Entry(employee.toBuilder().build(), employee.getVersion(), now + ttlMillis);
+        entries.compute(key(tenantId, employee.getId()), (key, current) ->
+                current == null || current.isExpired(now) || employee.getVersion() >= current.version ? fresh : current);
+    }
+
+    public void invalidate(EmployeeInvalidation invalidation) {
+        long now = System.currentTimeMillis();
+        Entry marker = new Entry(null, invalidation.getVersion(), now + ttlMillis);
+        entries.compute(key(invalidation.getTenantId(), invalidation.getEmployeeId()), (key, current) ->
+                current == null || current.isExpired(now) || invalidation.getVersion() > current.version ? marker : current);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("employee.cache.size", this, EmployeeCache::size)
+                .description("Cached employees and invalidation markers")
+                .register(registry);
+        FunctionCounter.builder("employee.cache.requests", hits, AtomicLong::get)
+                .description("Employee cache lookups")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("employee.cache.requests", misses, AtomicLong::get)
+                .description("Employee cache lookups")
+                .tag("result", "miss")
+                .register(registry);
+    }
+
+    private static String key(String tenantId, long employeeId) {
+        return tenantId + ':' + employeeId;
+    }
+
+    private static class Entry {
+
+        private final Employee employee;
+
+        private final long version;
+
+        private final long expiresAtMillis;
+
+        Entry(Employee employee, long version, long expiresAtMillis) {
+            this.employee = employee;
+            this.version = version;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAtMillis;
+        }
+    }
+}
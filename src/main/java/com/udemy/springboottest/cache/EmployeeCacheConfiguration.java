@@ -0,0 +1,63 @@
+package com.udemy.springboottest.cache;
+
+import com.udemy.springboottest.repository.EmployeeRepository;
+import com.udemy.springboottest.repository.WrappingPostProcessor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Caches employee lookups by id on each instance and keeps the caches of all instances
+ * coherent through an {@link InvalidationBus}: {@code postgres} (LISTEN/NOTIFY, for
+ * multi-instance deployments) or {@code memory} (a single instance).
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "employee.cache", name = "enabled", havingValue = "true")
+public class EmployeeCacheConfiguration {
+
+    @Bean
+    public EmployeeCache employeeCache(@Value("${employee.cache.ttl-ms:60000}") long ttlMillis,
+                                       @Value("${employee.cache.max-entries:100000}") int maxEntries) {
+        return new EmployeeCache(ttlMillis, maxEntries);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "employee.cache.invalidation", name = "transport", havingValue = "postgres", matchIfMissing = true)
+    public PostgresInvalidationBus postgresInvalidationBus(DataSource dataSource,
+                                                           @Value("${employee.cache.invalidation.poll-interval-ms:100}") long pollIntervalMillis) {
+        return new PostgresInvalidationBus(dataSource, pollIntervalMillis);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "employee.cache.invalidation", name = "transport", havingValue = "memory")
+    public InMemoryInvalidationBus inMemoryInvalidationBus() {
+        return new InMemoryInvalidationBus();
+    }
+
+    @Bean
+    public EmployeeCacheInvalidator employeeCacheInvalidator(EmployeeCache cache, InvalidationBus bus) {
+        return new EmployeeCacheInvalidator(cache, bus);
+    }
+
+    @Bean
+    public static WrappingPostProcessor employeeCachePostProcessor(ObjectProvider<EmployeeCache> cache) {
+        return new WrappingPostProcessor(WrappingPostProcessor.CACHE) {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof EmployeeRepository) {
+                    ProxyFactory factory = new ProxyFactory();
+                    factory.setTarget(bean);
+                    factory.addInterface(EmployeeRepository.class);
+                    factory.addAdvice(new EmployeeCacheInterceptor(cache.getObject()));
+                    return factory.getProxy(EmployeeRepository.class.getClassLoader());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,40 @@
+package com.udemy.springboottest.cache;
+
+import com.udemy.springboottest.model.Employee;
+import com.udemy.springboottest.tenant.TenantContext;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+/**
+ * Serves {@code EmployeeRepository.findById} from the {@link EmployeeCache}. Calls inside a
+ * transaction bypass the cache, since they expect managed entities and current versions.
+ */
+class EmployeeCacheInterceptor implements MethodInterceptor {
+
+    private final EmployeeCache cache;
+
+    EmployeeCacheInterceptor(EmployeeCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (!invocation.getMethod().getName().equals("findById")
+                || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return invocation.proceed();
+        }
+        String tenantId = TenantContext.getTenantId();
+        Long id = (Long) invocation.getArguments()[0];
+        Employee cached = cache.get(tenantId, id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Employee> employee = (Optional<Employee>) invocation.proceed();
+        employee.ifPresent(found -> cache.put(tenantId, found));
+        return employee;
+    }
+}
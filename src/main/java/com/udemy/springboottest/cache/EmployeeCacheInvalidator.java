@@ -0,0 +1,62 @@
+package com.udemy.springboottest.cache;
+
+import com.udemy.springboottest.model.ChangeType;
+import com.udemy.springboottest.service.EmployeeChangedEvent;
+import com.udemy.springboottest.tenant.TenantContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Turns committed employee updates and deletes into invalidations for this instance and,
+ * through the {@link InvalidationBus}, for every other one. The tenant is captured when the
+ * change happens, the version after commit, once the flush has incremented it. Creates need
+ * none because absent employees are never cached.
+ */
+public class EmployeeCacheInvalidator implements InvalidationBus.Subscriber {
+
+    private final EmployeeCache cache;
+
+    private final InvalidationBus bus;
+
+    public EmployeeCacheInvalidator(EmployeeCache cache, InvalidationBus bus) {
+        this.cache = cache;
+        this.bus = bus;
+        bus.subscribe(this);
+    }
+
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (event.getType() == ChangeType.CREATED) {
+            return;
+        }
+        String tenantId = TenantContext.getTenantId();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(tenantId, event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(tenantId, event);
+            }
+        });
+    }
+
+    @Override
+    public void onInvalidation(EmployeeInvalidation invalidation) {
+        cache.invalidate(invalidation);
+    }
+
+    @Override
+    public void onGap() {
+        cache.clear();
+    }
+
+    private void invalidate(String tenantId, EmployeeChangedEvent event) {
+        long version = event.getType() == ChangeType.DELETED ? EmployeeInvalidation.DELETED : event.getEmployee().getVersion();
+        EmployeeInvalidation invalidation = new EmployeeInvalidation(tenantId, event.getEmployeeId(), version);
+        cache.invalidate(invalidation);
+        bus.publish(invalidation);
+    }
+}
@@ -0,0 +1,23 @@
+package com.udemy.springboottest.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Tells every instance that the employee changed and that cached copies older than
+ * {@code version} are stale. Deletes are final, so they carry {@link #DELETED}.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class EmployeeInvalidation {
+
+    public static final long DELETED = Long.MAX_VALUE;
+
+    private final String tenantId;
+    private final long employeeId;
+    private final long version;
+}
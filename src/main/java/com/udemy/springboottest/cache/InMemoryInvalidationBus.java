@@ -0,0 +1,23 @@
+package com.udemy.springboottest.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Delivers invalidations synchronously to the subscribers in this JVM. Enough for a single
+ * instance, and lets tests run several caches against one bus.
+ */
+public class InMemoryInvalidationBus implements InvalidationBus {
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(EmployeeInvalidation invalidation) {
+        subscribers.forEach(subscriber -> subscriber.onInvalidation(invalidation));
+    }
+
+    @Override
+    public void subscribe(Subscriber subscriber) {
+        subscribers.add(subscriber);
+    }
+}
@@ -0,0 +1,20 @@
+package com.udemy.springboottest.cache;
+
+/**
+ * Broadcasts {@link EmployeeInvalidation}s to all instances, including the sender.
+ * Delivery is best effort and unordered; {@link Subscriber#onGap()} is called when
+ * messages may have been lost.
+ */
+public interface InvalidationBus {
+
+    void publish(EmployeeInvalidation invalidation);
+
+    void subscribe(Subscriber subscriber);
+
+    interface Subscriber {
+
+        void onInvalidation(EmployeeInvalidation invalidation);
+
+        void onGap();
+    }
+}
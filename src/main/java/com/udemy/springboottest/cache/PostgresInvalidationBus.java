@@ -0,0 +1,186 @@
+package com.udemy.springboottest.cache;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Carries invalidations over PostgreSQL {@code LISTEN/NOTIFY} on one dedicated connection,
+ * which a background thread owns. {@link #publish} only queues the invalidation, so the
+ * committing request never waits for that connection; the thread sends what is queued, with
+ * the payload {@code id:version:tenant}, and polls for notifications, waking up early when
+ * something is queued. Notifications sent while the connection was down are lost, so
+ * subscribers get {@link Subscriber#onGap()} after every reconnect.
+ */
+public class PostgresInvalidationBus implements InvalidationBus, Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresInvalidationBus.class);
+
+    static final String CHANNEL = "employee_invalidations";
+
+    static final int MAX_QUEUED = 10_000;
+
+    private final DataSource dataSource;
+
+    private final long pollIntervalMillis;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private final BlockingQueue<EmployeeInvalidation> queued = new LinkedBlockingQueue<>(MAX_QUEUED);
+
+    private final Object lock = new Object();
+
+    private Connection connection;
+
+    private volatile boolean running;
+
+    private Thread thread;
+
+    public PostgresInvalidationBus(DataSource dataSource, long pollIntervalMillis) {
+        this.dataSource = dataSource;
+        this.pollIntervalMillis = pollIntervalMillis;
+    }
+
+    public void start() {
+        running = true;
+        thread = new Thread(this::run, "employee-cache-invalidations");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void publish(EmployeeInvalidation invalidation) {
+        if (!queued.offer(invalidation)) {
+            log.warn("Invalidation queue full, dropping {}; other instances keep their copy until it expires", invalidation);
+        }
+    }
+
+    @Override
+    public void subscribe(Subscriber subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (lock) {
+            disconnect();
+        }
+    }
+
+    private void run() {
+        List<EmployeeInvalidation> batch = new ArrayList<>();
+        while (running) {
+            queued.drainTo(batch);
+            PGNotification[] notifications = null;
+            synchronized (lock) {
+                try {
+                    Connection current = connection();
+                    send(current, batch);
+                    try (Statement statement = current.createStatement()) {
+                        statement.execute("select 1");
+                    }
+                    notifications = current.unwrap(PGConnection.class).getNotifications();
+                } catch (SQLException e) {
+                    if (!batch.isEmpty()) {
+                        log.warn("Publishing {} invalidations failed, other instances keep their copy until it expires",
+                                batch.size());
+                    }
+                    log.warn("Listening for employee cache invalidations failed, reconnecting", e);
+                    disconnect();
+                }
+            }
+            batch.clear();
+            if (notifications != null) {
+                for (PGNotification notification : notifications) {
+                    deliver(notification.getParameter());
+                }
+            }
+            try {
+                EmployeeInvalidation next = queued.poll(pollIntervalMillis, TimeUnit.MILLISECONDS);
+                if (next != null) {
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private static void send(Connection connection, List<EmployeeInvalidation> batch) throws SQLException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        String[] payloads = new String[batch.size()];
+        for (int i = 0; i < payloads.length; i++) {
+            EmployeeInvalidation invalidation = batch.get(i);
+            payloads[i] = invalidation.getEmployeeId() + ":" + invalidation.getVersion() + ":" + invalidation.getTenantId();
+        }
+        // one round trip for everything queued since the last poll
+        try (PreparedStatement statement = connection.prepareStatement("select pg_notify(?, payload) from unnest(?) payload")) {
+            statement.setString(1, CHANNEL);
+            statement.setArray(2, connection.createArrayOf("text", payloads));
+            statement.execute();
+        }
+    }
+
+    private Connection connection() throws SQLException {
+        if (connection == null) {
+            Connection opened = dataSource.getConnection();
+            try (Statement statement = opened.createStatement()) {
+                opened.setAutoCommit(true);
+                statement.execute("listen " + CHANNEL);
+            } catch (SQLException e) {
+                opened.close();
+                throw e;
+            }
+            connection = opened;
+            subscribers.forEach(Subscriber::onGap);
+        }
+        return connection;
+    }
+
+    private void disconnect() {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                log.debug("Closing the invalidation connection failed", e);
+            }
+            connection = null;
+        }
+    }
+
+    private void deliver(String payload) {
+        String[] parts = payload.split(":", 3);
+        if (parts.length != 3) {
+            log.warn("Ignoring malformed employee cache invalidation '{}'", payload);
+            return;
+        }
+        EmployeeInvalidation invalidation = new EmployeeInvalidation(parts[2], Long.parseLong(parts[0]),
+                Long.parseLong(parts[1]));
+        subscribers.forEach(subscriber -> subscriber.onInvalidation(invalidation));
+    }
+}
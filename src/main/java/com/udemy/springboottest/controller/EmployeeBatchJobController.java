@@ -0,0 +1,44 @@
+package com.udemy.springboottest.controller;
+
+import com.udemy.springboottest.batch.BatchJob;
+import com.udemy.springboottest.batch.EmployeeBatchJobService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/employees/batch-jobs")
+public class EmployeeBatchJobController {
+
+    private EmployeeBatchJobService employeeBatchJobService;
+
+    public EmployeeBatchJobController(EmployeeBatchJobService employeeBatchJobService) {
+        this.employeeBatchJobService = employeeBatchJobService;
+    }
+
+    @PostMapping
+    public ResponseEntity<BatchJob> submitBatchJob(@RequestParam("task") String task,
+                                                   @RequestParam(value = "chunkSize", required = false) Integer chunkSize) {
+        BatchJob job = employeeBatchJobService.submit(task, chunkSize);
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQuery(null)
+                .path("/{jobId}")
+                .buildAndExpand(job.getId())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(job);
+    }
+
+    @GetMapping("{jobId}")
+    public ResponseEntity<BatchJob> getBatchJob(@PathVariable("jobId") String jobId) {
+        return employeeBatchJobService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("{jobId}/resume")
+    public ResponseEntity<BatchJob> resumeBatchJob(@PathVariable("jobId") String jobId) {
+        return ResponseEntity.accepted().body(employeeBatchJobService.resume(jobId));
+    }
+}
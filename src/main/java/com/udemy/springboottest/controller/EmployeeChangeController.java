@@ -0,0 +1,33 @@
+package com.udemy.springboottest.controller;
+
+import com.udemy.springboottest.model.EmployeeChange;
+import com.udemy.springboottest.outbox.EmployeeChangeFeed;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/employees/changes")
+public class EmployeeChangeController {
+
+    private EmployeeChangeFeed employeeChangeFeed;
+
+    public EmployeeChangeController(EmployeeChangeFeed employeeChangeFeed) {
+        this.employeeChangeFeed = employeeChangeFeed;
+    }
+
+    @GetMapping
+    public List<EmployeeChange> getChanges(@RequestParam(value = "since", defaultValue = "0") long since,
+                                           @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return employeeChangeFeed.changesSince(since, limit);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(value = "since", required = false) Long since,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        long cursor = since != null ? since : lastEventId != null ? lastEventId : 0L;
+        return employeeChangeFeed.subscribe(cursor);
+    }
+}
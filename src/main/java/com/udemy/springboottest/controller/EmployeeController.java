@@ -6,7 +6,13 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/employees")
@@ -24,18 +30,52 @@ public class EmployeeController {
         return employeeService.saveEmployee(employee);
     }
 
-    @GetMapping
+    /**
+     * {@code fields} and {@code modifiedSince} select different representations and cannot be
+     * combined: every mapping excludes the other's parameter, so a request with both matches
+     * none and is rejected with 400 instead of failing as an ambiguous mapping.
+     */
+    @GetMapping(params = {"!fields", "!modifiedSince"})
     public List<Employee> getAllEmployees() {
         return employeeService.getAllEmployees();
     }
 
-    @GetMapping("{id}")
+    /**
+     * Sparse fieldset: {@code ?fields=id,email} selects and writes only the listed attributes.
+     */
+    @GetMapping(params = {"fields", "!modifiedSince"})
+    public List<Map<String, Object>> getAllEmployees(@RequestParam("fields") String fields) {
+        return employeeService.getAllEmployees(parseFields(fields));
+    }
+
+    /**
+     * Keyset-paged sync: pass the {@code updatedAt} and {@code id} of the last row received
+     * as {@code modifiedSince} and {@code afterId} to fetch the next page. Changes of the last
+     * few seconds are held back until every write that could precede them has committed, so
+     * a client that has reached the end sees them on a later poll rather than missing them.
+     */
+    @GetMapping(params = {"modifiedSince", "!fields"})
+    public List<Employee> getEmployeesModifiedSince(@RequestParam("modifiedSince") Instant modifiedSince,
+                                                    @RequestParam(value = "afterId", defaultValue = "0") Long afterId,
+                                                    @RequestParam(value = "limit", defaultValue = "1000") int limit) {
+        return employeeService.getEmployeesModifiedSince(modifiedSince, afterId, limit);
+    }
+
+    @GetMapping(value = "{id}", params = "!fields")
     public ResponseEntity<Employee> getAllEmployeeById(@PathVariable("id") Long id) {
         return employeeService.getEmployeeById(id)
                 .map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    @GetMapping(value = "{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getAllEmployeeById(@PathVariable("id") Long id,
+                                                                  @RequestParam("fields") String fields) {
+        return employeeService.getEmployeeById(id, parseFields(fields))
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     @PutMapping("{id}")
     public ResponseEntity<Employee> updateEmployee(@PathVariable("id") Long id,
                                                    @RequestBody Employee employee) {
@@ -54,4 +94,11 @@ public class EmployeeController {
         employeeService.deleteEmployee(id);
         return new ResponseEntity<String>("Employee deleted successfully", HttpStatus.OK);
     }
+
+    private static Set<String> parseFields(String fields) {
+        return Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
 }
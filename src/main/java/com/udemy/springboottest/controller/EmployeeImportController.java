@@ -0,0 +1,48 @@
+package com.udemy.springboottest.controller;
+
+import com.udemy.springboottest.importer.EmployeeImportService;
+import com.udemy.springboottest.importer.ImportJob;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+@RestController
+@RequestMapping("/api/employees/import")
+public class EmployeeImportController {
+
+    private EmployeeImportService employeeImportService;
+
+    public EmployeeImportController(EmployeeImportService employeeImportService) {
+        this.employeeImportService = employeeImportService;
+    }
+
+    @PostMapping(consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<ImportJob> importEmployees(HttpServletRequest request) throws IOException {
+        Path upload = Files.createTempFile("employee-import-", ".csv");
+        try (InputStream body = request.getInputStream()) {
+            Files.copy(body, upload, StandardCopyOption.REPLACE_EXISTING);
+        }
+        ImportJob job = employeeImportService.submit(upload);
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{jobId}")
+                .buildAndExpand(job.getId())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(job);
+    }
+
+    @GetMapping("{jobId}")
+    public ResponseEntity<ImportJob> getImportJob(@PathVariable("jobId") String jobId) {
+        return employeeImportService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
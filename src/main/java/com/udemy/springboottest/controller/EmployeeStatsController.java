@@ -0,0 +1,26 @@
+package com.udemy.springboottest.controller;
+
+import com.udemy.springboottest.stats.EmployeeStatistics;
+import com.udemy.springboottest.stats.EmployeeStatsResponse;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/employees/stats")
+public class EmployeeStatsController {
+
+    private static final int MAX_TOP_DOMAINS = 1000;
+
+    private EmployeeStatistics employeeStatistics;
+
+    public EmployeeStatsController(EmployeeStatistics employeeStatistics) {
+        this.employeeStatistics = employeeStatistics;
+    }
+
+    /**
+     * Total employees plus counts by email domain (the {@code top} largest) and by last-name initial.
+     */
+    @GetMapping
+    public EmployeeStatsResponse getStats(@RequestParam(value = "top", defaultValue = "100") int top) {
+        return employeeStatistics.getStats(Math.max(1, Math.min(top, MAX_TOP_DOMAINS)));
+    }
+}
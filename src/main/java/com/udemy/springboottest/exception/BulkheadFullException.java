@@ -0,0 +1,8 @@
+package com.udemy.springboottest.exception;
+
+public class BulkheadFullException extends DatabaseUnavailableException {
+
+    public BulkheadFullException(String message) {
+        super(message);
+    }
+}
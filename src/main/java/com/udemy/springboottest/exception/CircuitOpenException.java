@@ -0,0 +1,8 @@
+package com.udemy.springboottest.exception;
+
+public class CircuitOpenException extends DatabaseUnavailableException {
+
+    public CircuitOpenException(String message) {
+        super(message);
+    }
+}
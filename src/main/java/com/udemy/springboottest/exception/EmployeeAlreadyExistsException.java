@@ -0,0 +1,42 @@
+package com.udemy.springboottest.exception;
+
+import java.util.Locale;
+
+/**
+ * An employee with the email already exists. Thrown for every duplicate create or update, so it
+ * captures no stack trace and only builds its message when asked.
+ */
+public class EmployeeAlreadyExistsException extends RuntimeException {
+
+    private static final String UNIQUE_EMAIL_INDEX = "uq_employees_tenant_live_email";
+
+    private final String email;
+
+    public EmployeeAlreadyExistsException(String email) {
+        super(null, null, false, false);
+        this.email = email;
+    }
+
+    /**
+     * Whether {@code e} or one of its causes is a violation of the unique index on the email of
+     * live employees, which catches duplicates the existence check raced with.
+     */
+    public static boolean isDuplicateEmail(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            String message = cause.getMessage();
+            if (message != null && message.toLowerCase(Locale.ROOT).contains(UNIQUE_EMAIL_INDEX)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Employee already exists with given email: " + email;
+    }
+}
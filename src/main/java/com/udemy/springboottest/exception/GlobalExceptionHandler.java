@@ -0,0 +1,72 @@
+package com.udemy.springboottest.exception;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import javax.servlet.http.HttpServletRequest;
+import java.time.Instant;
+
+/**
+ * Maps expected domain failures to their status codes with a short JSON body. These are
+ * client or capacity errors, not bugs, so they are logged at debug level without stacks.
+ */
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
+    @ExceptionHandler(EmployeeAlreadyExistsException.class)
+    public ResponseEntity<ErrorResponse> handleAlreadyExists(EmployeeAlreadyExistsException e, HttpServletRequest request) {
+        return respond(HttpStatus.CONFLICT, e, request);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleConcurrentUpdate(OptimisticLockingFailureException e, HttpServletRequest request) {
+        return respond(HttpStatus.CONFLICT, "Employee was modified concurrently, reload and retry", request);
+    }
+
+    @ExceptionHandler(UnsupportedFieldException.class)
+    public ResponseEntity<ErrorResponse> handleUnsupportedField(UnsupportedFieldException e, HttpServletRequest request) {
+        return respond(HttpStatus.BAD_REQUEST, e, request);
+    }
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleNotFound(ResourceNotFoundException e, HttpServletRequest request) {
+        return respond(HttpStatus.NOT_FOUND, e, request);
+    }
+
+    @ExceptionHandler(EmptyResultDataAccessException.class)
+    public ResponseEntity<ErrorResponse> handleEmptyResult(EmptyResultDataAccessException e, HttpServletRequest request) {
+        return respond(HttpStatus.NOT_FOUND, "Resource not found", request);
+    }
+
+    @ExceptionHandler(DatabaseUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleDatabaseUnavailable(DatabaseUnavailableException e, HttpServletRequest request) {
+        log.warn("{} {} refused: {}", request.getMethod(), request.getRequestURI(), e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(body(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), request));
+    }
+
+    private static ResponseEntity<ErrorResponse> respond(HttpStatus status, Exception e, HttpServletRequest request) {
+        return respond(status, e.getMessage(), request);
+    }
+
+    private static ResponseEntity<ErrorResponse> respond(HttpStatus status, String message, HttpServletRequest request) {
+        if (log.isDebugEnabled()) {
+            log.debug("{} {} -> {}: {}", request.getMethod(), request.getRequestURI(), status.value(), message);
+        }
+        return ResponseEntity.status(status).body(body(status, message, request));
+    }
+
+    private static ErrorResponse body(HttpStatus status, String message, HttpServletRequest request) {
+        return new ErrorResponse(Instant.now(), status.value(), status.getReasonPhrase(), message, request.getRequestURI());
+    }
+}
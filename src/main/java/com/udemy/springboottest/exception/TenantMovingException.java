@@ -0,0 +1,12 @@
+package com.udemy.springboottest.exception;
+
+/**
+ * The tenant's writes are fenced on this shard while it is moved to another one; the write
+ * succeeds once the move has finished and the routing has caught up.
+ */
+public class TenantMovingException extends DatabaseUnavailableException {
+
+    public TenantMovingException(String tenantId) {
+        super("Tenant " + tenantId + " is being moved, retry later");
+    }
+}
@@ -0,0 +1,8 @@
+package com.udemy.springboottest.exception;
+
+public class UnsupportedFieldException extends RuntimeException {
+
+    public UnsupportedFieldException(String message) {
+        super(message);
+    }
+}
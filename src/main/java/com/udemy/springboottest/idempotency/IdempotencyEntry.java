@@ -0,0 +1,22 @@
+package com.udemy.springboottest.idempotency;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * What a store holds for an idempotency key: nothing yet while the first request is still
+ * running, then the SHA-256 of that request's body and its {@link StoredResponse}.
+ */
+@Getter
+@AllArgsConstructor
+public class IdempotencyEntry {
+
+    static final IdempotencyEntry PENDING = new IdempotencyEntry(null, null);
+
+    private final String fingerprint;
+    private final StoredResponse response;
+
+    public boolean isPending() {
+        return response == null;
+    }
+}
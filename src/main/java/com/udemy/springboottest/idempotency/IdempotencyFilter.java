@@ -0,0 +1,195 @@
+package com.udemy.springboottest.idempotency;
+
+import com.udemy.springboottest.tenant.TenantContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Makes {@code POST /api/employees}, {@code POST /api/employees/import} and
+ * {@code POST /api/employees/batch-jobs} safe to retry. The first request with an
+ * {@code Idempotency-Key} claims the key in the store and runs, and its response is stored
+ * with a fingerprint of its query string and body; later requests with the same key
+ * (per tenant and path) get that response replayed without reaching the controller, or 422
+ * if their query string or body differs. The tenant is the one bound by the
+ * {@link com.udemy.springboottest.tenant.TenantFilter}, which runs first, never the raw header.
+ * Requests with a key that is still running poll the store until it completes, so they wait on
+ * whichever instance holds the claim. Server errors, rejections and 401/403 responses are not
+ * stored, so they can be retried.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 30)
+@ConditionalOnProperty(prefix = "employee.idempotency", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyFilter extends OncePerRequestFilter implements MeterBinder {
+
+    public static final String KEY_HEADER = "Idempotency-Key";
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private static final long POLL_MILLIS = 50;
+
+    private static final Set<String> PATHS = new HashSet<>(Arrays.asList("/api/employees", "/api/employees/import",
+            "/api/employees/batch-jobs"));
+
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    private final IdempotencyStore store;
+
+    private final long waitMillis;
+
+    private final AtomicLong replays = new AtomicLong();
+
+    public IdempotencyFilter(ObjectProvider<IdempotencyStore> store,
+                             @Value("${employee.idempotency.ttl-ms:86400000}") long ttlMillis,
+                             @Value("${employee.idempotency.max-entries:10000}") int maxEntries,
+                             @Value("${employee.idempotency.wait-ms:30000}") long waitMillis) {
+        this(store.getIfAvailable(() -> new InMemoryIdempotencyStore(ttlMillis, maxEntries)), waitMillis);
+    }
+
+    IdempotencyFilter(IdempotencyStore store, long waitMillis) {
+        this.store = store;
+        this.waitMillis = waitMillis;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod()) || request.getHeader(KEY_HEADER) == null
+                || !PATHS.contains(urlPathHelper.getPathWithinApplication(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(KEY_HEADER);
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Invalid " + KEY_HEADER);
+            return;
+        }
+        String key = storeKey(request, idempotencyKey);
+        FingerprintingRequest fingerprinted = new FingerprintingRequest(request);
+        while (true) {
+            Optional<IdempotencyEntry> entry = store.find(key);
+            if (!entry.isPresent()) {
+                if (store.claim(key)) {
+                    execute(key, fingerprinted, response, filterChain);
+                    return;
+                }
+                continue;
+            }
+            if (entry.get().isPending()) {
+                entry = awaitCompletion(key);
+                if (entry == null) {
+                    response.sendError(HttpStatus.CONFLICT.value(), "A request with this " + KEY_HEADER + " is still in progress");
+                    return;
+                }
+                if (!entry.isPresent()) {
+                    // the first request's response was not stored (failed or retryable), run this one
+                    continue;
+                }
+            }
+            if (!entry.get().getFingerprint().equals(fingerprinted.fingerprint())) {
+                response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                        "This " + KEY_HEADER + " was already used with a different request");
+                return;
+            }
+            replay(entry.get().getResponse(), response);
+            return;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("employee.idempotency.replays", replays, AtomicLong::get)
+                .description("Requests answered with the stored response of an earlier request with the same key")
+                .register(registry);
+    }
+
+    private void execute(String key, FingerprintingRequest request, HttpServletResponse response,
+                         FilterChain filterChain) throws ServletException, IOException {
+        boolean saved = false;
+        try {
+            ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+            filterChain.doFilter(request, wrapper);
+            if (isStorable(wrapper.getStatus()) && !request.isAsyncStarted()) {
+                store.save(key, request.fingerprint(), new StoredResponse(wrapper.getStatus(), wrapper.getContentType(),
+                        wrapper.getHeader(HttpHeaders.LOCATION), wrapper.getContentAsByteArray()));
+                saved = true;
+            }
+            wrapper.copyBodyToResponse();
+        } finally {
+            if (!saved) {
+                store.release(key);
+            }
+        }
+    }
+
+    /**
+     * The entry once the request holding the key completed, empty if it released the key, or
+     * {@code null} if it is still running after {@code waitMillis}.
+     */
+    private Optional<IdempotencyEntry> awaitCompletion(String key) throws ServletException {
+        long deadline = System.currentTimeMillis() + waitMillis;
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException("Interrupted while waiting for an idempotent request", e);
+            }
+            Optional<IdempotencyEntry> entry = store.find(key);
+            if (!entry.isPresent() || !entry.get().isPending()) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private void replay(StoredResponse stored, HttpServletResponse response) throws IOException {
+        replays.incrementAndGet();
+        response.setStatus(stored.getStatus());
+        if (stored.getContentType() != null) {
+            response.setContentType(stored.getContentType());
+        }
+        if (stored.getLocation() != null) {
+            response.setHeader(HttpHeaders.LOCATION, stored.getLocation());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.getBody().length);
+        response.getOutputStream().write(stored.getBody());
+    }
+
+    private String storeKey(HttpServletRequest request, String idempotencyKey) {
+        return TenantContext.getTenantId() + ':' + urlPathHelper.getPathWithinApplication(request) + ':' + idempotencyKey;
+    }
+
+    private static boolean isStorable(int status) {
+        return status < 500 && status != HttpStatus.TOO_MANY_REQUESTS.value()
+                && status != HttpStatus.CONFLICT.value() && status != HttpStatus.UNAUTHORIZED.value()
+                && status != HttpStatus.FORBIDDEN.value();
+    }
+}
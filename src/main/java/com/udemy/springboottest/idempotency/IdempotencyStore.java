@@ -0,0 +1,27 @@
+package com.udemy.springboottest.idempotency;
+
+import java.util.Optional;
+
+/**
+ * Tracks each idempotency key from the moment a request claims it until its stored
+ * response expires.
+ */
+public interface IdempotencyStore {
+
+    Optional<IdempotencyEntry> find(String key);
+
+    /**
+     * Claims the key for a request about to run; {@code false} if another request holds it.
+     */
+    boolean claim(String key);
+
+    /**
+     * Completes the claim with the response to replay and the fingerprint of the request.
+     */
+    void save(String key, String fingerprint, StoredResponse response);
+
+    /**
+     * Gives up a claim whose response is not stored, so that a retry runs again.
+     */
+    void release(String key);
+}
@@ -0,0 +1,86 @@
+package com.udemy.springboottest.idempotency;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Keeps claims and responses for {@code ttlMillis} in insertion order, which is also expiry
+ * order, so expired entries and the oldest ones beyond {@code maxEntries} are evicted from
+ * the head. A claim cannot outlive its request here, so it needs no shorter lease.
+ */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final long ttlMillis;
+
+    private final int maxEntries;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    public InMemoryIdempotencyStore(long ttlMillis, int maxEntries) {
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public synchronized Optional<IdempotencyEntry> find(String key) {
+        evict(System.currentTimeMillis());
+        Entry entry = entries.get(key);
+        return entry == null ? Optional.empty() : Optional.of(entry.entry);
+    }
+
+    @Override
+    public synchronized boolean claim(String key) {
+        long now = System.currentTimeMillis();
+        evict(now);
+        if (entries.containsKey(key)) {
+            return false;
+        }
+        entries.put(key, new Entry(IdempotencyEntry.PENDING, now + ttlMillis));
+        return true;
+    }
+
+    @Override
+    public synchronized void save(String key, String fingerprint, StoredResponse response) {
+        long now = System.currentTimeMillis();
+        entries.remove(key);
+        entries.put(key, new Entry(new IdempotencyEntry(fingerprint, response), now + ttlMillis));
+        evict(now);
+    }
+
+    @Override
+    public synchronized void release(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.entry.isPending()) {
+            entries.remove(key);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void evict(long now) {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Entry> oldest = iterator.next();
+            if (entries.size() <= maxEntries && oldest.getValue().expiresAtMillis > now) {
+                return;
+            }
+            iterator.remove();
+        }
+    }
+
+    private static class Entry {
+
+        private final IdempotencyEntry entry;
+
+        private final long expiresAtMillis;
+
+        Entry(IdempotencyEntry entry, long expiresAtMillis) {
+            this.entry = entry;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.udemy.springboottest.idempotency;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps claims and responses in the {@code idempotency_keys} table, so a retry is recognised
+ * by any instance and after a restart. A claim is a row without a status; it expires after
+ * {@code lease-ms}, so a key held by an instance that died is freed again. Expired rows are
+ * ignored and deleted periodically.
+ */
+@Component
+@ConditionalOnProperty(prefix = "employee.idempotency", name = "store", havingValue = "jdbc")
+public class JdbcIdempotencyStore implements IdempotencyStore {
+
+    private JdbcTemplate jdbcTemplate;
+
+    private final long ttlMillis;
+
+    private final long leaseMillis;
+
+    public JdbcIdempotencyStore(JdbcTemplate jdbcTemplate,
+                                @Value("${employee.idempotency.ttl-ms:86400000}") long ttlMillis,
+                                @Value("${employee.idempotency.lease-ms:600000}") long leaseMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttlMillis = ttlMillis;
+        this.leaseMillis = leaseMillis;
+    }
+
+    @Override
+    public Optional<IdempotencyEntry> find(String key) {
+        List<IdempotencyEntry> entries = jdbcTemplate.query(
+                "select fingerprint, status, content_type, location, body from idempotency_keys " +
+                        "where idempotency_key = ? and expires_at > ?",
+                (resultSet, row) -> {
+                    int status = resultSet.getInt("status");
+                    if (resultSet.wasNull()) {
+                        return IdempotencyEntry.PENDING;
+                    }
+                    return new IdempotencyEntry(resultSet.getString("fingerprint"), new StoredResponse(status,
+                            resultSet.getString("content_type"), resultSet.getString("location"), resultSet.getBytes("body")));
+                },
+                key, Timestamp.from(Instant.now()));
+        return entries.stream().findFirst();
+    }
+
+    @Override
+    public boolean claim(String key) {
+        Instant now = Instant.now();
+        jdbcTemplate.update("delete from idempotency_keys where idempotency_key = ? and expires_at <= ?", key, Timestamp.from(now));
+        try {
+            jdbcTemplate.update("insert into idempotency_keys (idempotency_key, expires_at) values (?, ?)",
+                    key, Timestamp.from(now.plusMillis(leaseMillis)));
+            return true;
+        } catch (DuplicateKeyException e) {
+            // another request, on this instance or another one, claimed the key first
+            return false;
+        }
+    }
+
+    @Override
+    public void save(String key, String fingerprint, StoredResponse response) {
+        jdbcTemplate.update("update idempotency_keys set fingerprint = ?, status = ?, content_type = ?, location = ?, body = ?, " +
+                        "expires_at = ? where idempotency_key = ?",
+                fingerprint, response.getStatus(), response.getContentType(), response.getLocation(), response.getBody(),
+                Timestamp.from(Instant.now().plusMillis(ttlMillis)), key);
+    }
+
+    @Override
+    public void release(String key) {
+        jdbcTemplate.update("delete from idempotency_keys where idempotency_key = ? and status is null", key);
+    }
+
+    @Scheduled(fixedDelayString = "${employee.idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        jdbcTemplate.update("delete from idempotency_keys where expires_at <= ?", Timestamp.from(Instant.now()));
+    }
+}
@@ -0,0 +1,17 @@
+package com.udemy.springboottest.idempotency;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * What is replayed for a repeated idempotency key: the status, the headers that carry
+ * meaning for a create and the body.
+ */
+@Getter
+@AllArgsConstructor
+public class StoredResponse {
+    private final int status;
+    private final String contentType;
+    private final String location;
+    private final byte[] body;
+}
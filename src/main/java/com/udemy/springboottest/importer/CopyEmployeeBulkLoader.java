@@ -0,0 +1,104 @@
+package com.udemy.springboottest.importer;
+
+import com.udemy.springboottest.tenant.TenantWriteFence;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * PostgreSQL loader: streams the rows into a transaction-scoped staging table with
+ * {@code COPY ... FROM STDIN}, then moves the rows whose email is unused into
+ * {@code employees} with a single set-based insert that reports the rows it inserted. The
+ * batch commits through the {@link TenantWriteFence}, like any other employee write.
+ */
+public class CopyEmployeeBulkLoader implements EmployeeBulkLoader {
+
+    private static final String CREATE_STAGING = "create temporary table employee_import " +
+            "(first_name varchar(255), last_name varchar(255), email varchar(255)) on commit drop";
+
+    private static final String COPY_STAGING = "copy employee_import (first_name, last_name, email) " +
+            "from stdin with (format csv)";
+
+    /**
+     * Emails are compared case-insensitively. Rows that pass the check but collide with an employee
+     * committed concurrently are skipped by the unique index instead of failing the batch.
+     */
+    private static final String INSERT_NEW = "insert into employees (first_name, last_name, email, created_at, updated_at, tenant_id) " +
+            "select i.first_name, i.last_name, i.email, now(), now(), ? from employee_import i where not exists " +
+            "(select 1 from employees e where e.tenant_id = ? and lower(e.email) = lower(i.email) and e.deleted_at is null) " +
+            "on conflict (tenant_id, email) where deleted_at is null do nothing returning email";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TenantWriteFence writeFence;
+
+    public CopyEmployeeBulkLoader(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, TenantWriteFence writeFence) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.writeFence = writeFence;
+    }
+
+    @Override
+    public Set<String> load(String tenantId, List<EmployeeRow> rows) {
+        return transactionTemplate.execute(status -> {
+            Set<String> existing = jdbcTemplate.execute((ConnectionCallback<Set<String>>) connection -> copy(connection, tenantId, rows));
+            writeFence.enter(tenantId);
+            return existing;
+        });
+    }
+
+    private static Set<String> copy(Connection connection, String tenantId, List<EmployeeRow> rows) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_STAGING);
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            copyManager.copyIn(COPY_STAGING, new StringReader(toCsv(rows)));
+            Set<String> existing = new HashSet<>();
+            for (EmployeeRow row : rows) {
+                existing.add(row.getEmail().toLowerCase(Locale.ROOT));
+            }
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_NEW)) {
+                insert.setString(1, tenantId);
+                insert.setString(2, tenantId);
+                try (ResultSet inserted = insert.executeQuery()) {
+                    while (inserted.next()) {
+                        existing.remove(inserted.getString(1).toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+            return existing;
+        } catch (IOException e) {
+            throw new UncheckedIOException("COPY into employee_import failed", e);
+        }
+    }
+
+    private static String toCsv(List<EmployeeRow> rows) {
+        StringBuilder csv = new StringBuilder(rows.size() * 64);
+        for (EmployeeRow row : rows) {
+            appendField(csv, row.getFirstName()).append(',');
+            appendField(csv, row.getLastName()).append(',');
+            appendField(csv, row.getEmail()).append('\n');
+        }
+        return csv.toString();
+    }
+
+    private static StringBuilder appendField(StringBuilder csv, String value) {
+        return csv.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
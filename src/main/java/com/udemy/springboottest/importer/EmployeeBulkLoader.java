@@ -0,0 +1,15 @@
+package com.udemy.springboottest.importer;
+
+import java.util.List;
+import java.util.Set;
+
+public interface EmployeeBulkLoader {
+    /**
+     * Inserts the rows whose email is not in use by {@code tenantId} yet, in one transaction.
+     * Emails are compared case-insensitively.
+     *
+     * @return emails, lower-cased with {@link java.util.Locale#ROOT}, that were skipped because
+     * an employee with that email already exists
+     */
+    Set<String> load(String tenantId, List<EmployeeRow> rows);
+}
@@ -0,0 +1,203 @@
+package com.udemy.springboottest.importer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Parses {@code first_name,last_name,email} CSV files. The file is split into chunks at line
+ * boundaries and every chunk is memory-mapped and parsed on its own fork-join worker.
+ * Quoted fields ({@code "..."} with {@code ""} escapes) are supported, line breaks inside
+ * quoted fields are not.
+ */
+public class EmployeeCsvParser {
+
+    static final int DEFAULT_CHUNK_BYTES = 64 * 1024 * 1024;
+
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+
+    private static final int MAX_FIELD_LENGTH = 255;
+
+    private static final String HEADER = "firstname,lastname,email";
+
+    private final int parallelism;
+
+    private final int chunkBytes;
+
+    public EmployeeCsvParser(int parallelism) {
+        this(parallelism, DEFAULT_CHUNK_BYTES);
+    }
+
+    EmployeeCsvParser(int parallelism, int chunkBytes) {
+        this.parallelism = parallelism;
+        this.chunkBytes = chunkBytes;
+    }
+
+    public List<ParsedChunk> parse(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<long[]> ranges = split(channel);
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                return pool.submit(() -> ranges.parallelStream()
+                        .map(range -> parseChunk(channel, range[0], range[1], range[0] == 0))
+                        .collect(Collectors.toList())).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while parsing " + file, e);
+            } catch (ExecutionException e) {
+                throw new IOException("Failed to parse " + file, e.getCause());
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private List<long[]> split(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<long[]> ranges = new ArrayList<>();
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(size, start + chunkBytes);
+            if (end < size) {
+                end = nextLineStart(channel, end, size);
+            }
+            ranges.add(new long[]{start, end});
+            start = end;
+        }
+        return ranges;
+    }
+
+    private static long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long position = from;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static ParsedChunk parseChunk(FileChannel channel, long start, long end, boolean firstChunk) {
+        MappedByteBuffer buffer;
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot map bytes " + start + "-" + end, e);
+        }
+        List<EmployeeRow> rows = new ArrayList<>();
+        List<RejectedRow> rejected = new ArrayList<>();
+        long line = 0;
+        int lineStart = 0;
+        int limit = buffer.limit();
+        for (int i = 0; i <= limit; i++) {
+            if (i < limit && buffer.get(i) != '\n') {
+                continue;
+            }
+            if (i == limit && lineStart == limit) {
+                break;
+            }
+            line++;
+            int lineEnd = i > lineStart && buffer.get(i - 1) == '\r' ? i - 1 : i;
+            byte[] bytes = new byte[lineEnd - lineStart];
+            for (int b = 0; b < bytes.length; b++) {
+                bytes[b] = buffer.get(lineStart + b);
+            }
+            lineStart = i + 1;
+            String text = new String(bytes, StandardCharsets.UTF_8);
+            if (text.trim().isEmpty() || (firstChunk && line == 1 && isHeader(text))) {
+                continue;
+            }
+            parseLine(line, text, rows, rejected);
+        }
+        return new ParsedChunk(line, rows, rejected);
+    }
+
+    private static void parseLine(long line, String text, List<EmployeeRow> rows, List<RejectedRow> rejected) {
+        List<String> fields = splitFields(text);
+        if (fields == null) {
+            rejected.add(new RejectedRow(line, "Unterminated quoted field"));
+            return;
+        }
+        if (fields.size() != 3) {
+            rejected.add(new RejectedRow(line, "Expected 3 fields but found " + fields.size()));
+            return;
+        }
+        String firstName = fields.get(0).trim();
+        String lastName = fields.get(1).trim();
+        String email = fields.get(2).trim();
+        String problem = validate(firstName, lastName, email);
+        if (problem != null) {
+            rejected.add(new RejectedRow(line, problem));
+        } else {
+            rows.add(new EmployeeRow(line, firstName, lastName, email));
+        }
+    }
+
+    private static String validate(String firstName, String lastName, String email) {
+        if (firstName.isEmpty() || lastName.isEmpty()) {
+            return "First name and last name are required";
+        }
+        if (firstName.length() > MAX_FIELD_LENGTH || lastName.length() > MAX_FIELD_LENGTH
+                || email.length() > MAX_FIELD_LENGTH) {
+            return "Field longer than " + MAX_FIELD_LENGTH + " characters";
+        }
+        if (!EMAIL.matcher(email).matches()) {
+            return "Invalid email";
+        }
+        return null;
+    }
+
+    private static boolean isHeader(String text) {
+        return text.replace("\"", "").replace("_", "").replace(" ", "").equalsIgnoreCase(HEADER);
+    }
+
+    static List<String> splitFields(String line) {
+        List<String> fields = new ArrayList<>(3);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
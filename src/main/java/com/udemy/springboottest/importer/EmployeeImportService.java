@@ -0,0 +1,155 @@
+package com.udemy.springboottest.importer;
+
+import com.udemy.springboottest.tenant.TenantContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs CSV imports one at a time in the background: parallel parse and validation,
+ * in-memory email de-duplication, then batched loading through {@link EmployeeBulkLoader}
+ * into the tenant that submitted the file.
+ * Imports write to the table directly and do not go through the employee change outbox;
+ * each loaded batch is announced with an {@link EmployeesImportedEvent} instead.
+ */
+@Service
+public class EmployeeImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeImportService.class);
+
+    private static final int MAX_RETAINED_JOBS = 100;
+
+    private EmployeeBulkLoader bulkLoader;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    private final EmployeeCsvParser parser;
+
+    private final int batchSize;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "employee-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public EmployeeImportService(EmployeeBulkLoader bulkLoader,
+                                 ApplicationEventPublisher eventPublisher,
+                                 @Value("${employee.import.parallelism:0}") int parallelism,
+                                 @Value("${employee.import.batch-size:50000}") int batchSize) {
+        this.bulkLoader = bulkLoader;
+        this.eventPublisher = eventPublisher;
+        this.parser = new EmployeeCsvParser(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Queues the import of {@code file}; the file is deleted once the import finishes.
+     */
+    public ImportJob submit(Path file) {
+        ImportJob job = new ImportJob();
+        evictFinishedJobs();
+        jobs.put(job.getId(), job);
+        String tenantId = TenantContext.getTenantId();
+        executor.execute(() -> TenantContext.runAs(tenantId, () -> run(tenantId, job, file)));
+        return job;
+    }
+
+    public Optional<ImportJob> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(String tenantId, ImportJob job, Path file) {
+        try {
+            job.status(ImportJob.Status.PARSING);
+            List<EmployeeRow> rows = collect(parser.parse(file), job);
+            job.status(ImportJob.Status.LOADING);
+            for (int from = 0; from < rows.size(); from += batchSize) {
+                List<EmployeeRow> batch = rows.subList(from, Math.min(rows.size(), from + batchSize));
+                Set<String> existing = bulkLoader.load(tenantId, batch);
+                List<EmployeeRow> inserted = new ArrayList<>(batch.size() - existing.size());
+                for (EmployeeRow row : batch) {
+                    if (existing.contains(row.getEmail().toLowerCase(Locale.ROOT))) {
+                        job.reject(new RejectedRow(row.getLine(), "Email already exists"));
+                    } else {
+                        inserted.add(row);
+                    }
+                }
+                eventPublisher.publishEvent(new EmployeesImportedEvent(tenantId, inserted));
+                job.imported(batch.size() - existing.size());
+            }
+            job.completed();
+            log.info("Import {} finished: {} imported, {} rejected", job.getId(), job.getRowsImported(), job.getRowsRejected());
+        } catch (Exception e) {
+            log.error("Import {} failed", job.getId(), e);
+            job.failed(e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete import file {}", file, e);
+            }
+        }
+    }
+
+    /**
+     * Offsets chunk-relative line numbers, reports rejected rows in file order and drops
+     * every repeated email (case-insensitively) after its first occurrence.
+     */
+    private static List<EmployeeRow> collect(List<ParsedChunk> chunks, ImportJob job) {
+        List<EmployeeRow> accepted = new ArrayList<>();
+        Set<String> seenEmails = new HashSet<>();
+        long lineOffset = 0;
+        for (ParsedChunk chunk : chunks) {
+            job.parsed(chunk.getRows().size() + chunk.getRejected().size());
+            for (RejectedRow rejected : chunk.getRejected()) {
+                job.reject(new RejectedRow(lineOffset + rejected.getLine(), rejected.getReason()));
+            }
+            for (EmployeeRow row : chunk.getRows()) {
+                long line = lineOffset + row.getLine();
+                if (seenEmails.add(row.getEmail().toLowerCase(Locale.ROOT))) {
+                    accepted.add(new EmployeeRow(line, row.getFirstName(), row.getLastName(), row.getEmail()));
+                } else {
+                    job.reject(new RejectedRow(line, "Duplicate email in file"));
+                }
+            }
+            lineOffset += chunk.getLineCount();
+        }
+        return accepted;
+    }
+
+    private void evictFinishedJobs() {
+        if (jobs.size() < MAX_RETAINED_JOBS) {
+            return;
+        }
+        jobs.values().stream()
+                .filter(ImportJob::isFinished)
+                .min(Comparator.comparing(ImportJob::getSubmittedAt))
+                .ifPresent(oldest -> jobs.remove(oldest.getId()));
+    }
+}
@@ -0,0 +1,11 @@
+package com.udemy.springboottest.importer;
+
+import lombok.Value;
+
+@Value
+public class EmployeeRow {
+    long line;
+    String firstName;
+    String lastName;
+    String email;
+}
@@ -0,0 +1,19 @@
+package com.udemy.springboottest.importer;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Published after each committed import batch with the rows it inserted, since imports
+ * bypass {@code EmployeeService} and its change events.
+ */
+@Getter
+@ToString(exclude = "rows")
+@AllArgsConstructor
+public class EmployeesImportedEvent {
+    private final String tenantId;
+    private final List<EmployeeRow> rows;
+}
@@ -0,0 +1,23 @@
+package com.udemy.springboottest.importer;
+
+import com.udemy.springboottest.tenant.TenantWriteFence;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+public class ImportConfiguration {
+
+    @Bean
+    public EmployeeBulkLoader employeeBulkLoader(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                                 TenantWriteFence writeFence) {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if ("PostgreSQL".equals(product)) {
+            return new CopyEmployeeBulkLoader(jdbcTemplate, transactionTemplate, writeFence);
+        }
+        return new JdbcBatchEmployeeBulkLoader(jdbcTemplate, transactionTemplate, writeFence);
+    }
+}
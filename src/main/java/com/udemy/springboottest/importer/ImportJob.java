@@ -0,0 +1,116 @@
+package com.udemy.springboottest.importer;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one CSV import, safe to read while the import is running.
+ * Only the first {@link #MAX_REPORTED_REJECTIONS} rejected rows are kept in detail.
+ */
+public class ImportJob {
+
+    static final int MAX_REPORTED_REJECTIONS = 1000;
+
+    public enum Status {
+        QUEUED,
+        PARSING,
+        LOADING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final String id = UUID.randomUUID().toString();
+
+    private final Instant submittedAt = Instant.now();
+
+    private final AtomicLong rowsParsed = new AtomicLong();
+
+    private final AtomicLong rowsImported = new AtomicLong();
+
+    private final AtomicLong rowsRejected = new AtomicLong();
+
+    private final List<RejectedRow> rejections = new ArrayList<>();
+
+    private volatile Status status = Status.QUEUED;
+
+    private volatile Instant finishedAt;
+
+    private volatile String error;
+
+    public String getId() {
+        return id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getRowsParsed() {
+        return rowsParsed.get();
+    }
+
+    public long getRowsImported() {
+        return rowsImported.get();
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected.get();
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public List<RejectedRow> getRejections() {
+        synchronized (rejections) {
+            return new ArrayList<>(rejections);
+        }
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    void status(Status status) {
+        this.status = status;
+    }
+
+    void parsed(long rows) {
+        rowsParsed.addAndGet(rows);
+    }
+
+    void imported(long rows) {
+        rowsImported.addAndGet(rows);
+    }
+
+    void reject(RejectedRow row) {
+        rowsRejected.incrementAndGet();
+        synchronized (rejections) {
+            if (rejections.size() < MAX_REPORTED_REJECTIONS) {
+                rejections.add(row);
+            }
+        }
+    }
+
+    void completed() {
+        finishedAt = Instant.now();
+        status = Status.COMPLETED;
+    }
+
+    void failed(String error) {
+        this.error = error;
+        finishedAt = Instant.now();
+        status = Status.FAILED;
+    }
+}
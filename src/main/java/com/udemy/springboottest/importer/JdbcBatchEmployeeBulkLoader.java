@@ -0,0 +1,83 @@
+package com.udemy.springboottest.importer;
+
+import com.udemy.springboottest.tenant.TenantWriteFence;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Portable loader for databases without a COPY protocol: looks up already used emails
+ * with batched {@code IN} queries and inserts the remaining rows with JDBC batching. The
+ * batch commits through the {@link TenantWriteFence}, like any other employee write.
+ */
+public class JdbcBatchEmployeeBulkLoader implements EmployeeBulkLoader {
+
+    private static final int LOOKUP_SIZE = 1000;
+
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    private static final String EXISTING_EMAILS = "select lower(email) from employees " +
+            "where tenant_id = :tenantId and deleted_at is null and lower(email) in (:emails)";
+
+    private static final String INSERT = "insert into employees (first_name, last_name, email, created_at, updated_at, tenant_id) " +
+            "values (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TenantWriteFence writeFence;
+
+    public JdbcBatchEmployeeBulkLoader(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, TenantWriteFence writeFence) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = transactionTemplate;
+        this.writeFence = writeFence;
+    }
+
+    @Override
+    public Set<String> load(String tenantId, List<EmployeeRow> rows) {
+        return transactionTemplate.execute(status -> {
+            Set<String> existing = existingEmails(tenantId, rows);
+            List<EmployeeRow> fresh = rows.stream()
+                    .filter(row -> !existing.contains(row.getEmail().toLowerCase(Locale.ROOT)))
+                    .collect(Collectors.toList());
+            Timestamp now = Timestamp.from(Instant.now());
+            jdbcTemplate.batchUpdate(INSERT, fresh, INSERT_BATCH_SIZE, (statement, row) -> {
+                statement.setString(1, row.getFirstName());
+                statement.setString(2, row.getLastName());
+                statement.setString(3, row.getEmail());
+                statement.setTimestamp(4, now);
+                statement.setTimestamp(5, now);
+                statement.setString(6, tenantId);
+            });
+            writeFence.enter(tenantId);
+            return existing;
+        });
+    }
+
+    private Set<String> existingEmails(String tenantId, List<EmployeeRow> rows) {
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < rows.size(); from += LOOKUP_SIZE) {
+            List<String> emails = new ArrayList<>();
+            for (EmployeeRow row : rows.subList(from, Math.min(rows.size(), from + LOOKUP_SIZE))) {
+                emails.add(row.getEmail().toLowerCase(Locale.ROOT));
+            }
+            existing.addAll(namedParameterJdbcTemplate.queryForList(EXISTING_EMAILS,
+                    new MapSqlParameterSource("tenantId", tenantId).addValue("emails", emails), String.class));
+        }
+        return existing;
+    }
+}
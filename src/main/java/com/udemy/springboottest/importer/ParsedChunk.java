@@ -0,0 +1,16 @@
+package com.udemy.springboottest.importer;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Result of parsing one chunk of the file. Line numbers are relative to the chunk
+ * until {@link EmployeeImportService} offsets them by the line counts of earlier chunks.
+ */
+@Value
+public class ParsedChunk {
+    long lineCount;
+    List<EmployeeRow> rows;
+    List<RejectedRow> rejected;
+}
@@ -0,0 +1,9 @@
+package com.udemy.springboottest.importer;
+
+import lombok.Value;
+
+@Value
+public class RejectedRow {
+    long line;
+    String reason;
+}
@@ -0,0 +1,37 @@
+package com.udemy.springboottest.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Fields shared by the employee JFR events. The event duration is the time spent in the call.
+ */
+@Category("Employee API")
+@StackTrace(false)
+abstract class EmployeeEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Tenant")
+    String tenantId;
+
+    @Label("Entity Id")
+    @Description("Id of the employee the call was about, 0 if none")
+    long entityId;
+
+    @Label("Rows")
+    @Description("Rows returned or affected")
+    int rowCount;
+
+    @Label("Statements")
+    @Description("SQL statements executed during the call, 0 when query counting is disabled")
+    long statementCount;
+
+    @Label("Failure")
+    @Description("Exception type if the call failed")
+    String failure;
+}
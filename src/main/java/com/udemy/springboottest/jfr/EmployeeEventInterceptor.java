@@ -0,0 +1,85 @@
+package com.udemy.springboottest.jfr;
+
+import com.udemy.springboottest.model.Employee;
+import com.udemy.springboottest.querycount.QueryCounter;
+import com.udemy.springboottest.tenant.TenantContext;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Emits one {@link EmployeeEvent} per intercepted call. When no recording has the event
+ * enabled, the cost is the check on a fresh event instance, which the JIT eliminates.
+ */
+class EmployeeEventInterceptor implements MethodInterceptor {
+
+    private final Supplier<EmployeeEvent> events;
+
+    EmployeeEventInterceptor(Supplier<EmployeeEvent> events) {
+        this.events = events;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        EmployeeEvent event = events.get();
+        if (!event.isEnabled()) {
+            return invocation.proceed();
+        }
+        event.begin();
+        Object result = null;
+        try (QueryCounter.Scope statements = QueryCounter.start()) {
+            try {
+                result = invocation.proceed();
+                return result;
+            } catch (Throwable e) {
+                event.failure = e.getClass().getSimpleName();
+                throw e;
+            } finally {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.operation = invocation.getMethod().getName();
+                    event.tenantId = TenantContext.getTenantId();
+                    event.entityId = entityId(invocation.getArguments(), result);
+                    event.rowCount = rowCount(result);
+                    event.statementCount = statements.getStatements();
+                    event.commit();
+                }
+            }
+        }
+    }
+
+    static long entityId(Object[] arguments, Object result) {
+        Object subject = arguments.length > 0 ? arguments[0] : null;
+        if (subject instanceof Long) {
+            return (Long) subject;
+        }
+        if (result instanceof Optional) {
+            result = ((Optional<?>) result).orElse(null);
+        }
+        for (Object candidate : new Object[]{result, subject}) {
+            if (candidate instanceof Employee && ((Employee) candidate).getId() != null) {
+                return ((Employee) candidate).getId();
+            }
+        }
+        return 0;
+    }
+
+    static int rowCount(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        if (result instanceof Integer) {
+            return (Integer) result;
+        }
+        return 1;
+    }
+}
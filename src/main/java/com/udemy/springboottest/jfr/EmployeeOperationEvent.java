@@ -0,0 +1,11 @@
+package com.udemy.springboottest.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(EmployeeOperationEvent.NAME)
+@Label("Employee Operation")
+class EmployeeOperationEvent extends EmployeeEvent {
+
+    static final String NAME = "com.udemy.springboottest.EmployeeOperation";
+}
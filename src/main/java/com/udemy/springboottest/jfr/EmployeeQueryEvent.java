@@ -0,0 +1,11 @@
+package com.udemy.springboottest.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(EmployeeQueryEvent.NAME)
+@Label("Employee Query")
+class EmployeeQueryEvent extends EmployeeEvent {
+
+    static final String NAME = "com.udemy.springboottest.EmployeeQuery";
+}
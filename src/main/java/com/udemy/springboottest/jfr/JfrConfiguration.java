@@ -0,0 +1,59 @@
+package com.udemy.springboottest.jfr;
+
+import com.udemy.springboottest.repository.EmployeeRepository;
+import com.udemy.springboottest.repository.WrappingPostProcessor;
+import com.udemy.springboottest.service.EmployeeService;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+
+/**
+ * Emits JFR events for {@link EmployeeService} operations and {@link EmployeeRepository}
+ * queries, outermost of the repository wrappers (see {@link WrappingPostProcessor}), and
+ * exposes the {@link JfrEndpoint}. Needs a JDK with {@code jdk.jfr}
+ * (11+ or 8u262+); the events cost next to nothing unless a recording enables them.
+ */
+@Configuration
+@ConditionalOnClass(name = "jdk.jfr.Event")
+@ConditionalOnProperty(prefix = "employee.jfr", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class JfrConfiguration {
+
+    @Bean
+    public JfrEndpoint jfrEndpoint(@Value("${employee.jfr.settings:classpath:jfr/employee.jfc}") Resource profile,
+                                   @Value("${employee.jfr.max-age-seconds:900}") long maxAgeSeconds,
+                                   @Value("${employee.jfr.dump-directory:data/jfr}") String dumpDirectory,
+                                   @Value("${employee.jfr.max-dumps:10}") int maxDumps) {
+        return new JfrEndpoint(profile, Duration.ofSeconds(maxAgeSeconds), Paths.get(dumpDirectory), maxDumps);
+    }
+
+    @Bean
+    public static WrappingPostProcessor employeeJfrPostProcessor() {
+        return new WrappingPostProcessor(WrappingPostProcessor.JFR) {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof EmployeeRepository) {
+                    return proxy(bean, EmployeeRepository.class, new EmployeeEventInterceptor(EmployeeQueryEvent::new));
+                }
+                if (bean instanceof EmployeeService) {
+                    return proxy(bean, EmployeeService.class, new EmployeeEventInterceptor(EmployeeOperationEvent::new));
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static Object proxy(Object bean, Class<?> type, EmployeeEventInterceptor interceptor) {
+        ProxyFactory factory = new ProxyFactory();
+        factory.setTarget(bean);
+        factory.addInterface(type);
+        factory.addAdvice(interceptor);
+        return factory.getProxy(type.getClassLoader());
+    }
+}
@@ -0,0 +1,168 @@
+package com.udemy.springboottest.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Flight recording on demand: {@code POST /actuator/jfr/start} starts a continuous recording
+ * with the JDK {@code default} settings plus the bundled employee profile, {@code dump}
+ * writes everything recorded so far (including recordings started with
+ * {@code -XX:StartFlightRecording}) to the dump directory, and {@code stop} ends it. Only the
+ * newest {@code maxDumps} dumps are kept, so repeated dumps cannot fill the disk.
+ */
+@Endpoint(id = "jfr")
+public class JfrEndpoint {
+
+    private static final String RECORDING_NAME = "employee";
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")
+            .withZone(ZoneOffset.UTC);
+
+    private final Resource profile;
+
+    private final Duration maxAge;
+
+    private final Path dumpDirectory;
+
+    private final int maxDumps;
+
+    private Recording recording;
+
+    public JfrEndpoint(Resource profile, Duration maxAge, Path dumpDirectory, int maxDumps) {
+        this.profile = profile;
+        this.maxAge = maxAge;
+        this.dumpDirectory = dumpDirectory;
+        this.maxDumps = maxDumps;
+    }
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("available", FlightRecorder.isAvailable());
+        status.put("recording", recording == null ? "none" : recording.getState().name().toLowerCase());
+        if (recording != null) {
+            status.put("startedAt", recording.getStartTime());
+            status.put("maxAge", recording.getMaxAge());
+        }
+        status.put("activeRecordings", FlightRecorder.isAvailable()
+                ? FlightRecorder.getFlightRecorder().getRecordings().size() : 0);
+        return status;
+    }
+
+    @WriteOperation
+    public synchronized Map<String, Object> control(@Selector String action) {
+        switch (action) {
+            case "start":
+                start();
+                return status();
+            case "stop":
+                stop();
+                return status();
+            case "dump":
+                Map<String, Object> dump = new LinkedHashMap<>(status());
+                dump.put("file", dump().toString());
+                return dump;
+            default:
+                throw new InvalidEndpointRequestException("Unknown action '" + action + "'",
+                        "Supported actions are start, stop and dump");
+        }
+    }
+
+    private void start() {
+        requireAvailable();
+        if (recording != null) {
+            return;
+        }
+        Recording started = new Recording(settings());
+        started.setName(RECORDING_NAME);
+        started.setToDisk(true);
+        started.setMaxAge(maxAge);
+        started.start();
+        recording = started;
+    }
+
+    private void stop() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private Path dump() {
+        requireAvailable();
+        if (FlightRecorder.getFlightRecorder().getRecordings().isEmpty()) {
+            throw new InvalidEndpointRequestException("No recording is running", "Nothing has been recorded");
+        }
+        try (Recording snapshot = FlightRecorder.getFlightRecorder().takeSnapshot()) {
+            Files.createDirectories(dumpDirectory);
+            Path file = dumpDirectory.resolve(RECORDING_NAME + "-" + FILE_TIMESTAMP.format(Instant.now()) + ".jfr");
+            snapshot.dump(file);
+            deleteOldDumps(dumpDirectory, maxDumps);
+            return file.toAbsolutePath();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot dump the flight recording to " + dumpDirectory, e);
+        }
+    }
+
+    /**
+     * Deletes all but the newest {@code keep} dumps; their names sort by the time they were taken.
+     */
+    static void deleteOldDumps(Path directory, int keep) throws IOException {
+        List<Path> dumps;
+        try (Stream<Path> files = Files.list(directory)) {
+            dumps = files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(RECORDING_NAME + "-") && name.endsWith(".jfr");
+            }).sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        }
+        for (Path old : dumps.subList(Math.min(keep, dumps.size()), dumps.size())) {
+            Files.deleteIfExists(old);
+        }
+    }
+
+    private Map<String, String> settings() {
+        try (Reader reader = new InputStreamReader(profile.getInputStream(), StandardCharsets.UTF_8)) {
+            Map<String, String> settings = new HashMap<>(Configuration.getConfiguration("default").getSettings());
+            settings.putAll(Configuration.create(reader).getSettings());
+            return settings;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read JFR settings from " + profile, e);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Invalid JFR settings in " + profile, e);
+        }
+    }
+
+    private static void requireAvailable() {
+        if (!FlightRecorder.isAvailable()) {
+            throw new InvalidEndpointRequestException("Flight recorder is not available in this JVM",
+                    "Flight recorder unavailable");
+        }
+    }
+}
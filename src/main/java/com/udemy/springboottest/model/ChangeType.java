@@ -0,0 +1,7 @@
+package com.udemy.springboottest.model;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
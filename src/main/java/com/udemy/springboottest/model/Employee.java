@@ -1,15 +1,21 @@
 package com.udemy.springboottest.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.udemy.springboottest.tenant.TenantContext;
 import lombok.*;
+import org.hibernate.annotations.Where;
 
 import javax.persistence.*;
+import java.time.Instant;
 
 @Data
 @ToString
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @Entity
+@Where(clause = "deleted_at is null")
 @Table(name = "employees")
 public class Employee {
     @Id
@@ -21,4 +27,35 @@ public class Employee {
     private String lastName;
     @Column(nullable = false)
     private String email;
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "created_at", updatable = false)
+    private Instant createdAt;
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "deleted_at")
+    private Instant deletedAt;
+    @JsonIgnore
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 64)
+    private String tenantId;
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(nullable = false)
+    private long version;
+
+    @PrePersist
+    void onCreate() {
+        if (tenantId == null) {
+            tenantId = TenantContext.getTenantId();
+        }
+        Instant now = Instant.now();
+        createdAt = now;
+        updatedAt = now;
+    }
+
+    @PreUpdate
+    void onUpdate() {
+        updatedAt = Instant.now();
+    }
 }
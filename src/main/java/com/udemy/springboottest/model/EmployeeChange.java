@@ -0,0 +1,33 @@
+package com.udemy.springboottest.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "employee_changes")
+public class EmployeeChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "employee_id", nullable = false)
+    private Long employeeId;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ChangeType type;
+    @JsonRawValue
+    @Column(columnDefinition = "text")
+    private String payload;
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+    @JsonIgnore
+    @Column(name = "tenant_id", nullable = false, length = 64)
+    private String tenantId;
+}
@@ -0,0 +1,22 @@
+package com.udemy.springboottest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "write_behind_checkpoints")
+public class WriteBehindCheckpoint {
+    @Id
+    private String journal;
+    @Column(name = "last_seq", nullable = false)
+    private long lastSeq;
+}
@@ -0,0 +1,167 @@
+package com.udemy.springboottest.outbox;
+
+import com.udemy.springboottest.model.EmployeeChange;
+import com.udemy.springboottest.repository.EmployeeChangeRepository;
+import com.udemy.springboottest.tenant.TenantContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Serves the outbox of the current tenant as an incremental feed. Stream subscribers of a
+ * tenant share one polling query per interval, starting from the oldest cursor among them,
+ * so live consumers cost the database the same whether there is one of them or a hundred,
+ * and changes committed by other instances are delivered too. Events are written to the
+ * subscribers on a dedicated pool, one write at a time per subscriber; a subscriber that is
+ * still busy with earlier events skips a poll and catches up from its cursor on the next one,
+ * so a slow client delays nobody but itself.
+ * <p>
+ * Change ids are per shard. When a tenant is moved to another shard its changes are copied
+ * there with new ids, so cursors of that tenant taken before the move are meaningless: a
+ * consumer restarts from {@code since=0} after a move and receives the history again.
+ */
+@Service
+public class EmployeeChangeFeed {
+
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private EmployeeChangeRepository changeRepository;
+
+    private final long streamTimeoutMillis;
+
+    private final Map<SseEmitter, Subscription> subscribers = new ConcurrentHashMap<>();
+
+    private final ExecutorService sender;
+
+    public EmployeeChangeFeed(EmployeeChangeRepository changeRepository,
+                              @Value("${employee.changes.stream-timeout-ms:1800000}") long streamTimeoutMillis,
+                              @Value("${employee.changes.stream-senders:4}") int senders) {
+        this.changeRepository = changeRepository;
+        this.streamTimeoutMillis = streamTimeoutMillis;
+        AtomicInteger threads = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(senders, runnable -> {
+            Thread thread = new Thread(runnable, "employee-change-stream-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public List<EmployeeChange> changesSince(long since, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return changeRepository.findByTenantIdAndIdGreaterThanOrderByIdAsc(TenantContext.getTenantId(), since,
+                PageRequest.of(0, pageSize));
+    }
+
+    public SseEmitter subscribe(long since) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        subscribers.put(emitter, new Subscription(TenantContext.getTenantId(), since));
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onError(e -> subscribers.remove(emitter));
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${employee.changes.poll-interval-ms:500}")
+    public void poll() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        Map<String, Long> fromByTenant = subscribers.values().stream()
+                .collect(Collectors.toMap(Subscription::getTenantId, Subscription::getCursor, Long::min));
+        fromByTenant.forEach((tenantId, from) -> {
+            List<EmployeeChange> changes = TenantContext.callAs(tenantId, () -> changesSince(from, MAX_PAGE_SIZE));
+            if (!changes.isEmpty()) {
+                subscribers.forEach((emitter, subscription) -> {
+                    if (subscription.getTenantId().equals(tenantId) && subscription.startSending()) {
+                        dispatch(emitter, subscription, changes);
+                    }
+                });
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    private void dispatch(SseEmitter emitter, Subscription subscription, List<EmployeeChange> changes) {
+        try {
+            sender.execute(() -> {
+                try {
+                    send(emitter, subscription, changes);
+                } finally {
+                    subscription.sendingDone();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            subscription.sendingDone();
+        }
+    }
+
+    private void send(SseEmitter emitter, Subscription subscription, List<EmployeeChange> changes) {
+        try {
+            for (EmployeeChange change : changes) {
+                if (change.getId() > subscription.getCursor()) {
+                    emitter.send(SseEmitter.event()
+                            .id(String.valueOf(change.getId()))
+                            .name(change.getType().name())
+                            .data(change, MediaType.APPLICATION_JSON));
+                    subscription.advance(change.getId());
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(emitter);
+            emitter.completeWithError(e);
+        }
+    }
+
+    private static class Subscription {
+
+        private final String tenantId;
+
+        private final AtomicLong cursor;
+
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        Subscription(String tenantId, long since) {
+            this.tenantId = tenantId;
+            this.cursor = new AtomicLong(since);
+        }
+
+        String getTenantId() {
+            return tenantId;
+        }
+
+        long getCursor() {
+            return cursor.get();
+        }
+
+        void advance(long id) {
+            cursor.set(id);
+        }
+
+        boolean startSending() {
+            return sending.compareAndSet(false, true);
+        }
+
+        void sendingDone() {
+            sending.set(false);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.udemy.springboottest.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.udemy.springboottest.service.EmployeeChangedEvent;
+import com.udemy.springboottest.tenant.TenantContext;
+import com.udemy.springboottest.tenant.TenantWriteFence;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Records every employee mutation in {@code employee_changes} within the transaction that
+ * performed it, so the change feed never shows a change that was rolled back or misses one
+ * that was committed. The rows are collected during the transaction and inserted just before
+ * it commits, under the lock of {@code employee_changes_lock}: ids are therefore assigned in
+ * commit order, and a consumer may use the last id it has read as its cursor. Before that, each
+ * tenant goes through the {@link TenantWriteFence}, so writes of a tenant that is being moved to
+ * another shard fail here instead of committing behind the move's copy.
+ */
+@Component
+public class EmployeeOutbox {
+
+    private static final String LOCK = "select id from employee_changes_lock where id = 1 for update";
+
+    private static final String INSERT = "insert into employee_changes (employee_id, type, payload, created_at, tenant_id) " +
+            "values (?, ?, ?, ?, ?)";
+
+    private static final int BATCH_SIZE = 1000;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private EntityManagerFactory entityManagerFactory;
+
+    private ObjectMapper objectMapper;
+
+    private TenantWriteFence writeFence;
+
+    public EmployeeOutbox(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory, ObjectMapper objectMapper,
+                          TenantWriteFence writeFence) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.objectMapper = objectMapper;
+        this.writeFence = writeFence;
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(EmployeeChangedEvent event) {
+        pendingChanges().add(new Object[]{
+                event.getEmployeeId(),
+                event.getType().name(),
+                event.getEmployee() == null ? null : write(event),
+                Timestamp.from(Instant.now()),
+                TenantContext.getTenantId()});
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> pendingChanges() {
+        List<Object[]> changes = (List<Object[]>) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            List<Object[]> created = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    insert(created);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(EmployeeOutbox.this);
+                }
+            });
+            changes = created;
+        }
+        return changes;
+    }
+
+    private void insert(List<Object[]> changes) {
+        // flush the employee rows first, so the lock is only held for the outbox insert and the commit
+        EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+        if (entityManager != null) {
+            entityManager.flush();
+        }
+        Set<String> tenants = new LinkedHashSet<>();
+        for (Object[] change : changes) {
+            tenants.add((String) change[4]);
+        }
+        for (String tenantId : tenants) {
+            writeFence.enter(tenantId);
+        }
+        jdbcTemplate.queryForObject(LOCK, Integer.class);
+        for (int from = 0; from < changes.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(INSERT, changes.subList(from, Math.min(from + BATCH_SIZE, changes.size())));
+        }
+    }
+
+    private String write(EmployeeChangedEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event.getEmployee());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot record change of employee " + event.getEmployeeId(), e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.udemy.springboottest.purge;
+
+import com.udemy.springboottest.repository.EmployeeRepository;
+import com.udemy.springboottest.resilience.RepositoryGuard;
+import com.udemy.springboottest.tenant.TenantContext;
+import com.udemy.springboottest.tenant.TenantShardRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Physically removes soft-deleted employees once they are older than the retention period.
+ * Rows are deleted in small batches, each in its own transaction with a pause in between,
+ * so a large wave of deletes never holds many row locks at once. Every shard is purged in
+ * turn, across all of its tenants. The deletes run in the background bulkhead, so they never
+ * take a permit a request's write needs.
+ */
+@Component
+@ConditionalOnProperty(prefix = "employee.purge", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TombstonePurger {
+
+    private static final Logger log = LoggerFactory.getLogger(TombstonePurger.class);
+
+    private EmployeeRepository employeeRepository;
+
+    private TenantShardRegistry tenantShardRegistry;
+
+    private final long retentionHours;
+
+    private final int batchSize;
+
+    private final int maxBatchesPerRun;
+
+    private final long pauseMillis;
+
+    public TombstonePurger(EmployeeRepository employeeRepository,
+                           TenantShardRegistry tenantShardRegistry,
+                           @Value("${employee.purge.retention-hours:168}") long retentionHours,
+                           @Value("${employee.purge.batch-size:500}") int batchSize,
+                           @Value("${employee.purge.max-batches-per-run:100}") int maxBatchesPerRun,
+                           @Value("${employee.purge.pause-ms:50}") long pauseMillis) {
+        this.employeeRepository = employeeRepository;
+        this.tenantShardRegistry = tenantShardRegistry;
+        this.retentionHours = retentionHours;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.pauseMillis = pauseMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${employee.purge.interval-ms:300000}")
+    public void purge() {
+        Instant cutoff = Instant.now().minus(retentionHours, ChronoUnit.HOURS);
+        for (String shard : tenantShardRegistry.shardNames()) {
+            int purged = TenantContext.callOnShard(shard, () -> RepositoryGuard.callInBackground(() -> purgeShard(cutoff)));
+            if (purged > 0) {
+                log.info("Purged {} employee tombstones deleted before {} on shard {}", purged, cutoff, shard);
+            }
+        }
+    }
+
+    private int purgeShard(Instant cutoff) {
+        int purged = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int deleted = employeeRepository.purgeDeletedBefore(cutoff, batchSize);
+            purged += deleted;
+            if (deleted < batchSize || !pause()) {
+                break;
+            }
+        }
+        return purged;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.udemy.springboottest.querycount;
+
+import com.udemy.springboottest.repository.WrappingPostProcessor;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the datasource in a statement-counting proxy for {@link QueryCounter}, innermost of
+ * the datasource wrappers (see {@link WrappingPostProcessor}).
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "employee.query-count", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class QueryCountConfiguration {
+
+    @Bean
+    public static WrappingPostProcessor queryCountingDataSourcePostProcessor() {
+        return new WrappingPostProcessor(WrappingPostProcessor.QUERY_COUNT) {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create((DataSource) bean)
+                            .name(beanName)
+                            .listener(new QueryCountingListener())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
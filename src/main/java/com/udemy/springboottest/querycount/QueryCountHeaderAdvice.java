@@ -0,0 +1,38 @@
+package com.udemy.springboottest.querycount;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Reports the statements executed so far as the {@code X-Query-Count} response header. The
+ * header is written just before the body, after the handler's transactions have committed.
+ * Meant for development and tests, enabled with {@code employee.query-count.header=true}.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(prefix = "employee.query-count", name = "header", havingValue = "true")
+public class QueryCountHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String HEADER = "X-Query-Count";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        long statements = QueryCounter.current();
+        if (statements >= 0) {
+            response.getHeaders().set(HEADER, String.valueOf(statements));
+        }
+        return body;
+    }
+}
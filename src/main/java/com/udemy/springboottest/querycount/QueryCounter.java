@@ -0,0 +1,68 @@
+package com.udemy.springboottest.querycount;
+
+/**
+ * Counts the SQL statements executed by the current thread while a {@link Scope} is open. A
+ * JDBC batch counts once, since it is sent in one round trip. Scopes nest and an inner
+ * scope's statements also count towards the outer one. {@link QueryCountFilter} opens a
+ * scope per HTTP request; tests can count any block with {@link #count(Runnable)}.
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private QueryCounter() {
+    }
+
+    public static Scope start() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    public static long count(Runnable action) {
+        try (Scope scope = start()) {
+            action.run();
+            return scope.getStatements();
+        }
+    }
+
+    /**
+     * Statements executed so far in the innermost open scope, or -1 if none is open.
+     */
+    public static long current() {
+        Scope scope = CURRENT.get();
+        return scope == null ? -1 : scope.getStatements();
+    }
+
+    static void increment() {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.statements++;
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final Scope parent;
+
+        private long statements;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        public long getStatements() {
+            return statements;
+        }
+
+        @Override
+        public void close() {
+            if (parent == null) {
+                CURRENT.remove();
+            } else {
+                parent.statements += statements;
+                CURRENT.set(parent);
+            }
+        }
+    }
+}
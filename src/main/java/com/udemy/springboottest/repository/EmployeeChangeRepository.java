@@ -0,0 +1,22 @@
+package com.udemy.springboottest.repository;
+
+import com.udemy.springboottest.model.EmployeeChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface EmployeeChangeRepository extends JpaRepository<EmployeeChange, Long> {
+    List<EmployeeChange> findByTenantIdAndIdGreaterThanOrderByIdAsc(String tenantId, Long since, Pageable pageable);
+
+    /**
+     * All tenants' changes, for in-process consumers that follow the whole outbox.
+     */
+    List<EmployeeChange> findByIdGreaterThanOrderByIdAsc(Long since, Pageable pageable);
+
+    @Query("select coalesce(max(c.id), 0) from EmployeeChange c")
+    long findMaxId();
+}
@@ -0,0 +1,26 @@
+package com.udemy.springboottest.repository;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Sparse reads of the current tenant's employees: only the requested attributes are selected,
+ * and every row comes back as a map keyed by attribute name in the requested order.
+ */
+public interface EmployeeFieldsRepository {
+
+    /**
+     * Attributes that may be requested; the tenant id is never exposed.
+     */
+    Set<String> SELECTABLE_FIELDS = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(
+            "id", "firstName", "lastName", "email", "createdAt", "updatedAt", "version")));
+
+    List<Map<String, Object>> findAllFields(Set<String> fields);
+
+    Optional<Map<String, Object>> findFieldsById(Long id, Set<String> fields);
+}
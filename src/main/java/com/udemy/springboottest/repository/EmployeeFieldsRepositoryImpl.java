@@ -0,0 +1,62 @@
+package com.udemy.springboottest.repository;
+
+import com.udemy.springboottest.model.Employee;
+import com.udemy.springboottest.tenant.TenantContext;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Builds a Criteria tuple query per field selection, so the SQL lists only the requested
+ * columns and no entities are loaded into the persistence context.
+ */
+class EmployeeFieldsRepositoryImpl implements EmployeeFieldsRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findAllFields(Set<String> fields) {
+        return select(fields, null);
+    }
+
+    @Override
+    public Optional<Map<String, Object>> findFieldsById(Long id, Set<String> fields) {
+        return select(fields, id).stream().findFirst();
+    }
+
+    private List<Map<String, Object>> select(Set<String> fields, Long id) {
+        List<String> names = new ArrayList<>(fields);
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Employee> employee = query.from(Employee.class);
+        List<Selection<?>> selections = names.stream()
+                .<Selection<?>>map(employee::get)
+                .collect(Collectors.toList());
+        Predicate tenant = builder.equal(employee.get("tenantId"), TenantContext.getTenantId());
+        query.multiselect(selections)
+                .where(id == null ? tenant : builder.and(tenant, builder.equal(employee.get("id"), id)));
+        return entityManager.createQuery(query).getResultList().stream()
+                .map(tuple -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    for (int i = 0; i < names.size(); i++) {
+                        row.put(names.get(i), tuple.get(i));
+                    }
+                    return row;
+                })
+                .collect(Collectors.toList());
+    }
+}
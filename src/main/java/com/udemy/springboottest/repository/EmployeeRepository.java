@@ -1,26 +1,206 @@
 package com.udemy.springboottest.repository;
 
 import com.udemy.springboottest.model.Employee;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityNotFoundException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+/**
+ * Employees of the current tenant. The inherited {@link JpaRepository} lookups and deletes are
+ * overridden to filter by tenant as well; the query-by-example methods are not, and are unused.
+ */
 @Repository
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, EmployeeFieldsRepository {
+    @Override
+    @Query("select e from Employee e where e.tenantId = ?#{tenantId}")
+    List<Employee> findAll();
+
+    @Override
+    @Query("select e from Employee e where e.tenantId = ?#{tenantId}")
+    List<Employee> findAll(Sort sort);
+
+    @Override
+    @Query(value = "select e from Employee e where e.tenantId = ?#{tenantId}",
+            countQuery = "select count(e) from Employee e where e.tenantId = ?#{tenantId}")
+    Page<Employee> findAll(Pageable pageable);
+
+    @Override
+    @Query("select e from Employee e where e.id = ?1 and e.tenantId = ?#{tenantId}")
+    Optional<Employee> findById(Long id);
+
+    @Override
+    @Query("select case when count(e) > 0 then true else false end from Employee e " +
+            "where e.id = ?1 and e.tenantId = ?#{tenantId}")
+    boolean existsById(Long id);
+
+    @Override
+    default List<Employee> findAllById(Iterable<Long> ids) {
+        List<Long> idList = new ArrayList<>();
+        ids.forEach(idList::add);
+        return idList.isEmpty() ? new ArrayList<>() : findAllByIdForTenant(idList);
+    }
+
+    @Query("select e from Employee e where e.id in ?1 and e.tenantId = ?#{tenantId}")
+    List<Employee> findAllByIdForTenant(Collection<Long> ids);
+
+    /**
+     * Loads the employee instead of returning an unchecked reference, so that the tenant is checked.
+     */
+    @Override
+    default Employee getById(Long id) {
+        return findById(id).orElseThrow(() -> new EntityNotFoundException("Unable to find employee with id " + id));
+    }
+
+    @Override
+    @Deprecated
+    default Employee getOne(Long id) {
+        return getById(id);
+    }
+
+    @Override
+    @Query("select count(e) from Employee e where e.tenantId = ?#{tenantId}")
+    long count();
+
+    @Override
+    @Transactional
+    default void deleteById(Long id) {
+        if (deleteByIdForTenant(id) == 0) {
+            throw new EmptyResultDataAccessException("No employee with id " + id + " exists", 1);
+        }
+    }
+
+    @Override
+    @Transactional
+    default void deleteAllById(Iterable<? extends Long> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    @Transactional
+    default void delete(Employee employee) {
+        if (employee.getId() != null) {
+            deleteByIdForTenant(employee.getId());
+        }
+    }
+
+    @Override
+    @Transactional
+    default void deleteAll(Iterable<? extends Employee> employees) {
+        employees.forEach(this::delete);
+    }
+
+    @Override
+    @Transactional
+    default void deleteAllInBatch(Iterable<Employee> employees) {
+        List<Long> ids = new ArrayList<>();
+        employees.forEach(employee -> ids.add(employee.getId()));
+        deleteAllByIdInBatch(ids);
+    }
+
+    @Override
+    @Transactional
+    default void deleteAllByIdInBatch(Iterable<Long> ids) {
+        List<Long> idList = new ArrayList<>();
+        ids.forEach(idList::add);
+        if (!idList.isEmpty()) {
+            deleteAllByIdForTenant(idList);
+        }
+    }
+
+    @Override
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Employee e where e.tenantId = ?#{tenantId}")
+    void deleteAll();
+
+    @Override
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Employee e where e.tenantId = ?#{tenantId}")
+    void deleteAllInBatch();
+
+    /**
+     * Hard delete, unlike {@link #softDeleteById}.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Employee e where e.id = ?1 and e.tenantId = ?#{tenantId}")
+    int deleteByIdForTenant(Long id);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Employee e where e.id in ?1 and e.tenantId = ?#{tenantId}")
+    int deleteAllByIdForTenant(Collection<Long> ids);
+
+    @Query("select e from Employee e where e.email = ?1 and e.tenantId = ?#{tenantId}")
     Optional<Employee> findByEmail(String email);
 
-    @Query("select e from Employee e where e.firstName = ?1 and e.lastName = ?2")
+    @Query("select e from Employee e where e.firstName = ?1 and e.lastName = ?2 and e.tenantId = ?#{tenantId}")
     Employee findByJPQL(String firstName, String lastName);
 
-    @Query("select e from Employee e where e.firstName = :firstName and e.lastName = :lastName")
+    @Query("select e from Employee e where e.firstName = :firstName and e.lastName = :lastName " +
+            "and e.tenantId = :#{tenantId}")
     Employee findByJPQLNamedParams(@Param("firstName") String firstName, @Param("lastName") String lastName);
 
-    @Query(value = "select * from employees e where e.first_name = ?1 and e.last_name = ?2", nativeQuery = true)
+    @Query(value = "select * from employees e where e.first_name = ?1 and e.last_name = ?2 " +
+            "and e.tenant_id = ?#{tenantId} and e.deleted_at is null", nativeQuery = true)
     Employee findByNativeSQL(String firstName, String lastName);
 
-    @Query(value = "select * from employees e where e.first_name = :firstName and e.last_name = :lastName", nativeQuery = true)
+    @Query(value = "select * from employees e where e.first_name = :firstName and e.last_name = :lastName " +
+            "and e.tenant_id = :#{tenantId} and e.deleted_at is null", nativeQuery = true)
     Employee findByNativeSQLNamed(@Param("firstName") String firstName, @Param("lastName") String lastName);
+
+    /**
+     * Includes soft-deleted rows, so sync consumers see deletions as tombstones with {@code deletedAt} set.
+     * Rows modified at or after {@code until} are left for a later page.
+     */
+    @Query(value = "select * from employees e where e.tenant_id = :#{tenantId} " +
+            "and (e.updated_at > :since or (e.updated_at = :since and e.id > :afterId)) and e.updated_at < :until " +
+            "order by e.updated_at, e.id", nativeQuery = true)
+    List<Employee> findModifiedSince(@Param("since") Instant since, @Param("afterId") Long afterId,
+                                     @Param("until") Instant until, Pageable pageable);
+
+    /**
+     * Live employees with ids above {@code afterId}, in id order: pages through the directory
+     * without missing or repeating rows that are updated between pages.
+     */
+    @Query("select e from Employee e where e.tenantId = ?#{tenantId} and e.id > ?1 order by e.id")
+    List<Employee> findPageAfterId(Long afterId, Pageable pageable);
+
+    @Query("select count(e) from Employee e where e.tenantId = ?#{tenantId}")
+    long countForTenant();
+
+    @Query("select lower(substring(e.email, locate('@', e.email) + 1)), count(e) from Employee e " +
+            "where e.tenantId = ?#{tenantId} group by lower(substring(e.email, locate('@', e.email) + 1))")
+    List<Object[]> countByEmailDomain();
+
+    @Query("select upper(substring(e.lastName, 1, 1)), count(e) from Employee e " +
+            "where e.tenantId = ?#{tenantId} group by upper(substring(e.lastName, 1, 1))")
+    List<Object[]> countByLastNameInitial();
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Employee e set e.deletedAt = :now, e.updatedAt = :now, e.version = e.version + 1 " +
+            "where e.id = :id and e.tenantId = :#{tenantId} and e.deletedAt is null")
+    int softDeleteById(@Param("id") Long id, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query(value = "delete from employees where id in " +
+            "(select id from employees where deleted_at < :cutoff order by id limit :batchSize)", nativeQuery = true)
+    int purgeDeletedBefore(@Param("cutoff") Instant cutoff, @Param("batchSize") int batchSize);
 }
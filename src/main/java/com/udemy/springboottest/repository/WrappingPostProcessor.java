@@ -0,0 +1,41 @@
+package com.udemy.springboottest.repository;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+
+/**
+ * Base of the post-processors that wrap {@link EmployeeRepository}, the employee service and
+ * the datasource, and the one place their nesting is decided. A post-processor with a lower
+ * order runs first, so its wrapper ends up inside the later ones. From the outside in:
+ * <ul>
+ * <li>repository calls: JFR query event, id cache, {@code RepositoryGuard} (circuit breaker,
+ * bulkhead, query timeout), repository. The event records what the caller saw, including
+ * cache hits, bulkhead rejections and timeouts; cache hits take no bulkhead permit.</li>
+ * <li>JDBC: {@code QueryTimeoutDataSource}, statement-counting proxy, pool. Every statement
+ * sent is counted, including the ones that time out.</li>
+ * </ul>
+ * The orders sit just below {@link Ordered#LOWEST_PRECEDENCE}, so the framework's own proxies,
+ * such as the transactional ones, are still applied first. The factory methods must declare
+ * this type, not {@link BeanPostProcessor}, or Spring does not see the order.
+ */
+public abstract class WrappingPostProcessor implements BeanPostProcessor, Ordered {
+
+    public static final int QUERY_COUNT = Ordered.LOWEST_PRECEDENCE - 40;
+
+    public static final int REPOSITORY_GUARD = Ordered.LOWEST_PRECEDENCE - 30;
+
+    public static final int CACHE = Ordered.LOWEST_PRECEDENCE - 20;
+
+    public static final int JFR = Ordered.LOWEST_PRECEDENCE - 10;
+
+    private final int order;
+
+    protected WrappingPostProcessor(int order) {
+        this.order = order;
+    }
+
+    @Override
+    public int getOrder() {
+        return order;
+    }
+}
@@ -0,0 +1,9 @@
+package com.udemy.springboottest.repository;
+
+import com.udemy.springboottest.model.WriteBehindCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface WriteBehindCheckpointRepository extends JpaRepository<WriteBehindCheckpoint, String> {
+}
@@ -0,0 +1,138 @@
+package com.udemy.springboottest.resilience;
+
+import com.udemy.springboottest.exception.CircuitOpenException;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker. Once at least {@code minimumCalls} of the last
+ * {@code windowSize} calls are recorded and the failure rate reaches the threshold, calls
+ * are refused for {@code openMillis}; after that a single trial call decides whether the
+ * circuit closes again or stays open for another period.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final boolean[] outcomes;
+
+    private final int minimumCalls;
+
+    private final double failureRateThreshold;
+
+    private final long openMillis;
+
+    private final LongSupplier clock;
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    private State state = State.CLOSED;
+
+    private int recorded;
+
+    private int failures;
+
+    private int next;
+
+    private long openedAt;
+
+    private boolean trialInProgress;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, long openMillis) {
+        this(windowSize, minimumCalls, failureRateThreshold, openMillis, System::currentTimeMillis);
+    }
+
+    CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, long openMillis, LongSupplier clock) {
+        this.outcomes = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openMillis = openMillis;
+        this.clock = clock;
+    }
+
+    public synchronized void acquirePermission() {
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= openMillis) {
+            state = State.HALF_OPEN;
+        }
+        if (state == State.CLOSED) {
+            return;
+        }
+        if (state == State.HALF_OPEN && !trialInProgress) {
+            trialInProgress = true;
+            return;
+        }
+        rejected.incrementAndGet();
+        throw new CircuitOpenException("Database circuit breaker is open");
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.OPEN) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            reset(State.CLOSED);
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.OPEN) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (recorded >= minimumCalls && failures * 100.0 / recorded >= failureRateThreshold) {
+            open();
+        }
+    }
+
+    /**
+     * Releases the permission of a call whose outcome says nothing about database health.
+     */
+    public synchronized void onIgnored() {
+        trialInProgress = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    private void record(boolean failure) {
+        if (recorded == outcomes.length) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+    }
+
+    private void open() {
+        reset(State.OPEN);
+        openedAt = clock.getAsLong();
+    }
+
+    private void reset(State newState) {
+        state = newState;
+        recorded = 0;
+        failures = 0;
+        next = 0;
+        trialInProgress = false;
+    }
+}
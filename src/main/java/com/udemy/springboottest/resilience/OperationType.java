@@ -0,0 +1,37 @@
+package com.udemy.springboottest.resilience;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Kind of repository call; each kind has its own concurrency budget and query timeout.
+ * {@link #BACKGROUND} is not derived from the method: it covers the reads and writes of
+ * scheduled jobs run with {@link RepositoryGuard#callInBackground}, so they never take a
+ * request's permit.
+ */
+public enum OperationType {
+    READ, WRITE, EXPORT, BACKGROUND;
+
+    /**
+     * Methods that return an unbounded or bulk result, or scan all of a tenant's rows.
+     */
+    private static final Set<String> EXPORTS = new HashSet<>(Arrays.asList("findAll", "findAllFields", "findModifiedSince",
+            "countByEmailDomain", "countByLastNameInitial"));
+
+    private static final Set<String> READ_PREFIXES = new HashSet<>(Arrays.asList("find", "get", "exists", "count", "read", "query"));
+
+    public static OperationType of(Method method) {
+        String name = method.getName();
+        if (EXPORTS.contains(name)) {
+            return EXPORT;
+        }
+        for (String prefix : READ_PREFIXES) {
+            if (name.startsWith(prefix)) {
+                return READ;
+            }
+        }
+        return WRITE;
+    }
+}
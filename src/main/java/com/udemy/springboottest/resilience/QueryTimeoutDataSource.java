@@ -0,0 +1,67 @@
+package com.udemy.springboottest.resilience;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Supplier;
+
+/**
+ * Applies the query timeout bound to the current thread with {@link #callWithTimeout} to
+ * every statement created on its connections, so the database cancels a runaway query
+ * instead of letting it hold the connection. Without a bound timeout statements are
+ * left untouched.
+ */
+public class QueryTimeoutDataSource extends DelegatingDataSource {
+
+    private static final ThreadLocal<Integer> TIMEOUT_SECONDS = new ThreadLocal<>();
+
+    public QueryTimeoutDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    public static <T> T callWithTimeout(int timeoutSeconds, Supplier<T> action) {
+        Integer previous = TIMEOUT_SECONDS.get();
+        TIMEOUT_SECONDS.set(timeoutSeconds);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                TIMEOUT_SECONDS.remove();
+            } else {
+                TIMEOUT_SECONDS.set(previous);
+            }
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private static Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(QueryTimeoutDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                    Integer timeout = TIMEOUT_SECONDS.get();
+                    if (timeout != null && result instanceof Statement) {
+                        ((Statement) result).setQueryTimeout(timeout);
+                    }
+                    return result;
+                });
+    }
+}
@@ -0,0 +1,145 @@
+package com.udemy.springboottest.resilience;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Guards every repository call: the circuit breaker refuses calls while the database is
+ * degraded, the bulkhead of the call's {@link OperationType} caps its concurrency and the
+ * type's query timeout is applied to the statements it runs. Connection failures, timeouts
+ * and calls that run as long as their timeout count as failures for the breaker.
+ */
+public class RepositoryGuard implements MethodInterceptor, MeterBinder {
+
+    private static final ThreadLocal<Boolean> BACKGROUND = new ThreadLocal<>();
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final Map<OperationType, Bulkhead> bulkheads;
+
+    private final Map<OperationType, Integer> timeoutSeconds;
+
+    public RepositoryGuard(CircuitBreaker circuitBreaker, Map<OperationType, Bulkhead> bulkheads,
+                           Map<OperationType, Integer> timeoutSeconds) {
+        this.circuitBreaker = circuitBreaker;
+        this.bulkheads = new EnumMap<>(bulkheads);
+        this.timeoutSeconds = new EnumMap<>(timeoutSeconds);
+    }
+
+    /**
+     * Runs a scheduled job's {@code action} with its repository calls, reads and writes, in the
+     * {@link OperationType#BACKGROUND} bulkhead instead of the request bulkheads.
+     */
+    public static <T> T callInBackground(Supplier<T> action) {
+        Boolean previous = BACKGROUND.get();
+        BACKGROUND.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                BACKGROUND.remove();
+            }
+        }
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (AopUtils.isEqualsMethod(invocation.getMethod()) || AopUtils.isHashCodeMethod(invocation.getMethod())
+                || AopUtils.isToStringMethod(invocation.getMethod())) {
+            return invocation.proceed();
+        }
+        OperationType type = OperationType.of(invocation.getMethod());
+        if (BACKGROUND.get() != null) {
+            type = OperationType.BACKGROUND;
+        }
+        int timeout = timeoutSeconds.get(type);
+        circuitBreaker.acquirePermission();
+        Bulkhead bulkhead = bulkheads.get(type);
+        try {
+            bulkhead.acquire();
+        } catch (RuntimeException e) {
+            circuitBreaker.onIgnored();
+            throw e;
+        }
+        long start = System.nanoTime();
+        try {
+            Object result = QueryTimeoutDataSource.callWithTimeout(timeout, () -> proceed(invocation));
+            if (System.nanoTime() - start >= TimeUnit.SECONDS.toNanos(timeout)) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+            return result;
+        } catch (InvocationFailure e) {
+            Throwable cause = e.getCause();
+            if (isDatabaseFailure(cause) || System.nanoTime() - start >= TimeUnit.SECONDS.toNanos(timeout)) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+            throw cause;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("employee.repository.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("Database circuit breaker state: 0 closed, 1 open, 2 half-open")
+                .register(registry);
+        FunctionCounter.builder("employee.repository.rejected", circuitBreaker, CircuitBreaker::getRejected)
+                .tag("reason", "circuit-open")
+                .tag("operation", "all")
+                .description("Repository calls refused without reaching the database")
+                .register(registry);
+        for (Bulkhead bulkhead : bulkheads.values()) {
+            Gauge.builder("employee.repository.bulkhead.active", bulkhead, Bulkhead::getActive)
+                    .tag("operation", bulkhead.getName())
+                    .description("Repository calls in progress")
+                    .register(registry);
+            FunctionCounter.builder("employee.repository.rejected", bulkhead, Bulkhead::getRejected)
+                    .tag("reason", "bulkhead-full")
+                    .tag("operation", bulkhead.getName())
+                    .description("Repository calls refused without reaching the database")
+                    .register(registry);
+        }
+    }
+
+    private static boolean isDatabaseFailure(Throwable failure) {
+        return failure instanceof TransientDataAccessException
+                || failure instanceof DataAccessResourceFailureException
+                || failure instanceof RecoverableDataAccessException;
+    }
+
+    private static Object proceed(MethodInvocation invocation) {
+        try {
+            return invocation.proceed();
+        } catch (Throwable e) {
+            throw new InvocationFailure(e);
+        }
+    }
+
+    /**
+     * Carries any throwable, checked or not, out of the timeout scope.
+     */
+    private static class InvocationFailure extends RuntimeException {
+
+        InvocationFailure(Throwable cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.udemy.springboottest.resilience;
+
+import com.udemy.springboottest.repository.EmployeeRepository;
+import com.udemy.springboottest.repository.WrappingPostProcessor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Puts {@link RepositoryGuard} in front of {@link EmployeeRepository} and wraps the
+ * datasource so the guard's query timeouts reach the JDBC statements; see
+ * {@link WrappingPostProcessor} for where these wrappers sit among the others.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "employee.repository.guard", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RepositoryGuardConfiguration {
+
+    @Bean
+    public RepositoryGuard employeeRepositoryGuard(
+            @Value("${employee.repository.circuit.window-size:20}") int windowSize,
+            @Value("${employee.repository.circuit.minimum-calls:10}") int minimumCalls,
+            @Value("${employee.repository.circuit.failure-rate-threshold:50}") double failureRateThreshold,
+            @Value("${employee.repository.circuit.open-ms:10000}") long openMillis,
+            @Value("${employee.repository.bulkhead.max-wait-ms:25}") long maxWaitMillis,
+            @Value("${employee.repository.bulkhead.read.max-concurrent:6}") int maxReads,
+            @Value("${employee.repository.bulkhead.write.max-concurrent:3}") int maxWrites,
+            @Value("${employee.repository.bulkhead.export.max-concurrent:2}") int maxExports,
+            @Value("${employee.repository.bulkhead.export.max-wait-ms:1000}") long maxExportWaitMillis,
+            @Value("${employee.repository.bulkhead.background.max-concurrent:1}") int maxBackground,
+            @Value("${employee.repository.bulkhead.background.max-wait-ms:30000}") long maxBackgroundWaitMillis,
+            @Value("${employee.repository.timeout.read-seconds:2}") int readTimeout,
+            @Value("${employee.repository.timeout.write-seconds:5}") int writeTimeout,
+            @Value("${employee.repository.timeout.export-seconds:30}") int exportTimeout) {
+        Map<OperationType, Bulkhead> bulkheads = new EnumMap<>(OperationType.class);
+        bulkheads.put(OperationType.READ, new Bulkhead("read", maxReads, maxWaitMillis));
+        bulkheads.put(OperationType.WRITE, new Bulkhead("write", maxWrites, maxWaitMillis));
+        bulkheads.put(OperationType.EXPORT, new Bulkhead("export", maxExports, maxExportWaitMillis));
+        bulkheads.put(OperationType.BACKGROUND, new Bulkhead("background", maxBackground, maxBackgroundWaitMillis));
+        Map<OperationType, Integer> timeouts = new EnumMap<>(OperationType.class);
+        timeouts.put(OperationType.READ, readTimeout);
+        timeouts.put(OperationType.WRITE, writeTimeout);
+        timeouts.put(OperationType.EXPORT, exportTimeout);
+        timeouts.put(OperationType.BACKGROUND, exportTimeout);
+        return new RepositoryGuard(new CircuitBreaker(windowSize, minimumCalls, failureRateThreshold, openMillis),
+                bulkheads, timeouts);
+    }
+
+    @Bean
+    public static WrappingPostProcessor employeeRepositoryGuardPostProcessor(ObjectProvider<RepositoryGuard> guard) {
+        return new WrappingPostProcessor(WrappingPostProcessor.REPOSITORY_GUARD) {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof EmployeeRepository) {
+                    ProxyFactory factory = new ProxyFactory();
+                    factory.setTarget(bean);
+                    factory.addInterface(EmployeeRepository.class);
+                    factory.addAdvice(guard.getObject());
+                    return factory.getProxy(EmployeeRepository.class.getClassLoader());
+                }
+                if (bean instanceof DataSource && !(bean instanceof QueryTimeoutDataSource)) {
+                    return new QueryTimeoutDataSource((DataSource) bean);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package com.udemy.springboottest.search;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Serves {@code GET /api/employees/search?q=...} from the in-process index. Every word of
+ * {@code q} has to match a name or email word of the employee, as a prefix or with a typo or two.
+ */
+@RestController
+@RequestMapping("/api/employees/search")
+@ConditionalOnProperty(prefix = "employee.search", name = "enabled", havingValue = "true")
+public class EmployeeSearchController {
+
+    private EmployeeSearchService searchService;
+
+    public EmployeeSearchController(EmployeeSearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    @GetMapping
+    public List<EmployeeSearchHit> search(@RequestParam("q") String query,
+                                          @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return searchService.search(query, limit);
+    }
+}
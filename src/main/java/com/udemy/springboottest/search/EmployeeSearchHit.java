@@ -0,0 +1,12 @@
+package com.udemy.springboottest.search;
+
+import lombok.Value;
+
+@Value
+public class EmployeeSearchHit {
+    long id;
+    String firstName;
+    String lastName;
+    String email;
+    double score;
+}
@@ -0,0 +1,119 @@
+package com.udemy.springboottest.search;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process, typo-tolerant search over first name, last name and email, with one
+ * {@link TenantSearchIndex} per tenant. Besides the employees it tracks, per shard, the id
+ * of the last {@code employee_changes} row applied, so that a reloaded index resumes from
+ * there. The file only holds the employees and cursors; postings are rebuilt on load.
+ */
+public class EmployeeSearchIndex {
+
+    private static final int MAGIC = 0x45534958;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final Map<String, TenantSearchIndex> tenants = new ConcurrentHashMap<>();
+
+    private final Map<String, Long> changeCursors = new ConcurrentHashMap<>();
+
+    void put(String tenantId, IndexedEmployee employee) {
+        tenants.computeIfAbsent(tenantId, id -> new TenantSearchIndex()).put(employee);
+    }
+
+    void remove(String tenantId, long id) {
+        TenantSearchIndex tenant = tenants.get(tenantId);
+        if (tenant != null) {
+            tenant.remove(id);
+        }
+    }
+
+    public List<EmployeeSearchHit> search(String tenantId, String query, int limit) {
+        TenantSearchIndex tenant = tenants.get(tenantId);
+        List<String> terms = SearchTerms.terms(query);
+        if (tenant == null || terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return tenant.search(terms, limit);
+    }
+
+    public int size() {
+        return tenants.values().stream().mapToInt(TenantSearchIndex::size).sum();
+    }
+
+    long changeCursor(String shard) {
+        return changeCursors.getOrDefault(shard, 0L);
+    }
+
+    void changeCursor(String shard, long changeId) {
+        changeCursors.merge(shard, changeId, Math::max);
+    }
+
+    /**
+     * Writes the index to a temporary file next to {@code file} and moves it into place.
+     */
+    public void save(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(changeCursors.size());
+            for (Map.Entry<String, Long> cursor : changeCursors.entrySet()) {
+                out.writeUTF(cursor.getKey());
+                out.writeLong(cursor.getValue());
+            }
+            out.writeInt(tenants.size());
+            for (Map.Entry<String, TenantSearchIndex> tenant : tenants.entrySet()) {
+                Collection<IndexedEmployee> employees = tenant.getValue().employees();
+                out.writeUTF(tenant.getKey());
+                out.writeInt(employees.size());
+                for (IndexedEmployee employee : employees) {
+                    out.writeLong(employee.getId());
+                    out.writeLong(employee.getVersion());
+                    out.writeUTF(employee.getFirstName());
+                    out.writeUTF(employee.getLastName());
+                    out.writeUTF(employee.getEmail());
+                }
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static EmployeeSearchIndex load(Path file) throws IOException {
+        EmployeeSearchIndex index = new EmployeeSearchIndex();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException(file + " is not an employee search index of format " + FORMAT_VERSION);
+            }
+            for (int cursors = in.readInt(); cursors > 0; cursors--) {
+                index.changeCursors.put(in.readUTF(), in.readLong());
+            }
+            for (int tenants = in.readInt(); tenants > 0; tenants--) {
+                String tenantId = in.readUTF();
+                TenantSearchIndex tenant = index.tenants.computeIfAbsent(tenantId, id -> new TenantSearchIndex());
+                for (int employees = in.readInt(); employees > 0; employees--) {
+                    tenant.put(new IndexedEmployee(in.readLong(), in.readLong(), in.readUTF(), in.readUTF(), in.readUTF()));
+                }
+            }
+        }
+        return index;
+    }
+}
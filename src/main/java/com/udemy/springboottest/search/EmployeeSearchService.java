@@ -0,0 +1,287 @@
+package com.udemy.springboottest.search;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.udemy.springboottest.importer.EmployeeRow;
+import com.udemy.springboottest.importer.EmployeesImportedEvent;
+import com.udemy.springboottest.model.ChangeType;
+import com.udemy.springboottest.model.EmployeeChange;
+import com.udemy.springboottest.repository.EmployeeChangeRepository;
+import com.udemy.springboottest.service.EmployeeChangedEvent;
+import com.udemy.springboottest.tenant.TenantContext;
+import com.udemy.springboottest.tenant.TenantShardRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the {@link EmployeeSearchIndex}. On startup the index is read from
+ * {@code index-path}, or built by streaming every live row of every shard, and then follows
+ * {@code employee_changes}: changes written by any instance reach it within a poll interval.
+ * Local writes are applied right after they commit, and imports, which bypass the outbox,
+ * by reading back the rows of each imported batch. Imports through other instances, and
+ * imports committed while an index saved to {@code index-path} was not running, are not in the
+ * outbox, so the index is also rebuilt from the table every {@code rebuild-interval-ms}, like
+ * the stats counters are reconciled. Outbox ids are assigned in commit order,
+ * so each poll continues after the last id it applied. Re-applying a change is harmless
+ * because an employee is never replaced by an older version, which covers local writes seen
+ * again in the outbox and the history a tenant move copies to the target shard with new
+ * change ids.
+ */
+@Service
+@ConditionalOnProperty(prefix = "employee.search", name = "enabled", havingValue = "true")
+public class EmployeeSearchService implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeSearchService.class);
+
+    private static final int MAX_LIMIT = 100;
+
+    private static final int PAGE_SIZE = 1000;
+
+    private static final String SCAN_LIVE = "select id, tenant_id, version, first_name, last_name, email " +
+            "from employees where deleted_at is null";
+
+    private static final String FIND_IMPORTED = "select id, tenant_id, version, first_name, last_name, email " +
+            "from employees where tenant_id = ? and deleted_at is null and email in (%s)";
+
+    private EmployeeChangeRepository changeRepository;
+
+    private TenantShardRegistry tenantShardRegistry;
+
+    private ObjectMapper objectMapper;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Path indexPath;
+
+    private volatile EmployeeSearchIndex index = new EmployeeSearchIndex();
+
+    private volatile boolean dirty;
+
+    public EmployeeSearchService(EmployeeChangeRepository changeRepository,
+                                 TenantShardRegistry tenantShardRegistry,
+                                 ObjectMapper objectMapper,
+                                 DataSource dataSource,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${employee.search.index-path:data/employee-search.idx}") String indexPath) {
+        this.changeRepository = changeRepository;
+        this.tenantShardRegistry = tenantShardRegistry;
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        // PostgreSQL only streams with a fetch size inside a transaction
+        this.jdbcTemplate.setFetchSize(PAGE_SIZE * 10);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.indexPath = Paths.get(indexPath);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (Files.exists(indexPath)) {
+            try {
+                index = EmployeeSearchIndex.load(indexPath);
+                log.info("Loaded {} employees into the search index from {}", index.size(), indexPath);
+            } catch (IOException e) {
+                log.warn("Cannot load the search index from {}, rebuilding it", indexPath, e);
+                build();
+            }
+        } else {
+            build();
+        }
+        follow();
+    }
+
+    public List<EmployeeSearchHit> search(String query, int limit) {
+        return index.search(TenantContext.getTenantId(), query, Math.max(1, Math.min(limit, MAX_LIMIT)));
+    }
+
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        String tenantId = TenantContext.getTenantId();
+        afterCommit(() -> {
+            if (event.getType() == ChangeType.DELETED) {
+                index.remove(tenantId, event.getEmployeeId());
+            } else {
+                index.put(tenantId, IndexedEmployee.of(event.getEmployee()));
+            }
+            dirty = true;
+        });
+    }
+
+    @EventListener
+    public void onEmployeesImported(EmployeesImportedEvent event) {
+        List<String> emails = event.getRows().stream().map(EmployeeRow::getEmail).collect(Collectors.toList());
+        TenantContext.runAs(event.getTenantId(), () -> {
+            for (int from = 0; from < emails.size(); from += PAGE_SIZE) {
+                List<String> page = emails.subList(from, Math.min(emails.size(), from + PAGE_SIZE));
+                List<Object> arguments = new ArrayList<>(page.size() + 1);
+                arguments.add(event.getTenantId());
+                arguments.addAll(page);
+                jdbcTemplate.query(String.format(FIND_IMPORTED, String.join(",", Collections.nCopies(page.size(), "?"))),
+                        row -> indexRow(index, row), arguments.toArray());
+            }
+        });
+        dirty = true;
+    }
+
+    /**
+     * Applies the changes committed since the last poll, on every shard.
+     */
+    @Scheduled(fixedDelayString = "${employee.search.poll-interval-ms:1000}")
+    public void follow() {
+        for (String shard : tenantShardRegistry.shardNames()) {
+            try {
+                TenantContext.runOnShard(shard, () -> followShard(shard));
+            } catch (RuntimeException e) {
+                log.warn("Applying employee changes of shard {} to the search index failed", shard, e);
+            }
+        }
+    }
+
+    /**
+     * Replaces the index with one scanned from the table, then applies the changes committed
+     * during the scan. Searches keep using the previous index until the scan is done; imports
+     * this instance applies during the scan may wait for the next rebuild.
+     */
+    @Scheduled(fixedDelayString = "${employee.search.rebuild-interval-ms:600000}",
+            initialDelayString = "${employee.search.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        try {
+            index = scan();
+        } catch (RuntimeException e) {
+            log.warn("Rebuilding the search index failed, keeping the current one", e);
+            return;
+        }
+        dirty = true;
+        follow();
+        log.info("Rebuilt the search index with {} employees", index.size());
+    }
+
+    @Scheduled(fixedDelayString = "${employee.search.persist-interval-ms:60000}")
+    public void persist() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        try {
+            index.save(indexPath);
+        } catch (IOException e) {
+            dirty = true;
+            log.warn("Saving the search index to {} failed", indexPath, e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        persist();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("employee.search.indexed", this, service -> service.index.size())
+                .description("Employees in the in-process search index")
+                .register(registry);
+    }
+
+    private void build() {
+        index = scan();
+        dirty = true;
+        log.info("Built the search index with {} employees", index.size());
+    }
+
+    /**
+     * Streams every live row of every shard into a new index, which continues with the outbox
+     * changes committed after the scan started.
+     */
+    private EmployeeSearchIndex scan() {
+        EmployeeSearchIndex scanned = new EmployeeSearchIndex();
+        for (String shard : tenantShardRegistry.shardNames()) {
+            TenantContext.runOnShard(shard, () -> {
+                long cursor = changeRepository.findMaxId();
+                readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(SCAN_LIVE,
+                        row -> indexRow(scanned, row)));
+                scanned.changeCursor(shard, cursor);
+            });
+        }
+        return scanned;
+    }
+
+    private void followShard(String shard) {
+        long cursor = index.changeCursor(shard);
+        long from = cursor;
+        List<EmployeeChange> changes;
+        do {
+            changes = changeRepository.findByIdGreaterThanOrderByIdAsc(from, PageRequest.of(0, PAGE_SIZE));
+            for (EmployeeChange change : changes) {
+                apply(change);
+                from = change.getId();
+            }
+        } while (changes.size() == PAGE_SIZE);
+        if (from > cursor) {
+            index.changeCursor(shard, from);
+            dirty = true;
+        }
+    }
+
+    private void apply(EmployeeChange change) {
+        if (change.getType() == ChangeType.DELETED || change.getPayload() == null) {
+            index.remove(change.getTenantId(), change.getEmployeeId());
+            return;
+        }
+        try {
+            // the payload is the serialized entity, whose version Jackson would not bind back
+            JsonNode employee = objectMapper.readTree(change.getPayload());
+            index.put(change.getTenantId(), new IndexedEmployee(change.getEmployeeId(), employee.path("version").asLong(),
+                    employee.path("firstName").asText(), employee.path("lastName").asText(), employee.path("email").asText()));
+        } catch (IOException e) {
+            log.warn("Skipping unreadable change {} of employee {}", change.getId(), change.getEmployeeId(), e);
+        }
+    }
+
+    private static void indexRow(EmployeeSearchIndex index, ResultSet row) throws SQLException {
+        index.put(row.getString("tenant_id"), new IndexedEmployee(row.getLong("id"), row.getLong("version"),
+                row.getString("first_name"), row.getString("last_name"), row.getString("email")));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
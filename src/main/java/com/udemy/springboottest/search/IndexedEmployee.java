@@ -0,0 +1,21 @@
+package com.udemy.springboottest.search;
+
+import com.udemy.springboottest.model.Employee;
+import lombok.Value;
+
+/**
+ * The searchable attributes of one employee, as of {@code version}.
+ */
+@Value
+class IndexedEmployee {
+    long id;
+    long version;
+    String firstName;
+    String lastName;
+    String email;
+
+    static IndexedEmployee of(Employee employee) {
+        return new IndexedEmployee(employee.getId(), employee.getVersion(), employee.getFirstName(),
+                employee.getLastName(), employee.getEmail());
+    }
+}
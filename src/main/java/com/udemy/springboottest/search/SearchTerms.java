@@ -0,0 +1,117 @@
+package com.udemy.springboottest.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Tokenizing and matching rules of the search index. Terms are lower-cased runs of letters
+ * and digits, so {@code fuad.aliyev@gmail.com} yields {@code fuad}, {@code aliyev},
+ * {@code gmail} and {@code com}. Each term is indexed by its trigrams, padded with a space
+ * on both sides so that prefixes and whole words weigh more than inner fragments.
+ */
+final class SearchTerms {
+
+    private SearchTerms() {
+    }
+
+    static List<String> terms(String... texts) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String text : texts) {
+            if (text == null) {
+                continue;
+            }
+            int start = -1;
+            for (int i = 0; i <= text.length(); i++) {
+                boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+                if (wordChar && start < 0) {
+                    start = i;
+                } else if (!wordChar && start >= 0) {
+                    terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                    start = -1;
+                }
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    static long[] trigrams(String term) {
+        String padded = ' ' + term + ' ';
+        long[] trigrams = new long[padded.length() - 2];
+        for (int i = 0; i < trigrams.length; i++) {
+            trigrams[i] = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+        }
+        return trigrams;
+    }
+
+    /**
+     * Typos tolerated in a query term: none up to 2 characters, one up to 5, two beyond.
+     */
+    static int maxEdits(String term) {
+        return term.length() <= 2 ? 0 : term.length() <= 5 ? 1 : 2;
+    }
+
+    /**
+     * How well a query term matches the best of an employee's terms: 1 for an exact match,
+     * less for a prefix or a match within {@link #maxEdits} typos, 0 for no match.
+     */
+    static double score(String queryTerm, List<String> employeeTerms) {
+        int maxEdits = maxEdits(queryTerm);
+        double best = 0;
+        for (String term : employeeTerms) {
+            if (term.equals(queryTerm)) {
+                return 1;
+            }
+            if (term.startsWith(queryTerm)) {
+                best = Math.max(best, 0.9);
+                continue;
+            }
+            int distance = distance(queryTerm, term, maxEdits);
+            if (distance <= maxEdits) {
+                best = Math.max(best, 0.8 - 0.2 * distance);
+            } else if (term.length() > queryTerm.length()
+                    && distance(queryTerm, term.substring(0, queryTerm.length()), maxEdits) <= maxEdits) {
+                best = Math.max(best, 0.5);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Edit distance with adjacent transpositions, or {@code max + 1} as soon as it exceeds {@code max}.
+     */
+    static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+}
@@ -0,0 +1,278 @@
+package com.udemy.springboottest.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Trigram index over one tenant's employees. Updates only append postings; the postings an
+ * update or removal leaves behind are skipped at query time, since every candidate is
+ * scored against its current attributes, and are dropped by rebuilding the postings once
+ * they make up a quarter of the index.
+ */
+class TenantSearchIndex {
+
+    private static final Comparator<EmployeeSearchHit> RANKING = Comparator
+            .comparingDouble(EmployeeSearchHit::getScore).reversed()
+            .thenComparingLong(EmployeeSearchHit::getId);
+
+    private static final int MIN_STALE_POSTINGS_TO_COMPACT = 1024;
+
+    /**
+     * A posting list longer than this share of the tenant's employees, and than
+     * {@link #MIN_COMMON_POSTINGS}, belongs to a trigram too common to be worth walking.
+     */
+    private static final int COMMON_POSTINGS_RATIO = 10;
+
+    private static final int MIN_COMMON_POSTINGS = 1000;
+
+    private final Map<Long, IndexedEmployee> employees = new HashMap<>();
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long livePostings;
+
+    private long stalePostings;
+
+    /**
+     * Indexes the employee unless a newer version of it is already indexed.
+     */
+    void put(IndexedEmployee employee) {
+        lock.writeLock().lock();
+        try {
+            IndexedEmployee previous = employees.get(employee.getId());
+            if (previous != null && previous.getVersion() > employee.getVersion()) {
+                return;
+            }
+            employees.put(employee.getId(), employee);
+            Set<Long> previousTrigrams = previous == null ? new HashSet<>() : trigrams(previous);
+            Set<Long> trigrams = trigrams(employee);
+            for (Long trigram : trigrams) {
+                if (!previousTrigrams.remove(trigram)) {
+                    postings.computeIfAbsent(trigram, key -> new Postings()).add(employee.getId());
+                    livePostings++;
+                }
+            }
+            stalePostings += previousTrigrams.size();
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            IndexedEmployee previous = employees.remove(id);
+            if (previous != null) {
+                stalePostings += trigrams(previous).size();
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Employees matching every query term, best first. Candidates are the employees sharing
+     * enough trigrams with each query term to be within the tolerated typos of it. They are
+     * drawn from the term whose posting lists are cheapest to walk, then narrowed down by the
+     * other terms; lists of trigrams too common to narrow anything down are assumed to match
+     * instead of being walked.
+     */
+    List<EmployeeSearchHit> search(List<String> queryTerms, int limit) {
+        lock.readLock().lock();
+        try {
+            int commonSize = Math.max(MIN_COMMON_POSTINGS, employees.size() / COMMON_POSTINGS_RATIO);
+            List<TermPostings> terms = new ArrayList<>();
+            for (String term : queryTerms) {
+                long[] trigrams = SearchTerms.trigrams(term);
+                if (trigrams.length > 0) {
+                    terms.add(new TermPostings(term, trigrams));
+                }
+            }
+            terms.sort(Comparator.comparingLong(TermPostings::seedCost));
+            Set<Long> candidates = null;
+            for (TermPostings term : terms) {
+                candidates = term.matching(candidates, commonSize);
+                if (candidates.isEmpty()) {
+                    break;
+                }
+            }
+            PriorityQueue<EmployeeSearchHit> best = new PriorityQueue<>(RANKING.reversed());
+            for (Long id : candidates == null ? Collections.<Long>emptySet() : candidates) {
+                IndexedEmployee employee = employees.get(id);
+                if (employee == null) {
+                    continue;
+                }
+                double score = score(queryTerms, employee);
+                if (score > 0) {
+                    best.add(new EmployeeSearchHit(employee.getId(), employee.getFirstName(), employee.getLastName(),
+                            employee.getEmail(), score));
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            }
+            List<EmployeeSearchHit> results = new ArrayList<>(best);
+            results.sort(RANKING);
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return employees.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    Collection<IndexedEmployee> employees() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(employees.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static double score(List<String> queryTerms, IndexedEmployee employee) {
+        List<String> terms = SearchTerms.terms(employee.getFirstName(), employee.getLastName(), employee.getEmail());
+        double total = 0;
+        for (String queryTerm : queryTerms) {
+            double score = SearchTerms.score(queryTerm, terms);
+            if (score == 0) {
+                return 0;
+            }
+            total += score;
+        }
+        return total / queryTerms.size();
+    }
+
+    private static Set<Long> trigrams(IndexedEmployee employee) {
+        Set<Long> trigrams = new HashSet<>();
+        for (String term : SearchTerms.terms(employee.getFirstName(), employee.getLastName(), employee.getEmail())) {
+            for (long trigram : SearchTerms.trigrams(term)) {
+                trigrams.add(trigram);
+            }
+        }
+        return trigrams;
+    }
+
+    private void compactIfNeeded() {
+        if (stalePostings < MIN_STALE_POSTINGS_TO_COMPACT || stalePostings * 4 < livePostings) {
+            return;
+        }
+        postings.clear();
+        livePostings = 0;
+        stalePostings = 0;
+        for (IndexedEmployee employee : employees.values()) {
+            for (Long trigram : trigrams(employee)) {
+                postings.computeIfAbsent(trigram, key -> new Postings()).add(employee.getId());
+                livePostings++;
+            }
+        }
+    }
+
+    /**
+     * The posting lists of one query term, rarest first. A match within the term's tolerated
+     * misses is in at least {@code trigrams - misses} of them, so it is in one of the
+     * {@code misses + 1} rarest: only those need walking to find every candidate.
+     */
+    private final class TermPostings {
+
+        private final List<Postings> lists = new ArrayList<>();
+
+        private final int allowedMisses;
+
+        TermPostings(String term, long[] trigrams) {
+            for (long trigram : trigrams) {
+                lists.add(postings.getOrDefault(trigram, Postings.EMPTY));
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+            // every typo breaks up to three trigrams, and a prefix misses the closing one
+            allowedMisses = 3 * SearchTerms.maxEdits(term) + 1;
+        }
+
+        long seedCost() {
+            long cost = 0;
+            for (int i = 0; i < probed(); i++) {
+                cost += lists.get(i).size;
+            }
+            return cost;
+        }
+
+        /**
+         * The employees that may match this term: drawn from its rarest lists if there are no
+         * {@code candidates} yet, otherwise those of the {@code candidates} that may match.
+         */
+        Set<Long> matching(Set<Long> candidates, int commonSize) {
+            Map<Long, int[]> hits = new HashMap<>();
+            int assumed = 0;
+            for (int i = 0; i < lists.size(); i++) {
+                Postings ids = lists.get(i);
+                if (candidates == null && i < probed()) {
+                    for (int j = 0; j < ids.size; j++) {
+                        hits.computeIfAbsent(ids.ids[j], id -> new int[1])[0]++;
+                    }
+                } else if (ids.size > commonSize) {
+                    assumed++;
+                } else {
+                    for (int j = 0; j < ids.size; j++) {
+                        long id = ids.ids[j];
+                        if (candidates == null ? hits.containsKey(id) : candidates.contains(id)) {
+                            hits.computeIfAbsent(id, key -> new int[1])[0]++;
+                        }
+                    }
+                }
+            }
+            int required = lists.size() - allowedMisses - assumed;
+            if (candidates != null && required <= 0) {
+                return candidates;
+            }
+            Set<Long> matching = new HashSet<>();
+            for (Map.Entry<Long, int[]> hit : hits.entrySet()) {
+                if (hit.getValue()[0] >= Math.max(1, required)) {
+                    matching.add(hit.getKey());
+                }
+            }
+            return matching;
+        }
+
+        private int probed() {
+            return Math.min(lists.size(), allowedMisses + 1);
+        }
+    }
+
+    private static final class Postings {
+
+        private static final Postings EMPTY = new Postings();
+
+        private long[] ids = new long[4];
+
+        private int size;
+
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+}
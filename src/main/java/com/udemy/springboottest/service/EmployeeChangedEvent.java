@@ -0,0 +1,35 @@
+package com.udemy.springboottest.service;
+
+import com.udemy.springboottest.model.ChangeType;
+import com.udemy.springboottest.model.Employee;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published by {@link EmployeeService} inside the transaction of every employee mutation.
+ * {@code employee} is the state after the change and is {@code null} for deletes;
+ * {@code previous} is the state before an update, if it was still present.
+ */
+@Getter
+@ToString
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class EmployeeChangedEvent {
+    private final ChangeType type;
+    private final Long employeeId;
+    private final Employee employee;
+    private final Employee previous;
+
+    public static EmployeeChangedEvent created(Employee employee) {
+        return new EmployeeChangedEvent(ChangeType.CREATED, employee.getId(), employee, null);
+    }
+
+    public static EmployeeChangedEvent updated(Employee previous, Employee employee) {
+        return new EmployeeChangedEvent(ChangeType.UPDATED, employee.getId(), employee, previous);
+    }
+
+    public static EmployeeChangedEvent deleted(Long employeeId) {
+        return new EmployeeChangedEvent(ChangeType.DELETED, employeeId, null, null);
+    }
+}
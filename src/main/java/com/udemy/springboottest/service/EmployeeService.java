@@ -2,13 +2,19 @@ package com.udemy.springboottest.service;
 
 import com.udemy.springboottest.model.Employee;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 public interface EmployeeService {
     Employee saveEmployee(Employee employee);
     List<Employee> getAllEmployees();
+    List<Map<String, Object>> getAllEmployees(Set<String> fields);
     Optional<Employee> getEmployeeById(Long id);
+    Optional<Map<String, Object>> getEmployeeById(Long id, Set<String> fields);
+    List<Employee> getEmployeesModifiedSince(Instant since, Long afterId, int limit);
     Employee updateEmployee(Employee employee);
     void deleteEmployee(Long id);
 }
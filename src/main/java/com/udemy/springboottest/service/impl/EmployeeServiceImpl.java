@@ -1,30 +1,79 @@
 package com.udemy.springboottest.service.impl;
 
+import com.udemy.springboottest.exception.EmployeeAlreadyExistsException;
 import com.udemy.springboottest.exception.ResourceNotFoundException;
+import com.udemy.springboottest.exception.UnsupportedFieldException;
 import com.udemy.springboottest.model.Employee;
+import com.udemy.springboottest.repository.EmployeeFieldsRepository;
 import com.udemy.springboottest.repository.EmployeeRepository;
+import com.udemy.springboottest.service.EmployeeChangedEvent;
 import com.udemy.springboottest.service.EmployeeService;
+import com.udemy.springboottest.tenant.TenantContext;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class EmployeeServiceImpl implements EmployeeService {
 
+    private static final int MAX_SYNC_PAGE_SIZE = 10_000;
+
+    /**
+     * {@code updated_at} is the application clock when the row was flushed, not when it
+     * committed. Rows younger than this are not served yet, so a row that commits late, or
+     * was stamped by an instance whose clock runs behind, still lands after the sync cursor.
+     * Must exceed the write transaction timeout plus the clock skew between instances.
+     */
+    static final Duration SYNC_SETTLE_WINDOW = Duration.ofSeconds(10);
+
+    /**
+     * Timeout of the write transactions, applied to every statement they run including the
+     * flush at commit; keeps a stamped row from committing after {@link #SYNC_SETTLE_WINDOW}.
+     */
+    static final int WRITE_TIMEOUT_SECONDS = 5;
+
     private EmployeeRepository employeeRepository;
 
-    public EmployeeServiceImpl(EmployeeRepository employeeRepository) {
+    private ApplicationEventPublisher eventPublisher;
+
+    private final SingleFlight<String, Optional<Employee>> idLookups = new SingleFlight<>(EmployeeServiceImpl::copyOf);
+
+    private final SingleFlight<String, Optional<Employee>> emailLookups = new SingleFlight<>(EmployeeServiceImpl::copyOf);
+
+    public EmployeeServiceImpl(EmployeeRepository employeeRepository, ApplicationEventPublisher eventPublisher) {
         this.employeeRepository = employeeRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
+    @Transactional(timeout = WRITE_TIMEOUT_SECONDS)
     public Employee saveEmployee(Employee employee) {
-        Optional<Employee> savedEmployee = employeeRepository.findByEmail(employee.getEmail());
+        Optional<Employee> savedEmployee = emailLookups.execute(tenantKey(employee.getEmail()),
+                () -> employeeRepository.findByEmail(employee.getEmail()));
         if (savedEmployee.isPresent()) {
-            throw new ResourceNotFoundException("Employee already exists with given email: " + employee.getEmail());
+            throw new EmployeeAlreadyExistsException(employee.getEmail());
+        }
+        Employee createdEmployee;
+        try {
+            createdEmployee = employeeRepository.save(employee);
+        } catch (DataIntegrityViolationException e) {
+            // a concurrent create of the same email committed between the check and the insert
+            if (EmployeeAlreadyExistsException.isDuplicateEmail(e)) {
+                throw new EmployeeAlreadyExistsException(employee.getEmail());
+            }
+            throw e;
         }
-        return employeeRepository.save(employee);
+        eventPublisher.publishEvent(EmployeeChangedEvent.created(createdEmployee));
+        return createdEmployee;
     }
 
     @Override
@@ -32,18 +81,81 @@ public class EmployeeServiceImpl implements EmployeeService {
         return employeeRepository.findAll();
     }
 
+    @Override
+    public List<Map<String, Object>> getAllEmployees(Set<String> fields) {
+        return employeeRepository.findAllFields(checkFields(fields));
+    }
+
+    /**
+     * Returns a detached copy, never the managed instance: with open-in-view the caller shares
+     * the request's persistence context, and changes it makes before {@link #updateEmployee}
+     * would otherwise show up in the state that method reads as the previous one.
+     */
     @Override
     public Optional<Employee> getEmployeeById(Long id) {
-        return employeeRepository.findById(id);
+        return idLookups.execute(tenantKey(id), () -> copyOf(employeeRepository.findById(id)));
+    }
+
+    @Override
+    public Optional<Map<String, Object>> getEmployeeById(Long id, Set<String> fields) {
+        return employeeRepository.findFieldsById(id, checkFields(fields));
     }
 
     @Override
+    public List<Employee> getEmployeesModifiedSince(Instant since, Long afterId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_SYNC_PAGE_SIZE));
+        return employeeRepository.findModifiedSince(since, afterId, Instant.now().minus(SYNC_SETTLE_WINDOW),
+                PageRequest.of(0, pageSize));
+    }
+
+    @Override
+    @Transactional(timeout = WRITE_TIMEOUT_SECONDS)
     public Employee updateEmployee(Employee employee) {
-        return employeeRepository.save(employee);
+        // Loads the row into the persistence context, so the merge in save() needs no SELECT of its own
+        Employee previous = copyOf(employeeRepository.findById(employee.getId())).orElse(null);
+        Employee updatedEmployee;
+        try {
+            updatedEmployee = employeeRepository.save(employee);
+            // flushed here rather than at commit, so taking another employee's email is reported like a duplicate create
+            employeeRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            if (EmployeeAlreadyExistsException.isDuplicateEmail(e)) {
+                throw new EmployeeAlreadyExistsException(employee.getEmail());
+            }
+            throw e;
+        }
+        eventPublisher.publishEvent(EmployeeChangedEvent.updated(previous, updatedEmployee));
+        return updatedEmployee;
     }
 
     @Override
+    @Transactional(timeout = WRITE_TIMEOUT_SECONDS)
     public void deleteEmployee(Long id) {
-        employeeRepository.deleteById(id);
+        if (employeeRepository.softDeleteById(id, Instant.now()) == 0) {
+            throw new ResourceNotFoundException("Employee not found with id: " + id);
+        }
+        eventPublisher.publishEvent(EmployeeChangedEvent.deleted(id));
+    }
+
+    private static Set<String> checkFields(Set<String> fields) {
+        if (fields.isEmpty()) {
+            throw new UnsupportedFieldException("At least one field is required, supported fields are "
+                    + EmployeeFieldsRepository.SELECTABLE_FIELDS);
+        }
+        for (String field : fields) {
+            if (!EmployeeFieldsRepository.SELECTABLE_FIELDS.contains(field)) {
+                throw new UnsupportedFieldException("Unsupported field '" + field + "', supported fields are "
+                        + EmployeeFieldsRepository.SELECTABLE_FIELDS);
+            }
+        }
+        return fields;
+    }
+
+    private static String tenantKey(Object key) {
+        return TenantContext.getTenantId() + ':' + key;
+    }
+
+    private static Optional<Employee> copyOf(Optional<Employee> employee) {
+        return employee.map(e -> e.toBuilder().build());
     }
 }
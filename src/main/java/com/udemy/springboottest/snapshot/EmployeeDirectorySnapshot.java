@@ -0,0 +1,73 @@
+package com.udemy.springboottest.snapshot;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Immutable off-heap copy of one tenant's employee directory. The records are stored as
+ * their JSON encoding in a single direct buffer that is itself a JSON array, so the whole
+ * directory is served by copying bytes. The id index lives in a second direct buffer of
+ * {@code (id, offset, length)} entries sorted by id.
+ */
+public final class EmployeeDirectorySnapshot {
+
+    static final int INDEX_ENTRY_BYTES = Long.BYTES + Integer.BYTES + Integer.BYTES;
+
+    private final ByteBuffer data;
+
+    private final ByteBuffer index;
+
+    private final int size;
+
+    private final long builtAtMillis;
+
+    EmployeeDirectorySnapshot(ByteBuffer data, ByteBuffer index, int size, long builtAtMillis) {
+        this.data = data.asReadOnlyBuffer();
+        this.index = index.asReadOnlyBuffer();
+        this.size = size;
+        this.builtAtMillis = builtAtMillis;
+    }
+
+    /**
+     * The JSON array of all employees. Each call returns an independent view.
+     */
+    public ByteBuffer list() {
+        return data.duplicate();
+    }
+
+    /**
+     * The JSON object of the employee with the given id, or {@code null} if it is not in the snapshot.
+     */
+    public ByteBuffer employee(long id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = mid * INDEX_ENTRY_BYTES;
+            long midId = index.getLong(entry);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                int offset = index.getInt(entry + Long.BYTES);
+                int length = index.getInt(entry + Long.BYTES + Integer.BYTES);
+                ByteBuffer record = data.duplicate();
+                record.position(offset).limit(offset + length);
+                return record.slice();
+            }
+        }
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long sizeInBytes() {
+        return data.capacity() + (long) index.capacity();
+    }
+
+    public long getBuiltAtMillis() {
+        return builtAtMillis;
+    }
+}
@@ -0,0 +1,91 @@
+package com.udemy.springboottest.snapshot;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Appends pre-encoded employee records straight into a growing direct buffer, so building a
+ * snapshot never holds the whole directory on the heap. Records may arrive in any id order,
+ * but each id only once.
+ */
+class EmployeeDirectorySnapshotBuilder {
+
+    private static final int INITIAL_CAPACITY = 64 * 1024;
+
+    private ByteBuffer data = ByteBuffer.allocateDirect(INITIAL_CAPACITY);
+
+    private long[] ids = new long[1024];
+
+    private int[] offsets = new int[1024];
+
+    private int[] lengths = new int[1024];
+
+    private int size;
+
+    EmployeeDirectorySnapshotBuilder() {
+        data.put((byte) '[');
+    }
+
+    void add(long id, byte[] json) {
+        ensureCapacity(json.length + 2);
+        if (size > 0) {
+            data.put((byte) ',');
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            offsets = Arrays.copyOf(offsets, size * 2);
+            lengths = Arrays.copyOf(lengths, size * 2);
+        }
+        ids[size] = id;
+        offsets[size] = data.position();
+        lengths[size] = json.length;
+        size++;
+        data.put(json);
+    }
+
+    EmployeeDirectorySnapshot build() {
+        ensureCapacity(1);
+        data.put((byte) ']');
+        ByteBuffer compacted = ByteBuffer.allocateDirect(data.position());
+        data.flip();
+        compacted.put(data);
+        compacted.flip();
+        return new EmployeeDirectorySnapshot(compacted, buildIndex(), size, System.currentTimeMillis());
+    }
+
+    private ByteBuffer buildIndex() {
+        long[] sortedIds = Arrays.copyOf(ids, size);
+        Arrays.sort(sortedIds);
+        for (int i = 1; i < size; i++) {
+            if (sortedIds[i] == sortedIds[i - 1]) {
+                throw new IllegalStateException("Employee " + sortedIds[i] + " was added to the snapshot twice");
+            }
+        }
+        ByteBuffer index = ByteBuffer.allocateDirect(size * EmployeeDirectorySnapshot.INDEX_ENTRY_BYTES);
+        for (int i = 0; i < size; i++) {
+            int entry = Arrays.binarySearch(sortedIds, ids[i]) * EmployeeDirectorySnapshot.INDEX_ENTRY_BYTES;
+            index.putLong(entry, ids[i]);
+            index.putInt(entry + Long.BYTES, offsets[i]);
+            index.putInt(entry + Long.BYTES + Integer.BYTES, lengths[i]);
+        }
+        return index;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (data.remaining() >= extra) {
+            return;
+        }
+        long required = (long) data.position() + extra;
+        long capacity = Math.max(required, (long) data.capacity() * 2);
+        if (capacity > Integer.MAX_VALUE) {
+            if (required > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Employee directory snapshot exceeds 2 GB");
+            }
+            capacity = Integer.MAX_VALUE;
+        }
+        ByteBuffer grown = ByteBuffer.allocateDirect((int) capacity);
+        data.flip();
+        grown.put(data);
+        data = grown;
+    }
+}
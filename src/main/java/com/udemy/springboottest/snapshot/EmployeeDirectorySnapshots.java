@@ -0,0 +1,162 @@
+package com.udemy.springboottest.snapshot;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.udemy.springboottest.model.Employee;
+import com.udemy.springboottest.repository.EmployeeRepository;
+import com.udemy.springboottest.resilience.RepositoryGuard;
+import com.udemy.springboottest.tenant.TenantContext;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps an {@link EmployeeDirectorySnapshot} per tenant. A tenant's snapshot is built on its
+ * first request and then rebuilt on every refresh, so readers see the directory as of the
+ * last refresh at most. Snapshots nobody has read for {@code idle-refreshes} refreshes are dropped.
+ */
+@Service
+@ConditionalOnProperty(prefix = "employee.snapshot", name = "enabled", havingValue = "true")
+public class EmployeeDirectorySnapshots implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeDirectorySnapshots.class);
+
+    private static final int PAGE_SIZE = 1000;
+
+    private EmployeeRepository employeeRepository;
+
+    private ObjectMapper objectMapper;
+
+    private final long idleMillis;
+
+    private final Map<String, Entry> snapshots = new ConcurrentHashMap<>();
+
+    private final Map<String, CompletableFuture<Entry>> firstBuilds = new ConcurrentHashMap<>();
+
+    public EmployeeDirectorySnapshots(EmployeeRepository employeeRepository, ObjectMapper objectMapper,
+                                      @Value("${employee.snapshot.refresh-interval-ms:60000}") long refreshIntervalMillis,
+                                      @Value("${employee.snapshot.idle-refreshes:10}") int idleRefreshes) {
+        this.employeeRepository = employeeRepository;
+        this.objectMapper = objectMapper;
+        this.idleMillis = refreshIntervalMillis * idleRefreshes;
+    }
+
+    /**
+     * The current tenant's snapshot, built now if the tenant has none yet.
+     */
+    public EmployeeDirectorySnapshot current() {
+        String tenantId = TenantContext.getTenantId();
+        Entry entry = snapshots.get(tenantId);
+        if (entry == null) {
+            entry = firstBuild(tenantId);
+        }
+        entry.lastReadMillis = System.currentTimeMillis();
+        return entry.snapshot;
+    }
+
+    /**
+     * Builds a tenant's first snapshot outside the map, so other tenants' lookups are not held
+     * up by it; concurrent first readers of the same tenant wait for the one build.
+     */
+    private Entry firstBuild(String tenantId) {
+        CompletableFuture<Entry> build = new CompletableFuture<>();
+        CompletableFuture<Entry> running = firstBuilds.putIfAbsent(tenantId, build);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+        try {
+            Entry entry = new Entry(build());
+            snapshots.put(tenantId, entry);
+            build.complete(entry);
+            return entry;
+        } catch (RuntimeException e) {
+            build.completeExceptionally(e);
+            throw e;
+        } finally {
+            firstBuilds.remove(tenantId, build);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${employee.snapshot.refresh-interval-ms:60000}")
+    public void refresh() {
+        long now = System.currentTimeMillis();
+        snapshots.forEach((tenantId, entry) -> {
+            if (now - entry.lastReadMillis > idleMillis) {
+                snapshots.remove(tenantId, entry);
+                return;
+            }
+            try {
+                entry.snapshot = TenantContext.callAs(tenantId, () -> RepositoryGuard.callInBackground(this::build));
+            } catch (RuntimeException e) {
+                log.warn("Refreshing the employee snapshot of tenant {} failed, serving the previous one", tenantId, e);
+            }
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("employee.snapshot.tenants", snapshots, Map::size)
+                .description("Tenants with an off-heap employee directory snapshot")
+                .register(registry);
+        Gauge.builder("employee.snapshot.size", this, EmployeeDirectorySnapshots::totalBytes)
+                .description("Direct memory held by employee directory snapshots")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    private double totalBytes() {
+        return snapshots.values().stream().mapToLong(entry -> entry.snapshot.sizeInBytes()).sum();
+    }
+
+    private EmployeeDirectorySnapshot build() {
+        EmployeeDirectorySnapshotBuilder builder = new EmployeeDirectorySnapshotBuilder();
+        long afterId = 0;
+        List<Employee> page;
+        do {
+            page = employeeRepository.findPageAfterId(afterId, PageRequest.of(0, PAGE_SIZE));
+            for (Employee employee : page) {
+                builder.add(employee.getId(), encode(employee));
+            }
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == PAGE_SIZE);
+        return builder.build();
+    }
+
+    private byte[] encode(Employee employee) {
+        try {
+            return objectMapper.writeValueAsBytes(employee);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot encode employee " + employee.getId(), e);
+        }
+    }
+
+    private static class Entry {
+
+        private volatile EmployeeDirectorySnapshot snapshot;
+
+        private volatile long lastReadMillis = System.currentTimeMillis();
+
+        Entry(EmployeeDirectorySnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.udemy.springboottest.snapshot;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Serves {@code GET /api/employees?snapshot} and {@code GET /api/employees/{id}?snapshot}
+ * from the off-heap snapshot by copying its pre-encoded bytes to the response. Consumers opt
+ * in with the parameter because the snapshot may lag the database by one refresh interval;
+ * {@code Last-Modified} says when it was built. The snapshot only holds full employees, so
+ * with {@code fields} or {@code modifiedSince} the parameter is ignored and the request is
+ * served from the database.
+ */
+@RestController
+@RequestMapping("/api/employees")
+@ConditionalOnProperty(prefix = "employee.snapshot", name = "enabled", havingValue = "true")
+public class EmployeeSnapshotController {
+
+    private EmployeeDirectorySnapshots snapshots;
+
+    public EmployeeSnapshotController(EmployeeDirectorySnapshots snapshots) {
+        this.snapshots = snapshots;
+    }
+
+    @GetMapping(params = {"snapshot", "!fields", "!modifiedSince"})
+    public void getAllEmployees(HttpServletResponse response) throws IOException {
+        EmployeeDirectorySnapshot snapshot = snapshots.current();
+        write(response, snapshot, snapshot.list());
+    }
+
+    @GetMapping(value = "{id}", params = {"snapshot", "!fields"})
+    public void getEmployeeById(@PathVariable("id") Long id, HttpServletResponse response) throws IOException {
+        EmployeeDirectorySnapshot snapshot = snapshots.current();
+        ByteBuffer employee = snapshot.employee(id);
+        if (employee == null) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        write(response, snapshot, employee);
+    }
+
+    private static void write(HttpServletResponse response, EmployeeDirectorySnapshot snapshot, ByteBuffer body)
+            throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.remaining());
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, snapshot.getBuiltAtMillis());
+        WritableByteChannel channel = Channels.newChannel(response.getOutputStream());
+        while (body.hasRemaining()) {
+            channel.write(body);
+        }
+        response.flushBuffer();
+    }
+}
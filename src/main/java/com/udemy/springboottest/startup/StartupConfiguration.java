@@ -0,0 +1,45 @@
+package com.udemy.springboottest.startup;
+
+import com.udemy.springboottest.writebehind.WriteBehindWriter;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Keeps the {@code faststart} profile correct: with lazy initialization a bean is only
+ * created on first use, so background work that nothing ever asks for (scheduled jobs,
+ * the write-behind flusher replaying its journal) is created eagerly regardless.
+ */
+@Configuration
+public class StartupConfiguration {
+
+    @Bean
+    public static LazyInitializationExcludeFilter backgroundWorkExcludeFilter() {
+        LazyInitializationExcludeFilter writeBehind = LazyInitializationExcludeFilter.forBeanTypes(WriteBehindWriter.class);
+        return (beanName, beanDefinition, beanType) -> hasScheduledMethods(beanType)
+                || writeBehind.isExcluded(beanName, beanDefinition, beanType);
+    }
+
+    /**
+     * Exits as soon as the application is ready; used by the {@code cdsArchive} Gradle task
+     * to dump the classes loaded during startup.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "employee.startup", name = "training-run", havingValue = "true")
+    public ApplicationListener<ApplicationReadyEvent> trainingRunExit() {
+        return event -> System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+
+    private static boolean hasScheduledMethods(Class<?> beanType) {
+        return !MethodIntrospector.selectMethods(beanType,
+                (MethodIntrospector.MetadataLookup<Boolean>) method ->
+                        AnnotatedElementUtils.hasAnnotation(method, Scheduled.class) ? Boolean.TRUE : null).isEmpty();
+    }
+}
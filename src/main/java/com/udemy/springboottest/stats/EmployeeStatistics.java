@@ -0,0 +1,145 @@
+package com.udemy.springboottest.stats;
+
+import com.udemy.springboottest.importer.EmployeeRow;
+import com.udemy.springboottest.importer.EmployeesImportedEvent;
+import com.udemy.springboottest.model.ChangeType;
+import com.udemy.springboottest.model.Employee;
+import com.udemy.springboottest.repository.EmployeeRepository;
+import com.udemy.springboottest.resilience.RepositoryGuard;
+import com.udemy.springboottest.service.EmployeeChangedEvent;
+import com.udemy.springboottest.service.impl.SingleFlight;
+import com.udemy.springboottest.tenant.TenantContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves employee counts from per-tenant counters instead of scanning the table. A tenant's
+ * counters are loaded with {@code COUNT(*)} queries on its first request, then follow every
+ * committed create, update, delete and import. They are reconciled with the database every
+ * {@code max-age-ms}, and sooner after deletes, whose groups the delete path does not know.
+ * Changes that commit while a load or reconciliation runs may be missed until the next one.
+ * <p>
+ * The counters are per instance and only follow the writes this instance served; writes
+ * through other instances show up at the next reconciliation. With several instances the
+ * counts are therefore approximate, off by up to {@code max-age-ms} of other instances'
+ * writes, and two instances may answer differently. {@code reconciledAt} in the response
+ * tells how old the last exact count is.
+ */
+@Service
+public class EmployeeStatistics {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeStatistics.class);
+
+    private EmployeeRepository employeeRepository;
+
+    private final long maxAgeMillis;
+
+    private final Map<String, TenantCounters> counters = new ConcurrentHashMap<>();
+
+    private final SingleFlight<String, TenantCounters> firstLoads = new SingleFlight<>(tenant -> tenant);
+
+    public EmployeeStatistics(EmployeeRepository employeeRepository,
+                              @Value("${employee.stats.max-age-ms:600000}") long maxAgeMillis) {
+        this.employeeRepository = employeeRepository;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    public EmployeeStatsResponse getStats(int topDomains) {
+        String tenantId = TenantContext.getTenantId();
+        TenantCounters tenant = counters.get(tenantId);
+        if (tenant == null) {
+            tenant = firstLoads.execute(tenantId, () -> firstLoad(tenantId));
+        }
+        return tenant.toResponse(topDomains);
+    }
+
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        String tenantId = TenantContext.getTenantId();
+        afterCommit(() -> {
+            TenantCounters tenant = counters.get(tenantId);
+            if (tenant != null) {
+                apply(tenant, event);
+            }
+        });
+    }
+
+    @EventListener
+    public void onEmployeesImported(EmployeesImportedEvent event) {
+        TenantCounters tenant = counters.get(event.getTenantId());
+        if (tenant != null) {
+            for (EmployeeRow row : event.getRows()) {
+                tenant.add(row.getEmail(), row.getLastName(), 1);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${employee.stats.reconcile-interval-ms:30000}")
+    public void reconcile() {
+        Instant oldest = Instant.now().minusMillis(maxAgeMillis);
+        counters.forEach((tenantId, tenant) -> {
+            if (tenant.isStale() || tenant.getReconciledAt().isBefore(oldest)) {
+                try {
+                    counters.put(tenantId, TenantContext.callAs(tenantId, () -> RepositoryGuard.callInBackground(this::load)));
+                } catch (RuntimeException e) {
+                    log.warn("Reconciling the employee counts of tenant {} failed", tenantId, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Loads outside the map, so the three scans hold no lock other tenants' lookups need;
+     * concurrent first requests of the same tenant share the one load.
+     */
+    private TenantCounters firstLoad(String tenantId) {
+        TenantCounters loaded = load();
+        TenantCounters existing = counters.putIfAbsent(tenantId, loaded);
+        return existing == null ? loaded : existing;
+    }
+
+    private TenantCounters load() {
+        return new TenantCounters(employeeRepository.countForTenant(), employeeRepository.countByEmailDomain(),
+                employeeRepository.countByLastNameInitial(), Instant.now());
+    }
+
+    private static void apply(TenantCounters tenant, EmployeeChangedEvent event) {
+        if (event.getType() == ChangeType.CREATED) {
+            add(tenant, event.getEmployee(), 1);
+        } else if (event.getType() == ChangeType.UPDATED) {
+            if (event.getPrevious() != null) {
+                add(tenant, event.getPrevious(), -1);
+                add(tenant, event.getEmployee(), 1);
+            }
+        } else {
+            tenant.removeUngrouped();
+        }
+    }
+
+    private static void add(TenantCounters tenant, Employee employee, int delta) {
+        tenant.add(employee.getEmail(), employee.getLastName(), delta);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
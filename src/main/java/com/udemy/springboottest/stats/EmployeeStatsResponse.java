@@ -0,0 +1,16 @@
+package com.udemy.springboottest.stats;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Getter
+@AllArgsConstructor
+public class EmployeeStatsResponse {
+    private final long total;
+    private final Map<String, Long> byEmailDomain;
+    private final Map<String, Long> byLastNameInitial;
+    private final Instant reconciledAt;
+}
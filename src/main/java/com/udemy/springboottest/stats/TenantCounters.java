@@ -0,0 +1,88 @@
+package com.udemy.springboottest.stats;
+
+import java.time.Instant;
+import java.util.AbstractMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live employee counts of one tenant: the total and the counts per email domain and per
+ * last-name initial, grouped the same way as the reconciliation queries group them.
+ */
+class TenantCounters {
+
+    private final LongAdder total = new LongAdder();
+
+    private final Map<String, LongAdder> byEmailDomain = new ConcurrentHashMap<>();
+
+    private final Map<String, LongAdder> byLastNameInitial = new ConcurrentHashMap<>();
+
+    private final Instant reconciledAt;
+
+    private volatile boolean stale;
+
+    TenantCounters(long total, List<Object[]> byEmailDomain, List<Object[]> byLastNameInitial, Instant reconciledAt) {
+        this.total.add(total);
+        byEmailDomain.forEach(row -> counter(this.byEmailDomain, (String) row[0]).add((Long) row[1]));
+        byLastNameInitial.forEach(row -> counter(this.byLastNameInitial, (String) row[0]).add((Long) row[1]));
+        this.reconciledAt = reconciledAt;
+    }
+
+    void add(String email, String lastName, int delta) {
+        total.add(delta);
+        counter(byEmailDomain, emailDomain(email)).add(delta);
+        counter(byLastNameInitial, lastNameInitial(lastName)).add(delta);
+    }
+
+    /**
+     * Counts the removal of an employee whose groups are unknown; they are corrected by the
+     * next reconciliation, which is brought forward.
+     */
+    void removeUngrouped() {
+        total.decrement();
+        stale = true;
+    }
+
+    boolean isStale() {
+        return stale;
+    }
+
+    Instant getReconciledAt() {
+        return reconciledAt;
+    }
+
+    EmployeeStatsResponse toResponse(int topDomains) {
+        Map<String, Long> domains = new LinkedHashMap<>();
+        byEmailDomain.entrySet().stream()
+                .map(entry -> new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue().sum()))
+                .filter(entry -> entry.getValue() > 0)
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(topDomains)
+                .forEach(entry -> domains.put(entry.getKey(), entry.getValue()));
+        Map<String, Long> initials = new TreeMap<>();
+        byLastNameInitial.forEach((initial, count) -> {
+            long sum = count.sum();
+            if (sum > 0) {
+                initials.put(initial, sum);
+            }
+        });
+        return new EmployeeStatsResponse(total.sum(), domains, initials, reconciledAt);
+    }
+
+    static String emailDomain(String email) {
+        return email.substring(email.indexOf('@') + 1).toLowerCase(Locale.ROOT);
+    }
+
+    static String lastNameInitial(String lastName) {
+        return lastName.isEmpty() ? "" : lastName.substring(0, 1).toUpperCase(Locale.ROOT);
+    }
+
+    private static LongAdder counter(Map<String, LongAdder> counters, String key) {
+        return counters.computeIfAbsent(key == null ? "" : key, k -> new LongAdder());
+    }
+}
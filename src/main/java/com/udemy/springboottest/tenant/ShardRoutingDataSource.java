@@ -0,0 +1,22 @@
+package com.udemy.springboottest.tenant;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Routes each connection to the shard of the current tenant, or to the shard pinned with
+ * {@link TenantContext#callOnShard}. A transaction stays on the shard it started on.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final TenantShardRegistry registry;
+
+    public ShardRoutingDataSource(TenantShardRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String shard = TenantContext.getShardOverride();
+        return shard != null ? shard : registry.shardFor(TenantContext.getTenantId());
+    }
+}
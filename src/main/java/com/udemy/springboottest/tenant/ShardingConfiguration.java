@@ -0,0 +1,76 @@
+package com.udemy.springboottest.tenant;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Replaces the single datasource with one connection pool per configured shard behind a
+ * {@link ShardRoutingDataSource}. The schema migrations are applied to every shard.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "employee.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfiguration {
+
+    @Bean
+    public ShardDataSources shardDataSources(ShardingProperties properties) {
+        if (!properties.getShards().containsKey(properties.getDefaultShard())) {
+            throw new IllegalStateException("Default shard " + properties.getDefaultShard() + " is not configured");
+        }
+        Map<String, DataSource> shards = new LinkedHashMap<>();
+        properties.getShards().forEach((name, shard) -> {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword())
+                    .build();
+            dataSource.setPoolName("shard-" + name);
+            dataSource.setMaximumPoolSize(shard.getMaximumPoolSize());
+            shards.put(name, dataSource);
+        });
+        return new ShardDataSources(shards);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardDataSources shardDataSources, TenantShardRegistry registry,
+                                 ShardingProperties properties) {
+        registry.useCatalog(shardDataSources.get(properties.getDefaultShard()));
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(registry);
+        routing.setTargetDataSources(new LinkedHashMap<Object, Object>(shardDataSources.asMap()));
+        routing.setDefaultTargetDataSource(shardDataSources.get(properties.getDefaultShard()));
+        return routing;
+    }
+
+    /**
+     * Flyway only knows the routing datasource, which would migrate whichever shard the
+     * default tenant lives on; migrate each shard's own pool instead.
+     */
+    @Bean
+    public FlywayMigrationStrategy shardMigrationStrategy(ShardDataSources shardDataSources,
+                                                          TenantShardRegistry registry) {
+        return flyway -> {
+            shardDataSources.asMap().values().forEach(shard -> Flyway.configure()
+                    .configuration(flyway.getConfiguration())
+                    .dataSource(shard)
+                    .load()
+                    .migrate());
+            registry.refresh();
+        };
+    }
+
+    @Bean
+    public TenantRebalancer tenantRebalancer(TenantShardRegistry registry, ShardDataSources shardDataSources) {
+        return new TenantRebalancer(registry, shardDataSources);
+    }
+}
@@ -0,0 +1,31 @@
+package com.udemy.springboottest.tenant;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "employee.sharding")
+public class ShardingProperties {
+    private boolean enabled;
+    private String defaultShard = TenantShardRegistry.DEFAULT_SHARD;
+    private Map<String, Shard> shards = new LinkedHashMap<>();
+    /**
+     * Initial tenant to shard assignments; assignments made by the rebalancer take precedence.
+     */
+    private Map<String, String> tenants = new HashMap<>();
+    private long refreshIntervalMs = 30000;
+
+    @Data
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
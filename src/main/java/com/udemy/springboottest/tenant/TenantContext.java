@@ -0,0 +1,74 @@
+package com.udemy.springboottest.tenant;
+
+import java.util.function.Supplier;
+
+/**
+ * Holds the tenant of the current thread. Requests get it from {@link TenantFilter};
+ * background jobs set it explicitly. Jobs that work shard by shard instead of tenant by
+ * tenant pin a shard with {@link #callOnShard}, which takes precedence in shard routing.
+ */
+public final class TenantContext {
+
+    public static final String DEFAULT_TENANT = "default";
+
+    private static final ThreadLocal<String> TENANT = new ThreadLocal<>();
+
+    private static final ThreadLocal<String> SHARD = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    public static String getTenantId() {
+        String tenantId = TENANT.get();
+        return tenantId != null ? tenantId : DEFAULT_TENANT;
+    }
+
+    public static void setTenantId(String tenantId) {
+        TENANT.set(tenantId);
+    }
+
+    public static String getShardOverride() {
+        return SHARD.get();
+    }
+
+    public static void clear() {
+        TENANT.remove();
+        SHARD.remove();
+    }
+
+    public static <T> T callAs(String tenantId, Supplier<T> action) {
+        return callWith(TENANT, tenantId, action);
+    }
+
+    public static void runAs(String tenantId, Runnable action) {
+        callWith(TENANT, tenantId, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public static <T> T callOnShard(String shard, Supplier<T> action) {
+        return callWith(SHARD, shard, action);
+    }
+
+    public static void runOnShard(String shard, Runnable action) {
+        callWith(SHARD, shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private static <T> T callWith(ThreadLocal<String> holder, String value, Supplier<T> action) {
+        String previous = holder.get();
+        holder.set(value);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                holder.remove();
+            } else {
+                holder.set(previous);
+            }
+        }
+    }
+}
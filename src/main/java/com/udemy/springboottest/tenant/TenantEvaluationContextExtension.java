@@ -0,0 +1,22 @@
+package com.udemy.springboottest.tenant;
+
+import org.springframework.data.spel.spi.EvaluationContextExtension;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Exposes the current tenant to repository queries as {@code ?#{tenantId}} / {@code :#{tenantId}}.
+ */
+public class TenantEvaluationContextExtension implements EvaluationContextExtension {
+
+    @Override
+    public String getExtensionId() {
+        return "tenant";
+    }
+
+    @Override
+    public Map<String, Object> getProperties() {
+        return Collections.singletonMap("tenantId", TenantContext.getTenantId());
+    }
+}
@@ -0,0 +1,70 @@
+package com.udemy.springboottest.tenant;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.regex.Pattern;
+
+/**
+ * Binds the tenant named by the {@code X-Tenant-Id} header (or the default tenant) to the
+ * request thread. The application does not authenticate callers, so the header is only
+ * honoured from the gateway that does: the request must also carry {@code X-Gateway-Token}
+ * equal to {@code employee.tenant.gateway-token}, and without a configured token only the
+ * default tenant can be used. Writes of tenants that are being moved between shards are rejected by the
+ * {@link TenantWriteFence} in the database, which every instance sees. Runs before the filters
+ * that work per tenant, such as the idempotency filter, so they only see a checked tenant.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 25)
+public class TenantFilter extends OncePerRequestFilter {
+
+    public static final String TENANT_HEADER = "X-Tenant-Id";
+
+    public static final String GATEWAY_TOKEN_HEADER = "X-Gateway-Token";
+
+    private static final Pattern TENANT_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private final byte[] gatewayToken;
+
+    public TenantFilter(@Value("${employee.tenant.gateway-token:}") String gatewayToken) {
+        this.gatewayToken = gatewayToken.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String tenantId = request.getHeader(TENANT_HEADER);
+        if (tenantId == null) {
+            tenantId = TenantContext.DEFAULT_TENANT;
+        } else if (!fromGateway(request)) {
+            response.sendError(HttpStatus.FORBIDDEN.value(), TENANT_HEADER + " requires a valid " + GATEWAY_TOKEN_HEADER);
+            return;
+        } else if (!TENANT_ID.matcher(tenantId).matches()) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Invalid " + TENANT_HEADER);
+            return;
+        }
+        TenantContext.setTenantId(tenantId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    private boolean fromGateway(HttpServletRequest request) {
+        String token = request.getHeader(GATEWAY_TOKEN_HEADER);
+        return gatewayToken.length > 0 && token != null
+                && MessageDigest.isEqual(gatewayToken, token.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,11 @@
+package com.udemy.springboottest.tenant;
+
+import lombok.Value;
+
+@Value
+public class TenantMove {
+    String tenantId;
+    String fromShard;
+    String toShard;
+    long rows;
+}
@@ -0,0 +1,28 @@
+package com.udemy.springboottest.tenant;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code POST /actuator/tenantmoves} with {@code tenantId} and {@code shard} moves a tenant.
+ * Only created with {@code employee.sharding.moves-enabled=true}, and like every actuator
+ * endpoint it still has to be exposed, on the management port.
+ */
+@Component
+@Endpoint(id = "tenantmoves")
+@ConditionalOnProperty(prefix = "employee.sharding", name = {"enabled", "moves-enabled"}, havingValue = "true")
+public class TenantMovesEndpoint {
+
+    private final TenantRebalancer rebalancer;
+
+    public TenantMovesEndpoint(TenantRebalancer rebalancer) {
+        this.rebalancer = rebalancer;
+    }
+
+    @WriteOperation
+    public TenantMove move(String tenantId, String shard) {
+        return rebalancer.moveTenant(tenantId, shard);
+    }
+}
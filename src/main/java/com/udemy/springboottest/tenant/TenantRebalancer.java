@@ -0,0 +1,225 @@
+package com.udemy.springboottest.tenant;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Moves tenants between shards and proposes moves that even out shard sizes.
+ * <p>
+ * A move fences the tenant's writes on the source shard (see {@link TenantWriteFence}) and
+ * waits for the writes already committing there, then copies its employees (keeping their
+ * ids) and its {@code employee_changes} rows to the target shard in one transaction. A second
+ * transaction on the source compares the tenant's rows with the copy, switches the assignment
+ * and deletes them. The fence stays on the source, so instances that still route the tenant
+ * there until their next {@link TenantShardRegistry#refresh()} fail their writes instead of
+ * losing them. Ids are preserved, so shards must hand out disjoint employee id ranges; change
+ * ids are not, the copied changes get new ids on the target, in their original order.
+ */
+public class TenantRebalancer {
+
+    private static final Logger log = LoggerFactory.getLogger(TenantRebalancer.class);
+
+    static final String COLUMNS = "id, first_name, last_name, email, created_at, updated_at, deleted_at, tenant_id, version";
+
+    private static final String CHANGE_COLUMNS = "employee_id, type, payload, created_at, tenant_id";
+
+    private static final String CHANGES_LOCK = "select id from employee_changes_lock where id = 1 for update";
+
+    private static final String CHECKSUM = "select count(*), coalesce(sum(id), 0), coalesce(sum(version), 0) " +
+            "from employees where tenant_id = ?";
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final TenantShardRegistry registry;
+
+    private final ShardDataSources shards;
+
+    public TenantRebalancer(TenantShardRegistry registry, ShardDataSources shards) {
+        this.registry = registry;
+        this.shards = shards;
+    }
+
+    public TenantMove moveTenant(String tenantId, String targetShard) {
+        String sourceShard = registry.shardFor(tenantId);
+        DataSource target = shards.get(targetShard);
+        DataSource source = shards.get(sourceShard);
+        if (sourceShard.equals(targetShard)) {
+            return new TenantMove(tenantId, sourceShard, targetShard, 0);
+        }
+        JdbcTemplate sourceTemplate = new JdbcTemplate(source);
+        fence(sourceTemplate, tenantId);
+        boolean[] assigned = {false};
+        try {
+            // every write that committed before this lock is in the copy, every later one fails on the fence
+            inTransaction(source, () -> {
+                TenantWriteFence.awaitWriters(sourceTemplate, tenantId);
+                return null;
+            });
+            List<Long> copied = copy(sourceTemplate, target, tenantId);
+            inTransaction(source, () -> {
+                List<Long> current = checksum(sourceTemplate, tenantId);
+                if (!current.equals(copied)) {
+                    throw new IllegalStateException("Tenant " + tenantId + " changed on shard " + sourceShard +
+                            " while it was copied: " + current + " rows, id and version sums, copied " + copied);
+                }
+                registry.assign(tenantId, targetShard);
+                assigned[0] = true;
+                int deleted = sourceTemplate.update("delete from employees where tenant_id = ?", tenantId);
+                if (deleted != copied.get(0)) {
+                    throw new IllegalStateException("Deleted " + deleted + " of " + copied.get(0) + " rows of tenant " + tenantId);
+                }
+                sourceTemplate.update("delete from employee_changes where tenant_id = ?", tenantId);
+                return null;
+            });
+            log.info("Moved tenant {} ({} rows) from shard {} to {}", tenantId, copied.get(0), sourceShard, targetShard);
+            return new TenantMove(tenantId, sourceShard, targetShard, copied.get(0));
+        } catch (RuntimeException e) {
+            try {
+                abandon(tenantId, sourceTemplate, target, assigned[0], e);
+            } catch (RuntimeException cleanup) {
+                e.addSuppressed(cleanup);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Lifts the fence and drops the copy of a failed move, unless the tenant was already
+     * assigned to the target: then the target holds its rows and the source stays fenced.
+     */
+    private void abandon(String tenantId, JdbcTemplate source, DataSource target, boolean assigned, RuntimeException failure) {
+        registry.refresh();
+        String shard = registry.shardFor(tenantId);
+        if (!assigned || source.getDataSource() == shards.get(shard)) {
+            discardCopy(new JdbcTemplate(target), tenantId);
+            source.update("delete from tenant_write_fences where tenant_id = ?", tenantId);
+        } else {
+            log.error("Tenant {} is assigned to shard {}, but its rows could not be removed from the source shard",
+                    tenantId, shard, failure);
+        }
+    }
+
+    /**
+     * Greedy plan: repeatedly moves the largest tenant from the fullest shard to the emptiest
+     * one while that narrows the gap between them.
+     */
+    public List<TenantMove> plan() {
+        Map<String, Long> shardSizes = new HashMap<>();
+        Map<String, Map<String, Long>> tenantSizes = new HashMap<>();
+        for (String shard : registry.shardNames()) {
+            Map<String, Long> tenants = new HashMap<>();
+            new JdbcTemplate(shards.get(shard)).query("select tenant_id, count(*) from employees group by tenant_id",
+                    resultSet -> {
+                        tenants.put(resultSet.getString(1), resultSet.getLong(2));
+                    });
+            tenantSizes.put(shard, tenants);
+            shardSizes.put(shard, tenants.values().stream().mapToLong(Long::longValue).sum());
+        }
+        List<TenantMove> moves = new ArrayList<>();
+        for (int i = 0; i < registry.shardNames().size() * 10; i++) {
+            String fullest = shardSizes.entrySet().stream().max(Map.Entry.comparingByValue()).get().getKey();
+            String emptiest = shardSizes.entrySet().stream().min(Map.Entry.comparingByValue()).get().getKey();
+            long gap = shardSizes.get(fullest) - shardSizes.get(emptiest);
+            Map.Entry<String, Long> candidate = tenantSizes.get(fullest).entrySet().stream()
+                    .filter(tenant -> tenant.getValue() < gap)
+                    .max(Comparator.comparing(Map.Entry::getValue))
+                    .orElse(null);
+            if (candidate == null) {
+                break;
+            }
+            tenantSizes.get(fullest).remove(candidate.getKey());
+            tenantSizes.get(emptiest).put(candidate.getKey(), candidate.getValue());
+            shardSizes.put(fullest, shardSizes.get(fullest) - candidate.getValue());
+            shardSizes.put(emptiest, shardSizes.get(emptiest) + candidate.getValue());
+            moves.add(new TenantMove(candidate.getKey(), fullest, emptiest, candidate.getValue()));
+        }
+        return moves;
+    }
+
+    private static void fence(JdbcTemplate source, String tenantId) {
+        try {
+            source.update("insert into tenant_write_fences (tenant_id, fenced_at) values (?, ?)",
+                    tenantId, Timestamp.from(Instant.now()));
+        } catch (DuplicateKeyException e) {
+            throw new IllegalStateException("Tenant " + tenantId + " is already being moved; if no move is running, " +
+                    "delete its row from tenant_write_fences", e);
+        }
+    }
+
+    /**
+     * Copies the tenant's employees and changes in one transaction on the target and returns
+     * the {@link #CHECKSUM} of the copied rows.
+     */
+    private List<Long> copy(JdbcTemplate source, DataSource target, String tenantId) {
+        JdbcTemplate targetTemplate = new JdbcTemplate(target);
+        return inTransaction(target, () -> {
+            discardCopy(targetTemplate, tenantId);
+            copyRows(source, targetTemplate, "select " + COLUMNS + " from employees where tenant_id = ? order by id",
+                    "insert into employees (" + COLUMNS + ") values (?, ?, ?, ?, ?, ?, ?, ?, ?)", tenantId);
+            // the target's changes are numbered in commit order under its lock, like the outbox does
+            targetTemplate.queryForObject(CHANGES_LOCK, Integer.class);
+            copyRows(source, targetTemplate, "select " + CHANGE_COLUMNS + " from employee_changes where tenant_id = ? order by id",
+                    "insert into employee_changes (" + CHANGE_COLUMNS + ") values (?, ?, ?, ?, ?)", tenantId);
+            return checksum(targetTemplate, tenantId);
+        });
+    }
+
+    private static void discardCopy(JdbcTemplate target, String tenantId) {
+        target.update("delete from tenant_write_fences where tenant_id = ?", tenantId);
+        target.update("delete from employees where tenant_id = ?", tenantId);
+        target.update("delete from employee_changes where tenant_id = ?", tenantId);
+    }
+
+    private static void copyRows(JdbcTemplate source, JdbcTemplate target, String select, String insert, String tenantId) {
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        source.query(select, resultSet -> {
+            batch.add(readRow(resultSet));
+            if (batch.size() == BATCH_SIZE) {
+                insert(target, insert, batch);
+            }
+        }, tenantId);
+        insert(target, insert, batch);
+    }
+
+    private static <T> T inTransaction(DataSource dataSource, Supplier<T> work) {
+        return new TransactionTemplate(new DataSourceTransactionManager(dataSource)).execute(status -> work.get());
+    }
+
+    private static Object[] readRow(ResultSet resultSet) throws SQLException {
+        Object[] row = new Object[resultSet.getMetaData().getColumnCount()];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = resultSet.getObject(i + 1);
+        }
+        return row;
+    }
+
+    private static void insert(JdbcTemplate target, String insert, List<Object[]> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        target.batchUpdate(insert, batch);
+        batch.clear();
+    }
+
+    private static List<Long> checksum(JdbcTemplate jdbcTemplate, String tenantId) {
+        return jdbcTemplate.queryForObject(CHECKSUM, (resultSet, row) ->
+                Arrays.asList(resultSet.getLong(1), resultSet.getLong(2), resultSet.getLong(3)), tenantId);
+    }
+}
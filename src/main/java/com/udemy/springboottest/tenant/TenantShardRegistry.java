@@ -0,0 +1,102 @@
+package com.udemy.springboottest.tenant;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Knows which shard holds each tenant. Assignments made at runtime are stored in the
+ * {@code tenant_shards} catalog table on the default shard and re-read periodically, so
+ * every instance converges on the same routing. Without sharding there is a single
+ * {@value #DEFAULT_SHARD} shard.
+ */
+@Component
+public class TenantShardRegistry {
+
+    public static final String DEFAULT_SHARD = "default";
+
+    private final ShardingProperties properties;
+
+    private volatile Map<String, String> assignments = Collections.emptyMap();
+
+    private volatile JdbcTemplate catalog;
+
+    public TenantShardRegistry(ShardingProperties properties) {
+        this.properties = properties;
+    }
+
+    public boolean isSharded() {
+        return properties.isEnabled();
+    }
+
+    public List<String> shardNames() {
+        if (!isSharded()) {
+            return Collections.singletonList(DEFAULT_SHARD);
+        }
+        return new ArrayList<>(properties.getShards().keySet());
+    }
+
+    public String defaultShard() {
+        return isSharded() ? properties.getDefaultShard() : DEFAULT_SHARD;
+    }
+
+    public String shardFor(String tenantId) {
+        String shard = assignments.get(tenantId);
+        if (shard == null) {
+            shard = properties.getTenants().get(tenantId);
+        }
+        return shard != null ? shard : defaultShard();
+    }
+
+    public Map<String, String> assignments() {
+        Map<String, String> all = new HashMap<>(properties.getTenants());
+        all.putAll(assignments);
+        return all;
+    }
+
+    /**
+     * Stores runtime assignments in {@code catalog}, normally the default shard. The
+     * {@code tenant_shards} table comes from the schema migrations; assignments are first read
+     * by the next {@link #refresh()}, once the migrations have run.
+     */
+    public void useCatalog(DataSource catalog) {
+        this.catalog = new JdbcTemplate(catalog);
+    }
+
+    @Scheduled(fixedDelayString = "${employee.sharding.refresh-interval-ms:30000}")
+    public void refresh() {
+        JdbcTemplate jdbcTemplate = catalog;
+        if (jdbcTemplate == null) {
+            return;
+        }
+        Map<String, String> loaded = new HashMap<>();
+        jdbcTemplate.query("select tenant_id, shard from tenant_shards",
+                resultSet -> {
+                    loaded.put(resultSet.getString(1), resultSet.getString(2));
+                });
+        assignments = loaded;
+    }
+
+    public synchronized void assign(String tenantId, String shard) {
+        if (!shardNames().contains(shard)) {
+            throw new IllegalArgumentException("Unknown shard: " + shard);
+        }
+        JdbcTemplate jdbcTemplate = catalog;
+        if (jdbcTemplate == null) {
+            throw new IllegalStateException("Tenant assignments require sharding to be enabled");
+        }
+        if (jdbcTemplate.update("update tenant_shards set shard = ? where tenant_id = ?", shard, tenantId) == 0) {
+            jdbcTemplate.update("insert into tenant_shards (tenant_id, shard) values (?, ?)", tenantId, shard);
+        }
+        Map<String, String> updated = new HashMap<>(assignments);
+        updated.put(tenantId, shard);
+        assignments = updated;
+    }
+}
@@ -0,0 +1,37 @@
+package com.udemy.springboottest.tenant;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Rebalancing tool: {@code GET /actuator/tenantshards} shows assignments and a proposed plan.
+ * Moves are a separate endpoint, {@link TenantMovesEndpoint}, that is off unless enabled.
+ */
+@Component
+@Endpoint(id = "tenantshards")
+@ConditionalOnProperty(prefix = "employee.sharding", name = "enabled", havingValue = "true")
+public class TenantShardsEndpoint {
+
+    private final TenantShardRegistry registry;
+
+    private final TenantRebalancer rebalancer;
+
+    public TenantShardsEndpoint(TenantShardRegistry registry, TenantRebalancer rebalancer) {
+        this.registry = registry;
+        this.rebalancer = rebalancer;
+    }
+
+    @ReadOperation
+    public Map<String, Object> shards() {
+        Map<String, Object> shards = new LinkedHashMap<>();
+        shards.put("shards", registry.shardNames());
+        shards.put("assignments", registry.assignments());
+        shards.put("plan", rebalancer.plan());
+        return shards;
+    }
+}
@@ -0,0 +1,84 @@
+package com.udemy.springboottest.tenant;
+
+import com.udemy.springboottest.exception.TenantMovingException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Write side of a tenant move. {@link TenantRebalancer} fences the tenant on its source shard
+ * with a row in {@code tenant_write_fences}, and every transaction that writes employees calls
+ * {@link #enter(String)} right before it commits. The check runs under a lock on the tenant
+ * that the writer holds until it commits and that the rebalancer takes once after fencing (see
+ * {@link #awaitWriters}): when the rebalancer gets it, every earlier writer of the tenant has
+ * committed and every later one sees the fence.
+ * <p>
+ * On PostgreSQL that is a transaction-level advisory lock per tenant, taken shared by writers
+ * and exclusively by the rebalancer, so writers only ever wait for a move of their own tenant.
+ * Other databases have no advisory locks and fall back to the shard's
+ * {@code employee_changes_lock} row lock, which serializes the shard's writers.
+ */
+@Component
+public class TenantWriteFence {
+
+    static final String LOCK = "select id from employee_changes_lock where id = 1 for update";
+
+    private static final String SHARED_TENANT_LOCK =
+            "select 1 from pg_advisory_xact_lock_shared(hashtext('tenant_write_fences'), hashtext(?))";
+
+    private static final String EXCLUSIVE_TENANT_LOCK =
+            "select 1 from pg_advisory_xact_lock(hashtext('tenant_write_fences'), hashtext(?))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TenantShardRegistry registry;
+
+    private final boolean tenantLocks;
+
+    public TenantWriteFence(JdbcTemplate jdbcTemplate, TenantShardRegistry registry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.registry = registry;
+        this.tenantLocks = isPostgres(jdbcTemplate);
+    }
+
+    /**
+     * Takes the tenant's write lock for the rest of the current transaction and fails with
+     * {@link TenantMovingException} if {@code tenantId} is fenced on the shard. Does nothing
+     * when sharding is off, as no tenant can be moved then.
+     */
+    public void enter(String tenantId) {
+        if (!registry.isSharded()) {
+            return;
+        }
+        if (tenantLocks) {
+            jdbcTemplate.queryForObject(SHARED_TENANT_LOCK, Integer.class, tenantId);
+        } else {
+            jdbcTemplate.queryForObject(LOCK, Integer.class);
+        }
+        if (isFenced(jdbcTemplate, tenantId)) {
+            throw new TenantMovingException(tenantId);
+        }
+    }
+
+    /**
+     * Waits, within the current transaction on {@code shard}, until every writer of
+     * {@code tenantId} that entered before the fence has committed or rolled back.
+     */
+    static void awaitWriters(JdbcTemplate shard, String tenantId) {
+        if (isPostgres(shard)) {
+            shard.queryForObject(EXCLUSIVE_TENANT_LOCK, Integer.class, tenantId);
+        } else {
+            shard.queryForObject(LOCK, Integer.class);
+        }
+    }
+
+    static boolean isFenced(JdbcTemplate shard, String tenantId) {
+        Long fences = shard.queryForObject("select count(*) from tenant_write_fences where tenant_id = ?", Long.class, tenantId);
+        return fences != null && fences > 0;
+    }
+
+    private static boolean isPostgres(JdbcTemplate jdbcTemplate) {
+        return "PostgreSQL".equals(jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName()));
+    }
+}
@@ -0,0 +1,77 @@
+package com.udemy.springboottest.throttle;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * One {@link TokenBucket} per client, for at most {@code maxClients} clients. Buckets of idle
+ * clients are full again and carry no state worth keeping, so they are dropped when the limit
+ * is reached, at most once per refill period. New clients that still do not fit share a single
+ * overflow bucket until idle buckets free up room, so the memory used stays bounded however
+ * many addresses send requests.
+ */
+public class ClientRateLimiter {
+
+    private final double capacity;
+
+    private final double refillPerSecond;
+
+    private final int maxClients;
+
+    private final LongSupplier clock;
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    private final TokenBucket overflow;
+
+    private final long sweepIntervalNanos;
+
+    private final AtomicLong nextSweep;
+
+    public ClientRateLimiter(double capacity, double refillPerSecond, int maxClients) {
+        this(capacity, refillPerSecond, maxClients, System::nanoTime);
+    }
+
+    ClientRateLimiter(double capacity, double refillPerSecond, int maxClients, LongSupplier clock) {
+        this.capacity = capacity;
+        this.refillPerSecond = refillPerSecond;
+        this.maxClients = maxClients;
+        this.clock = clock;
+        long now = clock.getAsLong();
+        this.overflow = new TokenBucket(capacity, refillPerSecond, now);
+        // no bucket can go from empty to full in less time than this
+        this.sweepIntervalNanos = (long) (capacity / refillPerSecond * 1_000_000_000L);
+        this.nextSweep = new AtomicLong(now);
+    }
+
+    /**
+     * @return 0 if the request of {@code clientId} may proceed, otherwise the nanoseconds
+     * until it would be allowed
+     */
+    public long tryAcquire(String clientId) {
+        long now = clock.getAsLong();
+        TokenBucket bucket = buckets.get(clientId);
+        if (bucket == null) {
+            if (buckets.size() >= maxClients) {
+                sweep(now);
+            }
+            bucket = buckets.size() < maxClients
+                    ? buckets.computeIfAbsent(clientId, id -> new TokenBucket(capacity, refillPerSecond, now))
+                    : overflow;
+        }
+        return bucket.tryConsume(now);
+    }
+
+    public int trackedClients() {
+        return buckets.size();
+    }
+
+    private void sweep(long now) {
+        long due = nextSweep.get();
+        if (now - due >= 0 && nextSweep.compareAndSet(due, now + sweepIntervalNanos)) {
+            buckets.values().removeIf(idle -> idle.isFull(now));
+        }
+    }
+}
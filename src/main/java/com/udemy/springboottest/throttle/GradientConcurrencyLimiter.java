@@ -0,0 +1,109 @@
+package com.udemy.springboottest.throttle;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive limit on concurrent requests in the style of Netflix's Gradient2 limiter. The
+ * limit follows the ratio between the long-term and the recent request latency: while
+ * latency stays near its baseline the limit grows by roughly its square root per sample,
+ * and once requests start queuing somewhere (connection pool, database) and latency rises,
+ * the limit shrinks until the queue drains. Requests over the limit are refused at once
+ * instead of joining that queue.
+ */
+public class GradientConcurrencyLimiter {
+
+    private static final int LONG_WINDOW = 600;
+
+    private static final int SHORT_WINDOW = 10;
+
+    private static final double RTT_TOLERANCE = 1.5;
+
+    private static final double SMOOTHING = 0.2;
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+
+    private double longRttNanos;
+
+    private double shortRttNanos;
+
+    public GradientConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a slot of a request that completed normally after {@code rttNanos}.
+     */
+    public void onSuccess(long rttNanos) {
+        int concurrent = inFlight.getAndDecrement();
+        onSample(rttNanos, concurrent);
+    }
+
+    /**
+     * Releases a slot of a request that failed because something downstream was overloaded.
+     */
+    public void onDropped() {
+        inFlight.decrementAndGet();
+        synchronized (this) {
+            limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+        }
+    }
+
+    /**
+     * Releases a slot without learning from the request, e.g. one that failed for unrelated
+     * reasons or handed its work to another thread.
+     */
+    public void onIgnore() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    synchronized void onSample(long rttNanos, int concurrent) {
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+            shortRttNanos = rttNanos;
+        } else {
+            longRttNanos += (rttNanos - longRttNanos) / LONG_WINDOW;
+            shortRttNanos += (rttNanos - shortRttNanos) / SHORT_WINDOW;
+        }
+        if (longRttNanos > 2 * shortRttNanos) {
+            // latency recovered after a long overload: let the baseline catch up quickly
+            longRttNanos *= 0.95;
+        }
+        if (concurrent < limit / 2) {
+            // the limit was not what held this request back, so its latency says nothing about it
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * longRttNanos / shortRttNanos));
+        double target = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + target * SMOOTHING));
+    }
+}
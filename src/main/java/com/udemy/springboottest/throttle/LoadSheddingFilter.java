@@ -0,0 +1,137 @@
+package com.udemy.springboottest.throttle;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sheds load in front of the employee API before it reaches the connection pool: clients
+ * over their token-bucket rate get 429, and requests beyond the adaptive concurrency limit
+ * get 503, both with {@code Retry-After} and without waiting for a slot.
+ * <p>
+ * A client is the value of the {@code employee.rate-limit.client-header} header when one is
+ * configured and present, otherwise its address. Behind a proxy the address is the one the
+ * proxy forwarded, with {@code server.forward-headers-strategy=native}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(prefix = "employee.load-shedding", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class LoadSheddingFilter extends OncePerRequestFilter implements MeterBinder {
+
+    private static final String API_PATH = "/api/employees";
+
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    private final ClientRateLimiter rateLimiter;
+
+    private final String clientHeader;
+
+    private final GradientConcurrencyLimiter concurrencyLimiter;
+
+    private final AtomicLong rateLimited = new AtomicLong();
+
+    private final AtomicLong shed = new AtomicLong();
+
+    public LoadSheddingFilter(@Value("${employee.rate-limit.capacity:100}") double capacity,
+                              @Value("${employee.rate-limit.refill-per-second:50}") double refillPerSecond,
+                              @Value("${employee.rate-limit.max-clients:10000}") int maxClients,
+                              @Value("${employee.concurrency-limit.initial:20}") int initialLimit,
+                              @Value("${employee.concurrency-limit.min:5}") int minLimit,
+                              @Value("${employee.concurrency-limit.max:200}") int maxLimit,
+                              @Value("${employee.rate-limit.client-header:}") String clientHeader) {
+        this(new ClientRateLimiter(capacity, refillPerSecond, maxClients),
+                new GradientConcurrencyLimiter(initialLimit, minLimit, maxLimit), clientHeader);
+    }
+
+    LoadSheddingFilter(ClientRateLimiter rateLimiter, GradientConcurrencyLimiter concurrencyLimiter, String clientHeader) {
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.clientHeader = clientHeader;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !urlPathHelper.getPathWithinApplication(request).startsWith(API_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long waitNanos = rateLimiter.tryAcquire(clientId(request));
+        if (waitNanos > 0) {
+            rateLimited.incrementAndGet();
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, waitNanos, "Rate limit exceeded");
+            return;
+        }
+        if (!concurrencyLimiter.tryAcquire()) {
+            shed.incrementAndGet();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, TimeUnit.SECONDS.toNanos(1), "Server is busy, retry later");
+            return;
+        }
+        long start = System.nanoTime();
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = true;
+        } finally {
+            if (!completed || request.isAsyncStarted()) {
+                concurrencyLimiter.onIgnore();
+            } else if (response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value()) {
+                concurrencyLimiter.onDropped();
+            } else {
+                concurrencyLimiter.onSuccess(System.nanoTime() - start);
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("employee.concurrency.limit", concurrencyLimiter, GradientConcurrencyLimiter::getLimit)
+                .description("Current adaptive limit on concurrent employee API requests")
+                .register(registry);
+        Gauge.builder("employee.concurrency.in-flight", concurrencyLimiter, GradientConcurrencyLimiter::getInFlight)
+                .description("Employee API requests currently being served")
+                .register(registry);
+        Gauge.builder("employee.rate-limit.clients", rateLimiter, ClientRateLimiter::trackedClients)
+                .description("Clients with a rate limit bucket")
+                .register(registry);
+        FunctionCounter.builder("employee.requests.rejected", rateLimited, AtomicLong::get)
+                .tag("reason", "rate-limit")
+                .description("Employee API requests rejected without being served")
+                .register(registry);
+        FunctionCounter.builder("employee.requests.rejected", shed, AtomicLong::get)
+                .tag("reason", "concurrency-limit")
+                .description("Employee API requests rejected without being served")
+                .register(registry);
+    }
+
+    private String clientId(HttpServletRequest request) {
+        String clientId = clientHeader.isEmpty() ? null : request.getHeader(clientHeader);
+        return clientId != null && !clientId.isEmpty() ? clientId : request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterNanos, String message)
+            throws IOException {
+        long seconds = Math.max(1, (retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+        response.sendError(status.value(), message);
+    }
+}
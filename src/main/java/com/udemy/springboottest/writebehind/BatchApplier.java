@@ -0,0 +1,20 @@
+package com.udemy.springboottest.writebehind;
+
+import java.util.List;
+
+/**
+ * Applies journaled writes to the database. Implementations must apply a batch and
+ * advance {@link #lastAppliedSeq()} atomically, so a batch interrupted half way is
+ * replayed in full and never partially.
+ */
+public interface BatchApplier {
+    long lastAppliedSeq();
+
+    void apply(List<JournalEntry> batch);
+
+    /**
+     * Sets aside an entry that cannot be applied and advances {@link #lastAppliedSeq()} past
+     * it, atomically like {@link #apply}.
+     */
+    void deadLetter(JournalEntry entry, Throwable failure);
+}
@@ -0,0 +1,15 @@
+package com.udemy.springboottest.writebehind;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString(exclude = "payload")
+@AllArgsConstructor
+public class JournalEntry {
+    private final long seq;
+    private final WriteOperation operation;
+    private final byte[] payload;
+    private final long appendedAtMillis;
+}
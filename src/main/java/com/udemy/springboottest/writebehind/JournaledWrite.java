@@ -0,0 +1,18 @@
+package com.udemy.springboottest.writebehind;
+
+import com.udemy.springboottest.model.Employee;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Journal payload: the employee plus the tenant it was written for, which is not part of
+ * the employee's JSON representation.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JournaledWrite {
+    private String tenantId;
+    private Employee employee;
+}
@@ -0,0 +1,111 @@
+package com.udemy.springboottest.writebehind;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.udemy.springboottest.model.Employee;
+import com.udemy.springboottest.model.WriteBehindCheckpoint;
+import com.udemy.springboottest.repository.EmployeeRepository;
+import com.udemy.springboottest.repository.WriteBehindCheckpointRepository;
+import com.udemy.springboottest.service.EmployeeService;
+import com.udemy.springboottest.tenant.TenantContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Applies a batch of journaled writes through {@link EmployeeService} and records the last
+ * applied sequence in the same transaction, which is what makes replay exactly-once.
+ */
+@Component
+@ConditionalOnProperty(prefix = "employee.write-behind", name = "enabled", havingValue = "true")
+public class JpaBatchApplier implements BatchApplier {
+
+    private static final Logger log = LoggerFactory.getLogger(JpaBatchApplier.class);
+
+    static final String JOURNAL = "employees";
+
+    private static final int MAX_ERROR_LENGTH = 2048;
+
+    private EmployeeService employeeService;
+
+    private EmployeeRepository employeeRepository;
+
+    private WriteBehindCheckpointRepository checkpointRepository;
+
+    private ObjectMapper objectMapper;
+
+    private JdbcTemplate jdbcTemplate;
+
+    public JpaBatchApplier(@Qualifier("employeeServiceImpl") EmployeeService employeeService,
+                           EmployeeRepository employeeRepository,
+                           WriteBehindCheckpointRepository checkpointRepository,
+                           ObjectMapper objectMapper,
+                           JdbcTemplate jdbcTemplate) {
+        this.employeeService = employeeService;
+        this.employeeRepository = employeeRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public long lastAppliedSeq() {
+        return checkpointRepository.findById(JOURNAL)
+                .map(WriteBehindCheckpoint::getLastSeq)
+                .orElse(0L);
+    }
+
+    @Override
+    @Transactional
+    public void apply(List<JournalEntry> batch) {
+        for (JournalEntry entry : batch) {
+            JournaledWrite write = read(entry);
+            TenantContext.runAs(write.getTenantId(), () -> apply(entry, write.getEmployee()));
+        }
+        checkpointRepository.save(new WriteBehindCheckpoint(JOURNAL, batch.get(batch.size() - 1).getSeq()));
+    }
+
+    @Override
+    @Transactional
+    public void deadLetter(JournalEntry entry, Throwable failure) {
+        String error = String.valueOf(failure);
+        jdbcTemplate.update("insert into write_behind_dead_letters (journal, seq, operation, payload, error, failed_at) " +
+                        "values (?, ?, ?, ?, ?, ?)", JOURNAL, entry.getSeq(), entry.getOperation().name(), entry.getPayload(),
+                error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error, Timestamp.from(Instant.now()));
+        checkpointRepository.save(new WriteBehindCheckpoint(JOURNAL, entry.getSeq()));
+    }
+
+    private void apply(JournalEntry entry, Employee employee) {
+        if (entry.getOperation() == WriteOperation.UPDATE) {
+            // Journaled writes are last-writer-wins and do not carry the row version
+            Employee current = employeeRepository.findById(employee.getId()).orElse(null);
+            if (current == null) {
+                log.warn("Dropping journaled update {}: employee {} no longer exists", entry.getSeq(), employee.getId());
+                return;
+            }
+            employee.setVersion(current.getVersion());
+            employeeService.updateEmployee(employee);
+        } else if (employeeRepository.findByEmail(employee.getEmail()).isPresent()) {
+            log.warn("Dropping journaled create {}: email {} already exists", entry.getSeq(), employee.getEmail());
+        } else {
+            employeeService.saveEmployee(employee);
+        }
+    }
+
+    private JournaledWrite read(JournalEntry entry) {
+        try {
+            return objectMapper.readValue(entry.getPayload(), JournaledWrite.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unreadable journal entry " + entry.getSeq(), e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.udemy.springboottest.writebehind;
+
+import com.udemy.springboottest.tenant.TenantShardRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+@Configuration
+@ConditionalOnProperty(prefix = "employee.write-behind", name = "enabled", havingValue = "true")
+public class WriteBehindConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public WriteJournal employeeWriteJournal(
+            @Value("${employee.write-behind.journal-path:data/employee-writes.journal}") String path,
+            @Value("${employee.write-behind.journal-size:67108864}") int size,
+            TenantShardRegistry tenantShardRegistry) throws IOException {
+        if (tenantShardRegistry.isSharded()) {
+            // the journal checkpoint commits atomically with the batch, which needs a single database
+            throw new IllegalStateException("Write-behind mode cannot be combined with employee.sharding.enabled");
+        }
+        return WriteJournal.open(Paths.get(path), size);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public WriteBehindWriter employeeWriteBehindWriter(WriteJournal employeeWriteJournal,
+            BatchApplier batchApplier,
+            @Value("${employee.write-behind.batch-size:500}") int batchSize,
+            @Value("${employee.write-behind.flush-interval-ms:50}") long flushIntervalMillis) {
+        return new WriteBehindWriter(employeeWriteJournal, batchApplier, batchSize, flushIntervalMillis);
+    }
+}
@@ -0,0 +1,92 @@
+package com.udemy.springboottest.writebehind;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.udemy.springboottest.model.Employee;
+import com.udemy.springboottest.service.EmployeeService;
+import com.udemy.springboottest.tenant.TenantContext;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Opt-in {@link EmployeeService} that acknowledges creates and updates as soon as they are
+ * journaled. Ids of created employees and duplicate email checks are only resolved when the
+ * background writer flushes the entry. Reads and deletes go straight to the database.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(prefix = "employee.write-behind", name = "enabled", havingValue = "true")
+public class WriteBehindEmployeeService implements EmployeeService {
+
+    private EmployeeService employeeService;
+
+    private WriteBehindWriter writer;
+
+    private ObjectMapper objectMapper;
+
+    public WriteBehindEmployeeService(@Qualifier("employeeServiceImpl") EmployeeService employeeService,
+                                      WriteBehindWriter writer,
+                                      ObjectMapper objectMapper) {
+        this.employeeService = employeeService;
+        this.writer = writer;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Employee saveEmployee(Employee employee) {
+        writer.submit(WriteOperation.CREATE, write(employee));
+        return employee;
+    }
+
+    @Override
+    public List<Employee> getAllEmployees() {
+        return employeeService.getAllEmployees();
+    }
+
+    @Override
+    public List<Map<String, Object>> getAllEmployees(Set<String> fields) {
+        return employeeService.getAllEmployees(fields);
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeById(Long id) {
+        return employeeService.getEmployeeById(id);
+    }
+
+    @Override
+    public Optional<Map<String, Object>> getEmployeeById(Long id, Set<String> fields) {
+        return employeeService.getEmployeeById(id, fields);
+    }
+
+    @Override
+    public List<Employee> getEmployeesModifiedSince(Instant since, Long afterId, int limit) {
+        return employeeService.getEmployeesModifiedSince(since, afterId, limit);
+    }
+
+    @Override
+    public Employee updateEmployee(Employee employee) {
+        writer.submit(WriteOperation.UPDATE, write(employee));
+        return employee;
+    }
+
+    @Override
+    public void deleteEmployee(Long id) {
+        employeeService.deleteEmployee(id);
+    }
+
+    private byte[] write(Employee employee) {
+        try {
+            return objectMapper.writeValueAsBytes(new JournaledWrite(TenantContext.getTenantId(), employee));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Employee cannot be journaled", e);
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.udemy.springboottest.writebehind;
+
+import com.udemy.springboottest.exception.DatabaseUnavailableException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.io.Closeable;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Acknowledges writes once they are in the {@link WriteJournal} and flushes them to the
+ * database from a single background thread in batches. Entries stay queued until their
+ * batch is applied, so a crashed process replays them on restart. A batch that fails because
+ * the database is unavailable is retried as a whole; any other failure is narrowed down by
+ * bisecting the batch, and the entries that still fail on their own are dead-lettered so the
+ * entries behind them keep flowing. If the writer thread dies, submits are refused and the
+ * health indicator reports DOWN rather than acknowledging writes nobody will apply.
+ */
+public class WriteBehindWriter implements MeterBinder, HealthIndicator, Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindWriter.class);
+
+    private static final long SUBMIT_TIMEOUT_MILLIS = 10_000;
+
+    private final WriteJournal journal;
+
+    private final BatchApplier applier;
+
+    private final int batchSize;
+
+    private final long flushIntervalMillis;
+
+    private final Deque<JournalEntry> pending = new ArrayDeque<>();
+
+    private final Object lock = new Object();
+
+    private final AtomicLong deadLettered = new AtomicLong();
+
+    private volatile boolean running;
+
+    private volatile Throwable failure;
+
+    private Thread thread;
+
+    public WriteBehindWriter(WriteJournal journal, BatchApplier applier, int batchSize, long flushIntervalMillis) {
+        this.journal = journal;
+        this.applier = applier;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        long appliedSeq = applier.lastAppliedSeq();
+        journal.advanceSequence(appliedSeq);
+        for (JournalEntry entry : journal.recoveredEntries()) {
+            if (entry.getSeq() > appliedSeq) {
+                pending.addLast(entry);
+            }
+        }
+        if (!pending.isEmpty()) {
+            log.info("Replaying {} journaled employee writes", pending.size());
+        }
+    }
+
+    public void start() {
+        running = true;
+        thread = new Thread(this::run, "employee-write-behind");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public JournalEntry submit(WriteOperation operation, byte[] payload) {
+        if (!journal.fits(payload.length)) {
+            throw new IllegalArgumentException("Write of " + payload.length + " bytes exceeds the journal capacity");
+        }
+        long deadline = System.currentTimeMillis() + SUBMIT_TIMEOUT_MILLIS;
+        synchronized (lock) {
+            checkAlive();
+            while (!journal.hasRoom(payload.length)) {
+                if (pending.isEmpty()) {
+                    journal.reset();
+                    continue;
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    throw new IllegalStateException("Write-behind journal is full");
+                }
+                try {
+                    lock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for journal space", e);
+                }
+                checkAlive();
+            }
+            JournalEntry entry = journal.append(operation, payload);
+            pending.addLast(entry);
+            lock.notifyAll();
+            return entry;
+        }
+    }
+
+    public int queueDepth() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Age of the oldest write that has been acknowledged but not yet applied.
+     */
+    public long flushLagMillis() {
+        synchronized (lock) {
+            JournalEntry oldest = pending.peekFirst();
+            return oldest == null ? 0 : System.currentTimeMillis() - oldest.getAppendedAtMillis();
+        }
+    }
+
+    public long deadLetteredCount() {
+        return deadLettered.get();
+    }
+
+    public boolean awaitDrained(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (lock) {
+            while (!pending.isEmpty() && failure == null) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                lock.wait(remaining);
+            }
+            return pending.isEmpty();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("employee.write-behind.queue.depth", this, WriteBehindWriter::queueDepth)
+                .description("Acknowledged employee writes waiting to be flushed")
+                .register(registry);
+        TimeGauge.builder("employee.write-behind.flush.lag", this, TimeUnit.MILLISECONDS, WriteBehindWriter::flushLagMillis)
+                .description("Age of the oldest unflushed employee write")
+                .register(registry);
+        FunctionCounter.builder("employee.write-behind.dead-letters", this, WriteBehindWriter::deadLetteredCount)
+                .description("Journaled employee writes set aside after failing with a non-retryable error")
+                .register(registry);
+    }
+
+    @Override
+    public Health health() {
+        Throwable cause = failure;
+        Health.Builder health = cause == null ? Health.up() : Health.down(cause);
+        return health.withDetail("queueDepth", queueDepth())
+                .withDetail("deadLetters", deadLetteredCount())
+                .build();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                List<JournalEntry> batch;
+                try {
+                    batch = nextBatch();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                try {
+                    applyIsolatingFailures(batch);
+                } catch (RuntimeException e) {
+                    log.warn("Flushing {} employee writes failed, retrying", batch.size(), e);
+                    try {
+                        Thread.sleep(flushIntervalMillis);
+                    } catch (InterruptedException interrupted) {
+                        return;
+                    }
+                }
+            }
+        } catch (Throwable e) {
+            log.error("Write-behind writer stopped with {} employee writes pending; further writes are refused",
+                    queueDepth(), e);
+            synchronized (lock) {
+                failure = e;
+                running = false;
+                lock.notifyAll();
+            }
+            if (e instanceof Error) {
+                throw (Error) e;
+            }
+        }
+    }
+
+    /**
+     * Applies {@code batch}, splitting it in halves on non-retryable failures until the entries
+     * that fail on their own are found and dead-lettered. Applied prefixes are completed right
+     * away, so a retryable failure part way through only retries what is left.
+     */
+    private void applyIsolatingFailures(List<JournalEntry> batch) {
+        try {
+            applier.apply(batch);
+        } catch (RuntimeException e) {
+            if (isRetryable(e)) {
+                throw e;
+            }
+            if (batch.size() > 1) {
+                int half = batch.size() / 2;
+                applyIsolatingFailures(batch.subList(0, half));
+                applyIsolatingFailures(batch.subList(half, batch.size()));
+                return;
+            }
+            JournalEntry entry = batch.get(0);
+            applier.deadLetter(entry, e);
+            deadLettered.incrementAndGet();
+            log.error("Dead-lettered journaled employee write {} ({})", entry.getSeq(), entry.getOperation(), e);
+        }
+        completed(batch.size());
+    }
+
+    /**
+     * Whether the failure says nothing about the entries themselves: the database was unreachable
+     * or slow, or the batch lost a deadlock, a lock wait or an optimistic race, and the same
+     * batch may succeed when tried again.
+     */
+    static boolean isRetryable(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConcurrencyFailureException
+                    || cause instanceof SQLException && isTransientState(((SQLException) cause).getSQLState())
+                    || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof TransientDataAccessResourceException
+                    || cause instanceof QueryTimeoutException
+                    || cause instanceof RecoverableDataAccessException
+                    || cause instanceof CannotCreateTransactionException
+                    || cause instanceof DatabaseUnavailableException
+                    || cause instanceof SQLTransientException
+                    || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * SQLSTATE class 40 (transaction rollback: serialization failure, deadlock) and 55P03
+     * (lock not available), for drivers whose exceptions reach here untranslated.
+     */
+    private static boolean isTransientState(String sqlState) {
+        return sqlState != null && (sqlState.startsWith("40") || sqlState.equals("55P03"));
+    }
+
+    private void checkAlive() {
+        if (failure != null) {
+            throw new IllegalStateException("Write-behind writer has stopped", failure);
+        }
+    }
+
+    private List<JournalEntry> nextBatch() throws InterruptedException {
+        synchronized (lock) {
+            while (pending.isEmpty()) {
+                lock.wait(flushIntervalMillis);
+                if (!running) {
+                    throw new InterruptedException();
+                }
+            }
+            List<JournalEntry> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+            Iterator<JournalEntry> entries = pending.iterator();
+            while (entries.hasNext() && batch.size() < batchSize) {
+                batch.add(entries.next());
+            }
+            return batch;
+        }
+    }
+
+    private void completed(int count) {
+        synchronized (lock) {
+            for (int i = 0; i < count; i++) {
+                pending.removeFirst();
+            }
+            if (pending.isEmpty() && journal.usedBytes() > journal.capacity() / 2) {
+                journal.reset();
+            }
+            lock.notifyAll();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.udemy.springboottest.writebehind;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal backed by a memory-mapped file.
+ * <p>
+ * Record layout: {@code [int payloadLength][int crc][long seq][byte operation][payload]}.
+ * Every append writes a zero length marker after the new record and forces the mapping
+ * before returning, so a record is durable once {@link #append} returns. Recovery stops at
+ * the first record that is empty, torn (checksum mismatch) or out of sequence.
+ */
+public class WriteJournal implements Closeable {
+
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 1;
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    private final List<JournalEntry> recoveredEntries;
+
+    private int position;
+
+    private long lastSeq;
+
+    private WriteJournal(FileChannel channel, MappedByteBuffer buffer) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.recoveredEntries = Collections.unmodifiableList(recover());
+    }
+
+    public static WriteJournal open(Path path, int capacity) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = Math.max(capacity, channel.size());
+        return new WriteJournal(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+    }
+
+    /**
+     * Entries found in the file when it was opened, in sequence order.
+     */
+    public List<JournalEntry> recoveredEntries() {
+        return recoveredEntries;
+    }
+
+    public synchronized JournalEntry append(WriteOperation operation, byte[] payload) {
+        if (!hasRoom(payload.length)) {
+            throw new IllegalStateException("Write-behind journal is full");
+        }
+        long seq = lastSeq + 1;
+        int offset = position;
+        buffer.putInt(offset + 4, checksum(seq, operation.ordinal(), payload));
+        buffer.putLong(offset + 8, seq);
+        buffer.put(offset + 16, (byte) operation.ordinal());
+        ByteBuffer body = buffer.duplicate();
+        body.position(offset + HEADER_BYTES);
+        body.put(payload);
+        int next = offset + HEADER_BYTES + payload.length;
+        if (next + 4 <= buffer.capacity()) {
+            buffer.putInt(next, 0);
+        }
+        buffer.putInt(offset, payload.length);
+        buffer.force();
+        position = next;
+        lastSeq = seq;
+        return new JournalEntry(seq, operation, payload, System.currentTimeMillis());
+    }
+
+    public synchronized boolean hasRoom(int payloadLength) {
+        return position + HEADER_BYTES + payloadLength <= buffer.capacity();
+    }
+
+    public synchronized boolean fits(int payloadLength) {
+        return HEADER_BYTES + payloadLength <= buffer.capacity();
+    }
+
+    public synchronized int usedBytes() {
+        return position;
+    }
+
+    public int capacity() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Makes sure sequence numbers keep growing after the journal was truncated,
+     * using the last sequence the database has already applied.
+     */
+    public synchronized void advanceSequence(long appliedSeq) {
+        lastSeq = Math.max(lastSeq, appliedSeq);
+    }
+
+    /**
+     * Truncates the journal. Only call once every appended entry has been applied.
+     */
+    public synchronized void reset() {
+        buffer.putInt(0, 0);
+        buffer.force();
+        position = 0;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private List<JournalEntry> recover() {
+        List<JournalEntry> entries = new ArrayList<>();
+        WriteOperation[] operations = WriteOperation.values();
+        long recoveredAt = System.currentTimeMillis();
+        long previousSeq = 0;
+        int offset = 0;
+        while (offset + HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || offset + HEADER_BYTES + length > buffer.capacity()) {
+                break;
+            }
+            int crc = buffer.getInt(offset + 4);
+            long seq = buffer.getLong(offset + 8);
+            int operation = buffer.get(offset + 16);
+            if (seq <= previousSeq || operation < 0 || operation >= operations.length) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            ByteBuffer body = buffer.duplicate();
+            body.position(offset + HEADER_BYTES);
+            body.get(payload);
+            if (checksum(seq, operation, payload) != crc) {
+                break;
+            }
+            entries.add(new JournalEntry(seq, operations[operation], payload, recoveredAt));
+            previousSeq = seq;
+            offset += HEADER_BYTES + length;
+        }
+        position = offset;
+        lastSeq = previousSeq;
+        return entries;
+    }
+
+    private static int checksum(long seq, int operation, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(9).putLong(seq).put((byte) operation).array());
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
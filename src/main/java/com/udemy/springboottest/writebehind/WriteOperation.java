@@ -0,0 +1,6 @@
+package com.udemy.springboottest.writebehind;
+
+public enum WriteOperation {
+    CREATE,
+    UPDATE
+}
@@ -0,0 +1,8 @@
+-- Outbox rows are inserted only while holding this row's lock, which is kept until commit, so
+-- employee_changes ids are assigned in commit order and a reader that has seen id N never sees
+-- a smaller id appear later.
+create table employee_changes_lock (
+    id integer primary key
+);
+
+insert into employee_changes_lock (id) values (1);
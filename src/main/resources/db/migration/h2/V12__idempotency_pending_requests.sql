@@ -0,0 +1,6 @@
+-- A request that is still running holds a row without a status, so a retry on any instance waits
+-- for it instead of running again. Completed rows keep a SHA-256 of the request body, so a key
+-- reused with a different request is rejected instead of replaying an unrelated response.
+alter table idempotency_keys alter column status set null;
+alter table idempotency_keys alter column body set null;
+alter table idempotency_keys add column fingerprint varchar(64);
@@ -0,0 +1,29 @@
+create table employees (
+    id         bigint generated by default as identity primary key,
+    first_name varchar(255) not null,
+    last_name  varchar(255) not null,
+    email      varchar(255) not null,
+    created_at timestamp,
+    updated_at timestamp,
+    deleted_at timestamp,
+    tenant_id  varchar(64)
+);
+
+create index idx_employees_updated_at_id on employees (updated_at, id);
+create index idx_employees_tenant_email on employees (tenant_id, email);
+
+create table employee_changes (
+    id          bigint generated by default as identity primary key,
+    employee_id bigint      not null,
+    type        varchar(16) not null,
+    payload     varchar,
+    created_at  timestamp   not null,
+    tenant_id   varchar(64) not null
+);
+
+create index idx_employee_changes_tenant_id on employee_changes (tenant_id, id);
+
+create table write_behind_checkpoints (
+    journal  varchar(255) primary key,
+    last_seq bigint not null
+);
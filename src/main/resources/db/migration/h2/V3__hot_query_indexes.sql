@@ -0,0 +1,5 @@
+-- H2 has neither concurrent nor partial indexes; same columns as the PostgreSQL migration.
+create index if not exists idx_employees_tenant_updated_at_id on employees (tenant_id, updated_at, id);
+drop index if exists idx_employees_updated_at_id;
+create index if not exists idx_employees_tenant_name on employees (tenant_id, first_name, last_name);
+create index if not exists idx_employees_deleted_at on employees (deleted_at);
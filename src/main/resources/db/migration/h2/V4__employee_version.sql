@@ -0,0 +1,2 @@
+-- Row version for optimistic locking and ordering of cache invalidations across instances
+alter table employees add column version bigint not null default 0;
@@ -0,0 +1,11 @@
+-- Responses of completed requests that carried an Idempotency-Key, replayed to retries
+create table idempotency_keys (
+    idempotency_key varchar(400) primary key,
+    status          integer      not null,
+    content_type    varchar(255),
+    location        varchar(2048),
+    body            varbinary    not null,
+    expires_at      timestamp    not null
+);
+
+create index idx_idempotency_keys_expires_at on idempotency_keys (expires_at);
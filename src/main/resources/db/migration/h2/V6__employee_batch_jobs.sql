@@ -0,0 +1,24 @@
+-- Chunked batch jobs over a tenant's employees. A chunk's row is written in the transaction
+-- that updates its employees, so a resumed job skips exactly the chunks that were applied.
+create table employee_batch_jobs (
+    id          varchar(36)   primary key,
+    tenant_id   varchar(64)   not null,
+    task        varchar(64)   not null,
+    chunk_size  integer       not null,
+    min_id      bigint        not null,
+    max_id      bigint        not null,
+    status      varchar(16)   not null,
+    error       varchar(2048),
+    created_at  timestamp     not null,
+    finished_at timestamp
+);
+
+create table employee_batch_chunks (
+    job_id       varchar(36) not null references employee_batch_jobs (id) on delete cascade,
+    chunk_start  bigint      not null,
+    rows_scanned integer     not null,
+    rows_updated integer     not null,
+    rows_skipped integer     not null,
+    completed_at timestamp   not null,
+    primary key (job_id, chunk_start)
+);
@@ -0,0 +1,6 @@
+-- Live rows sharing a tenant and email would fail the unique index in V8. The oldest row of each
+-- group is kept and the others are soft-deleted, so they stay recoverable until the tombstone purge.
+update employees e set deleted_at = current_timestamp, version = e.version + 1
+where e.deleted_at is null
+  and exists (select 1 from employees o
+              where o.tenant_id = e.tenant_id and o.email = e.email and o.deleted_at is null and o.id < e.id);
@@ -0,0 +1,4 @@
+-- H2 has no partial indexes: the email of live rows is exposed as a generated column, which is
+-- null for soft-deleted rows, and unique indexes allow any number of nulls.
+alter table employees add column live_email varchar(255) generated always as (case when deleted_at is null then email end);
+create unique index uq_employees_tenant_live_email on employees (tenant_id, live_email);
@@ -0,0 +1,11 @@
+-- Journaled writes that failed with a non-retryable error. They are recorded together with the
+-- checkpoint that skips them, so one bad entry cannot stall the journal behind it.
+create table write_behind_dead_letters (
+    journal   varchar(255)  not null,
+    seq       bigint        not null,
+    operation varchar(16)   not null,
+    payload   varbinary     not null,
+    error     varchar(2048),
+    failed_at timestamp     not null,
+    primary key (journal, seq)
+);
@@ -0,0 +1,6 @@
+-- A row fences the tenant's writes on this shard: the tenant is being moved away, or has been
+-- moved away and a stale router may still send writes here. Checked under employee_changes_lock.
+create table tenant_write_fences (
+    tenant_id varchar(64) primary key,
+    fenced_at timestamp   not null
+);
@@ -0,0 +1,10 @@
+-- Rows written before tenants existed belong to the default tenant.
+update employees set tenant_id = 'default' where tenant_id is null;
+alter table employees alter column tenant_id set default 'default';
+alter table employees alter column tenant_id set not null;
+
+-- Runtime tenant to shard assignments; only read on the default shard.
+create table if not exists tenant_shards (
+    tenant_id varchar(64) primary key,
+    shard     varchar(64) not null
+);
@@ -0,0 +1,14 @@
+-- Built concurrently so writes continue during the build; Flyway runs this script outside a
+-- transaction. A build that fails leaves an INVALID index behind: drop it and rerun.
+
+-- keyset sync (findModifiedSince) filters by tenant before walking (updated_at, id)
+create index concurrently if not exists idx_employees_tenant_updated_at_id on employees (tenant_id, updated_at, id);
+drop index concurrently if exists idx_employees_updated_at_id;
+
+-- name lookups only ever read live rows
+create index concurrently if not exists idx_employees_tenant_name on employees (tenant_id, first_name, last_name)
+    where deleted_at is null;
+
+-- tombstone purge
+create index concurrently if not exists idx_employees_deleted_at on employees (deleted_at)
+    where deleted_at is not null;
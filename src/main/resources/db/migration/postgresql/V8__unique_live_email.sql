@@ -0,0 +1,5 @@
+-- One live employee per email and tenant; soft-deleted rows may repeat an email. This closes the
+-- race between the existence check and the insert of every write path (API, import, write-behind
+-- and batch jobs). Built concurrently like V3; a failed build leaves an INVALID index behind.
+create unique index concurrently if not exists uq_employees_tenant_live_email on employees (tenant_id, email)
+    where deleted_at is null;
@@ -0,0 +1,103 @@
+package com.udemy.springboottest.batch;
+
+import com.udemy.springboottest.integration.EmbeddedPostgresInitializer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput of {@link ChunkedEmployeeProcessor} normalizing the names of {@code perf.rows}
+ * employees of one tenant against an embedded PostgreSQL, with 1, 2, 4... workers up to the
+ * available processors. Run with {@code ./gradlew perfTest}; tune with {@code -Dperf.rows}
+ * and {@code -Dperf.chunk-size}.
+ */
+@Tag("perf")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ChunkedEmployeeProcessorPerfTests {
+
+    private static final int ROWS = Integer.getInteger("perf.rows", 1_000_000);
+
+    private static final int CHUNK_SIZE = Integer.getInteger("perf.chunk-size", 10_000);
+
+    private static final String TENANT = "batch-perf";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @DisplayName("Performance of normalizing names in parallel chunks")
+    @Test
+    public void normalizeNames() throws Exception {
+        double singleWorkerRowsPerSecond = 0;
+        for (int parallelism = 1; ; parallelism = Math.min(parallelism * 2, Runtime.getRuntime().availableProcessors())) {
+            //given - precondition or setup
+            seed();
+            BatchJob job = job();
+            ChunkedEmployeeProcessor processor = new ChunkedEmployeeProcessor(jdbcTemplate,
+                    new TransactionTemplate(transactionManager), event -> {
+            }, parallelism);
+            List<Long> chunks = LongStream.range(0, job.getChunksTotal()).boxed().collect(Collectors.toList());
+            //when - action or the behaviour that we are going to test
+            long start = System.nanoTime();
+            processor.process(job, new NormalizeNamesTask(), chunks);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            //then - verify the output
+            double rowsPerSecond = ROWS / seconds;
+            if (parallelism == 1) {
+                singleWorkerRowsPerSecond = rowsPerSecond;
+            }
+            System.out.printf("normalizeNames parallelism=%d rows=%d time=%.2fs throughput=%.0f rows/s speedup=%.2fx%n",
+                    parallelism, ROWS, seconds, rowsPerSecond, rowsPerSecond / singleWorkerRowsPerSecond);
+            assertThat(job.getRowsUpdated()).isEqualTo(ROWS);
+            assertThat(job.getChunksCompleted()).isEqualTo(job.getChunksTotal());
+            assertThat(jdbcTemplate.queryForObject("select count(*) from employees where tenant_id = ? " +
+                    "and first_name not like 'First %'", Long.class, TENANT)).isZero();
+            if (parallelism == Runtime.getRuntime().availableProcessors()) {
+                break;
+            }
+        }
+    }
+
+    private void seed() {
+        jdbcTemplate.update("truncate table employees restart identity");
+        jdbcTemplate.update("insert into employees (first_name, last_name, email, created_at, updated_at, tenant_id) " +
+                        "select '  FIRST   ' || g, 'last' || g, 'employee' || g || '@example.com', now(), now(), ? " +
+                        "from generate_series(1, ?) g",
+                TENANT, ROWS);
+        jdbcTemplate.execute("analyze employees");
+    }
+
+    private BatchJob job() {
+        long[] range = jdbcTemplate.queryForObject("select min(id), max(id) from employees where tenant_id = ?",
+                (resultSet, row) -> new long[]{resultSet.getLong(1), resultSet.getLong(2)}, TENANT);
+        BatchJob job = new BatchJob(UUID.randomUUID().toString(), TENANT, "normalize-names", CHUNK_SIZE,
+                range[0], range[1], Instant.now());
+        jdbcTemplate.update("insert into employee_batch_jobs (id, tenant_id, task, chunk_size, min_id, max_id, status, created_at) " +
+                        "values (?, ?, ?, ?, ?, ?, ?, ?)", job.getId(), TENANT, job.getTask(), CHUNK_SIZE,
+                range[0], range[1], BatchJob.Status.RUNNING.name(), Timestamp.from(job.getSubmittedAt()));
+        return job;
+    }
+}
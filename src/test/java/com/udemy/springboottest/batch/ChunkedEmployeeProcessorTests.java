@@ -0,0 +1,176 @@
+package com.udemy.springboottest.batch;
+
+import com.udemy.springboottest.integration.EmbeddedPostgresInitializer;
+import com.udemy.springboottest.model.Employee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ChunkedEmployeeProcessorTests {
+
+    private static final String TENANT = "batch-test";
+
+    private static final int CHUNK_SIZE = 10;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ChunkedEmployeeProcessor processor;
+
+    @BeforeEach
+    public void setup() {
+        jdbcTemplate.update("delete from employee_batch_chunks where job_id in " +
+                "(select id from employee_batch_jobs where tenant_id = ?)", TENANT);
+        jdbcTemplate.update("delete from employee_batch_jobs where tenant_id = ?", TENANT);
+        jdbcTemplate.update("delete from employees where tenant_id = ?", TENANT);
+        processor = new ChunkedEmployeeProcessor(jdbcTemplate, new TransactionTemplate(transactionManager), event -> {
+        }, 2);
+    }
+
+    //Junit test for resuming an interrupted batch job
+    @DisplayName("Junit test for resuming an interrupted batch job")
+    @Test
+    public void givenInterruptedJob_whenResumedAndRerun_thenEveryChunkAppliedExactlyOnce() throws Exception {
+        //given - precondition or setup
+        jdbcTemplate.update("insert into employees (first_name, last_name, email, created_at, updated_at, tenant_id) " +
+                "select 'first' || g, 'last' || g, 'employee' || g || '@example.com', now(), now(), ? " +
+                "from generate_series(1, 30) g", TENANT);
+        List<Long> ids = jdbcTemplate.queryForList("select id from employees where tenant_id = ? order by id",
+                Long.class, TENANT);
+        BatchJob job = job("append-mark");
+        List<Long> chunks = LongStream.range(0, job.getChunksTotal()).boxed().collect(Collectors.toList());
+        long failing = ids.get(15);
+        long modified = ids.get(25);
+        assertThatThrownBy(() -> processor.process(job, new AppendMarkTask(failing, modified), chunks))
+                .isInstanceOf(IllegalStateException.class);
+        List<Long> completed = jdbcTemplate.queryForList("select (chunk_start - ?) / ? from employee_batch_chunks " +
+                "where job_id = ?", Long.class, job.getMinId(), CHUNK_SIZE, job.getId());
+        long markedAfterFailure = jdbcTemplate.queryForObject("select count(*) from employees where tenant_id = ? " +
+                "and last_name like '%!'", Long.class, TENANT);
+        List<Long> remaining = chunks.stream().filter(chunk -> !completed.contains(chunk)).collect(Collectors.toList());
+        //when - action or the behaviour that we are going to test
+        processor.process(job, new AppendMarkTask(-1, modified), remaining);
+        processor.process(job, new AppendMarkTask(-1, modified), chunks);
+        //then - verify the output
+        assertThat(completed).doesNotContain(1L);
+        assertThat(markedAfterFailure).isEqualTo(completed.stream().filter(chunk -> chunk != 2).count() * CHUNK_SIZE
+                + (completed.contains(2L) ? CHUNK_SIZE - 1 : 0));
+        assertThat(jdbcTemplate.queryForObject("select count(*) from employee_batch_chunks where job_id = ?",
+                Long.class, job.getId())).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("select sum(rows_updated) from employee_batch_chunks where job_id = ?",
+                Long.class, job.getId())).isEqualTo(29);
+        assertThat(jdbcTemplate.queryForObject("select sum(rows_skipped) from employee_batch_chunks where job_id = ?",
+                Long.class, job.getId())).isEqualTo(1);
+        for (long id : ids) {
+            Employee employee = jdbcTemplate.queryForObject("select last_name, version from employees where id = ?",
+                    (resultSet, row) -> Employee.builder().lastName(resultSet.getString(1)).version(resultSet.getLong(2)).build(),
+                    id);
+            assertThat(employee.getVersion()).isEqualTo(1);
+            if (id == modified) {
+                assertThat(employee.getLastName()).isEqualTo("changed");
+            } else {
+                assertThat(employee.getLastName()).endsWith("!").doesNotEndWith("!!");
+            }
+        }
+    }
+
+    //Junit test for normalizing an email that another employee already has
+    @DisplayName("Junit test for normalizing an email that another employee already has")
+    @Test
+    public void givenNormalizedEmailTaken_whenNormalizeEmails_thenEmployeeSkipped() throws Exception {
+        //given - precondition or setup
+        insert("Fuad", "fuad@gmail.com");
+        insert("Fuad", "fuad@GMAIL.com");
+        insert("John", "john@EXAMPLE.com");
+        BatchJob job = job("normalize-emails");
+        //when - action or the behaviour that we are going to test
+        processor.process(job, new NormalizeEmailsTask(), LongStream.range(0, job.getChunksTotal()).boxed()
+                .collect(Collectors.toList()));
+        //then - verify the output
+        assertThat(job.getRowsUpdated()).isEqualTo(1);
+        assertThat(job.getRowsSkipped()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForList("select email from employees where tenant_id = ? order by id",
+                String.class, TENANT)).containsExactly("fuad@gmail.com", "fuad@GMAIL.com", "john@example.com");
+    }
+
+    private void insert(String firstName, String email) {
+        jdbcTemplate.update("insert into employees (first_name, last_name, email, created_at, updated_at, tenant_id) " +
+                "values (?, 'Employee', ?, now(), now(), ?)", firstName, email, TENANT);
+    }
+
+    private BatchJob job(String task) {
+        long[] range = jdbcTemplate.queryForObject("select min(id), max(id) from employees where tenant_id = ?",
+                (resultSet, row) -> new long[]{resultSet.getLong(1), resultSet.getLong(2)}, TENANT);
+        BatchJob job = new BatchJob(UUID.randomUUID().toString(), TENANT, task, CHUNK_SIZE,
+                range[0], range[1], Instant.now());
+        jdbcTemplate.update("insert into employee_batch_jobs (id, tenant_id, task, chunk_size, min_id, max_id, status, created_at) " +
+                        "values (?, ?, ?, ?, ?, ?, ?, ?)", job.getId(), TENANT, job.getTask(), CHUNK_SIZE,
+                range[0], range[1], BatchJob.Status.RUNNING.name(), Timestamp.from(job.getSubmittedAt()));
+        return job;
+    }
+
+    /**
+     * Appends a mark to the last name, so applying a chunk twice shows. Fails on {@code failOn},
+     * and the first time it sees {@code modify} has another transaction update that employee
+     * before the chunk writes.
+     */
+    private class AppendMarkTask implements EmployeeBatchTask {
+
+        private final long failOn;
+
+        private final long modify;
+
+        private final AtomicBoolean modified = new AtomicBoolean();
+
+        AppendMarkTask(long failOn, long modify) {
+            this.failOn = failOn;
+            this.modify = modify;
+        }
+
+        @Override
+        public String getName() {
+            return "append-mark";
+        }
+
+        @Override
+        public Employee process(Employee employee) {
+            if (employee.getId() == failOn) {
+                throw new IllegalStateException("Interrupted at employee " + failOn);
+            }
+            if (employee.getId() == modify && modified.compareAndSet(false, true)) {
+                CompletableFuture.runAsync(() -> jdbcTemplate.update("update employees set last_name = 'changed', " +
+                        "version = version + 1 where id = ?", modify)).join();
+            }
+            employee.setLastName(employee.getLastName() + "!");
+            return employee;
+        }
+    }
+}
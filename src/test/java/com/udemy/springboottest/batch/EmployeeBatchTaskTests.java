@@ -0,0 +1,50 @@
+package com.udemy.springboottest.batch;
+
+import com.udemy.springboottest.model.Employee;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeBatchTaskTests {
+
+    //Junit test for normalizing badly formatted names
+    @DisplayName("Junit test for normalizing badly formatted names")
+    @Test
+    public void givenBadlyFormattedNames_whenNormalizeNames_thenNamesCapitalized() {
+        //given - precondition or setup
+        Employee employee = Employee.builder()
+                .id(1L)
+                .firstName("  fuad ")
+                .lastName("ALIYEV   DE  LA  CRUZ")
+                .email("fuad@gmail.com")
+                .build();
+        //when - action or the behaviour that we are going to test
+        Employee normalized = new NormalizeNamesTask().process(employee);
+        //then - verify the output
+        assertThat(normalized).isNotNull();
+        assertThat(normalized.getFirstName()).isEqualTo("Fuad");
+        assertThat(normalized.getLastName()).isEqualTo("Aliyev De La Cruz");
+        assertThat(new NormalizeNamesTask().process(normalized)).isNull();
+        assertThat(NormalizeNamesTask.normalize("McDonald")).isEqualTo("McDonald");
+    }
+
+    //Junit test for normalizing the domain of an email
+    @DisplayName("Junit test for normalizing the domain of an email")
+    @Test
+    public void givenUpperCaseDomain_whenNormalizeEmails_thenOnlyDomainLowerCased() {
+        //given - precondition or setup
+        Employee employee = Employee.builder()
+                .id(1L)
+                .firstName("Fuad")
+                .lastName("Aliyev")
+                .email(" Fuad.Aliyev@GMAIL.Com ")
+                .build();
+        //when - action or the behaviour that we are going to test
+        Employee normalized = new NormalizeEmailsTask().process(employee);
+        //then - verify the output
+        assertThat(normalized).isNotNull();
+        assertThat(normalized.getEmail()).isEqualTo("Fuad.Aliyev@gmail.com");
+        assertThat(new NormalizeEmailsTask().process(normalized)).isNull();
+    }
+}
@@ -0,0 +1,60 @@
+package com.udemy.springboottest.cache;
+
+import com.udemy.springboottest.model.Employee;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeCacheTests {
+
+    private static final String TENANT = "default";
+
+    //Junit test for invalidations that reach another instance out of order
+    @DisplayName("Junit test for invalidations that reach another instance out of order")
+    @Test
+    public void givenReorderedInvalidations_whenStaleCopyCached_thenNewerVersionWins() {
+        //given - precondition or setup
+        InMemoryInvalidationBus bus = new InMemoryInvalidationBus();
+        EmployeeCache nodeA = new EmployeeCache(60_000, 100);
+        EmployeeCache nodeB = new EmployeeCache(60_000, 100);
+        new EmployeeCacheInvalidator(nodeA, bus);
+        new EmployeeCacheInvalidator(nodeB, bus);
+        nodeB.put(TENANT, employee(1, "fuad@gmail.com"));
+        //when - action or the behaviour that we are going to test
+        bus.publish(new EmployeeInvalidation(TENANT, 7, 3));
+        bus.publish(new EmployeeInvalidation(TENANT, 7, 2));
+        nodeB.put(TENANT, employee(2, "stale@gmail.com"));
+        Employee afterStalePut = nodeB.get(TENANT, 7);
+        nodeB.put(TENANT, employee(3, "john@gmail.com"));
+        //then - verify the output
+        assertThat(afterStalePut).isNull();
+        assertThat(nodeB.get(TENANT, 7).getEmail()).isEqualTo("john@gmail.com");
+        assertThat(nodeA.get(TENANT, 7)).isNull();
+    }
+
+    //Junit test for caching an employee after it was deleted on another instance
+    @DisplayName("Junit test for caching an employee after it was deleted on another instance")
+    @Test
+    public void givenDeleteInvalidation_whenCopyLoadedBeforeDeleteCached_thenNeverServed() {
+        //given - precondition or setup
+        EmployeeCache cache = new EmployeeCache(60_000, 100);
+        Employee loadedBeforeDelete = employee(5, "fuad@gmail.com");
+        //when - action or the behaviour that we are going to test
+        cache.invalidate(new EmployeeInvalidation(TENANT, 7, EmployeeInvalidation.DELETED));
+        cache.put(TENANT, loadedBeforeDelete);
+        //then - verify the output
+        assertThat(cache.get(TENANT, 7)).isNull();
+        assertThat(cache.get("other", 7)).isNull();
+    }
+
+    private static Employee employee(long version, String email) {
+        return Employee.builder()
+                .id(7L)
+                .firstName("Fuad")
+                .lastName("Aliyev")
+                .email(email)
+                .version(version)
+                .build();
+    }
+}
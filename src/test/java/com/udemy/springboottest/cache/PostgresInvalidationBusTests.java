@@ -0,0 +1,120 @@
+package com.udemy.springboottest.cache;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PostgresInvalidationBusTests {
+
+    private static EmbeddedPostgres postgres;
+
+    private final List<PostgresInvalidationBus> buses = new ArrayList<>();
+
+    @BeforeAll
+    public static void startDatabase() throws IOException {
+        postgres = EmbeddedPostgres.start();
+    }
+
+    @AfterAll
+    public static void stopDatabase() throws IOException {
+        postgres.close();
+    }
+
+    @AfterEach
+    public void closeBuses() {
+        buses.forEach(PostgresInvalidationBus::close);
+    }
+
+    //Junit test for an invalidation published on one instance and received on another
+    @DisplayName("Junit test for an invalidation published on one instance and received on another")
+    @Test
+    public void givenTwoInstances_whenPublish_thenOtherInstanceReceivesInvalidation() throws Exception {
+        //given - precondition or setup
+        Recorder sender = new Recorder();
+        Recorder receiver = new Recorder();
+        PostgresInvalidationBus senderBus = start(postgres.getPostgresDatabase(), sender);
+        start(postgres.getPostgresDatabase(), receiver);
+        assertThat(sender.listening.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(receiver.listening.await(10, TimeUnit.SECONDS)).isTrue();
+        EmployeeInvalidation invalidation = new EmployeeInvalidation("tenant-a", 7, 3);
+        //when - action or the behaviour that we are going to test
+        senderBus.publish(invalidation);
+        //then - verify the output
+        assertThat(receiver.received.poll(10, TimeUnit.SECONDS)).isEqualTo(invalidation);
+        assertThat(sender.received.poll(10, TimeUnit.SECONDS)).isEqualTo(invalidation);
+    }
+
+    //Junit test for publishing while the bus connection is not available
+    @DisplayName("Junit test for publishing while the bus connection is not available")
+    @Test
+    public void givenConnectionNotYetOpen_whenPublish_thenReturnsAtOnceAndSendsOnceConnected() throws Exception {
+        //given - precondition or setup
+        CountDownLatch connect = new CountDownLatch(1);
+        DataSource slowDataSource = new DelegatingDataSource(postgres.getPostgresDatabase()) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                try {
+                    connect.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getConnection();
+            }
+        };
+        Recorder receiver = new Recorder();
+        start(postgres.getPostgresDatabase(), receiver);
+        assertThat(receiver.listening.await(10, TimeUnit.SECONDS)).isTrue();
+        PostgresInvalidationBus senderBus = start(slowDataSource, new Recorder());
+        EmployeeInvalidation invalidation = new EmployeeInvalidation("tenant-a", 8, EmployeeInvalidation.DELETED);
+        //when - action or the behaviour that we are going to test
+        long started = System.nanoTime();
+        senderBus.publish(invalidation);
+        long publishMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        connect.countDown();
+        //then - verify the output
+        assertThat(publishMillis).isLessThan(1000);
+        assertThat(receiver.received.poll(10, TimeUnit.SECONDS)).isEqualTo(invalidation);
+    }
+
+    private PostgresInvalidationBus start(DataSource dataSource, Recorder recorder) {
+        PostgresInvalidationBus bus = new PostgresInvalidationBus(dataSource, 50);
+        bus.subscribe(recorder);
+        bus.start();
+        buses.add(bus);
+        return bus;
+    }
+
+    private static class Recorder implements InvalidationBus.Subscriber {
+
+        private final BlockingQueue<EmployeeInvalidation> received = new LinkedBlockingQueue<>();
+
+        private final CountDownLatch listening = new CountDownLatch(1);
+
+        @Override
+        public void onInvalidation(EmployeeInvalidation invalidation) {
+            received.add(invalidation);
+        }
+
+        @Override
+        public void onGap() {
+            listening.countDown();
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.udemy.springboottest.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.udemy.springboottest.exception.EmployeeAlreadyExistsException;
+import com.udemy.springboottest.exception.UnsupportedFieldException;
 import com.udemy.springboottest.model.Employee;
 import com.udemy.springboottest.service.EmployeeService;
 import org.hamcrest.CoreMatchers;
@@ -18,15 +20,22 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.Mockito.verifyNoInteractions;
 
-@WebMvcTest
+@WebMvcTest(EmployeeController.class)
 public class EmployeeControllerTests {
 
     @Autowired
@@ -71,6 +80,28 @@ public class EmployeeControllerTests {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.email", CoreMatchers.is(employee.getEmail())));
     }
 
+    //Junit test for create employee operation with an existing email
+    @DisplayName("Junit test for create employee operation with an existing email")
+    @Test
+    public void givenExistingEmail_whenCreateEmployee_thenReturnConflict() throws Exception {
+        //given - precondition or setup
+        given(employeeService.saveEmployee(ArgumentMatchers.any(Employee.class)))
+                .willThrow(new EmployeeAlreadyExistsException(employee.getEmail()));
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(
+                MockMvcRequestBuilders
+                .post("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee))
+        );
+        //then - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isConflict())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.status", CoreMatchers.is(409)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message",
+                        CoreMatchers.is("Employee already exists with given email: " + employee.getEmail())));
+    }
+
     //Junit test for get all employees operation
     @DisplayName("unit test for get all employees operation")
     @Test
@@ -96,6 +127,111 @@ public class EmployeeControllerTests {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.size()", CoreMatchers.is(employeeList.size())));
     }
 
+    //Junit test for get all employees with a sparse fieldset
+    @DisplayName("Junit test for get all employees with a sparse fieldset")
+    @Test
+    public void givenFields_whenGetAllEmployees_thenReturnOnlyRequestedFields() throws Exception {
+        //given - precondition or setup
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", 1L);
+        row.put("email", employee.getEmail());
+        given(employeeService.getAllEmployees(new LinkedHashSet<>(Arrays.asList("id", "email"))))
+                .willReturn(Collections.singletonList(row));
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(
+                MockMvcRequestBuilders
+                        .get("/api/employees")
+                        .param("fields", "id, email")
+        );
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id", CoreMatchers.is(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].email", CoreMatchers.is(employee.getEmail())))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].firstName").doesNotExist());
+    }
+
+    //Junit test for get employee by id with an unsupported field
+    @DisplayName("Junit test for get employee by id with an unsupported field")
+    @Test
+    public void givenUnsupportedField_whenGetEmployeeById_thenReturnBadRequest() throws Exception {
+        //given - precondition or setup
+        given(employeeService.getEmployeeById(1L, Collections.singleton("tenantId")))
+                .willThrow(new UnsupportedFieldException("Unsupported field 'tenantId'"));
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(
+                MockMvcRequestBuilders
+                        .get("/api/employees/{id}", 1L)
+                        .param("fields", "tenantId")
+        );
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message", CoreMatchers.is("Unsupported field 'tenantId'")));
+    }
+
+    //Junit test for get employees modified since a timestamp
+    @DisplayName("Junit test for get employees modified since a timestamp")
+    @Test
+    public void givenModifiedSince_whenGetEmployees_thenReturnChangedEmployees() throws Exception {
+        //given - precondition or setup
+        Instant since = Instant.parse("2022-04-01T00:00:00Z");
+        given(employeeService.getEmployeesModifiedSince(since, 5L, 50))
+                .willReturn(Collections.singletonList(employee));
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(
+                MockMvcRequestBuilders
+                        .get("/api/employees")
+                        .param("modifiedSince", since.toString())
+                        .param("afterId", "5")
+                        .param("limit", "50")
+        );
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.size()", CoreMatchers.is(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].email", CoreMatchers.is(employee.getEmail())));
+    }
+
+    //Junit test for get employees with both a sparse fieldset and a sync cursor
+    @DisplayName("Junit test for get employees with both a sparse fieldset and a sync cursor")
+    @Test
+    public void givenFieldsAndModifiedSince_whenGetEmployees_thenBadRequest() throws Exception {
+        //given - precondition or setup
+        Instant since = Instant.parse("2022-04-01T00:00:00Z");
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(
+                MockMvcRequestBuilders
+                        .get("/api/employees")
+                        .param("fields", "id,email")
+                        .param("modifiedSince", since.toString())
+        );
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isBadRequest());
+        verifyNoInteractions(employeeService);
+    }
+
+    //Junit test for get employees with a sparse fieldset and the snapshot parameter
+    @DisplayName("Junit test for get employees with a sparse fieldset and the snapshot parameter")
+    @Test
+    public void givenFieldsAndSnapshot_whenGetEmployees_thenFieldsServed() throws Exception {
+        //given - precondition or setup
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("email", employee.getEmail());
+        given(employeeService.getAllEmployees(new LinkedHashSet<>(Collections.singletonList("email"))))
+                .willReturn(Collections.singletonList(row));
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(
+                MockMvcRequestBuilders
+                        .get("/api/employees")
+                        .param("fields", "email")
+                        .param("snapshot", "")
+        );
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].email", CoreMatchers.is(employee.getEmail())));
+    }
+
     //Junit test for get employee by id operation (positive scenario)
     @DisplayName("Junit test for get employee by id operation (positive scenario)")
     @Test
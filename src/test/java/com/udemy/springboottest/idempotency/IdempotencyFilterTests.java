@@ -0,0 +1,246 @@
+package com.udemy.springboottest.idempotency;
+
+import com.udemy.springboottest.tenant.TenantFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IdempotencyFilterTests {
+
+    //Junit test for retrying a create with the same idempotency key
+    @DisplayName("Junit test for retrying a create with the same idempotency key")
+    @Test
+    public void givenCompletedRequest_whenRetriedWithSameKey_thenOriginalResponseReplayed() throws Exception {
+        //given - precondition or setup
+        AtomicInteger executions = new AtomicInteger();
+        IdempotencyFilter filter = new IdempotencyFilter(new InMemoryIdempotencyStore(60_000, 100), 5000);
+        FilterChain create = (request, response) -> {
+            int id = executions.incrementAndGet();
+            HttpServletResponse httpResponse = (HttpServletResponse) response;
+            httpResponse.setStatus(201);
+            httpResponse.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            httpResponse.setHeader(HttpHeaders.LOCATION, "/api/employees/" + id);
+            httpResponse.getOutputStream().write(("{\"id\":" + id + "}").getBytes(StandardCharsets.UTF_8));
+        };
+        MockHttpServletResponse first = post(filter, "key-1", create);
+        //when - action or the behaviour that we are going to test
+        MockHttpServletResponse retry = post(filter, "key-1", create);
+        MockHttpServletResponse otherKey = post(filter, "key-2", create);
+        //then - verify the output
+        assertThat(executions.get()).isEqualTo(2);
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getContentAsString()).isEqualTo(first.getContentAsString()).isEqualTo("{\"id\":1}");
+        assertThat(retry.getHeader(HttpHeaders.LOCATION)).isEqualTo("/api/employees/1");
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(otherKey.getContentAsString()).isEqualTo("{\"id\":2}");
+    }
+
+    //Junit test for concurrent requests with the same idempotency key
+    @DisplayName("Junit test for concurrent requests with the same idempotency key")
+    @Test
+    public void givenRequestInProgress_whenSameKeyArrives_thenWaitsForSingleExecution() throws Exception {
+        //given - precondition or setup
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IdempotencyFilter filter = new IdempotencyFilter(new InMemoryIdempotencyStore(60_000, 100), 5000);
+        FilterChain slowCreate = (request, response) -> {
+            executions.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            ((HttpServletResponse) response).setStatus(201);
+            response.getOutputStream().write("{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<MockHttpServletResponse> first = executor.submit(() -> post(filter, "key-1", slowCreate));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<MockHttpServletResponse> second = executor.submit(() -> post(filter, "key-1", slowCreate));
+            //when - action or the behaviour that we are going to test
+            Thread.sleep(100);
+            release.countDown();
+            //then - verify the output
+            assertThat(first.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(201);
+            assertThat(second.get(5, TimeUnit.SECONDS).getContentAsString()).isEqualTo("{\"id\":1}");
+            assertThat(executions.get()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    //Junit test for a request with the same key arriving on another instance while the first runs
+    @DisplayName("Junit test for a request with the same key arriving on another instance while the first runs")
+    @Test
+    public void givenRequestInProgressOnOtherInstance_whenSameKeyArrives_thenWaitsForIt() throws Exception {
+        //given - precondition or setup
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IdempotencyStore sharedStore = new InMemoryIdempotencyStore(60_000, 100);
+        IdempotencyFilter instanceA = new IdempotencyFilter(sharedStore, 5000);
+        IdempotencyFilter instanceB = new IdempotencyFilter(sharedStore, 5000);
+        FilterChain slowCreate = (request, response) -> {
+            int id = executions.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            ((HttpServletResponse) response).setStatus(201);
+            response.getOutputStream().write(("{\"id\":" + id + "}").getBytes(StandardCharsets.UTF_8));
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<MockHttpServletResponse> first = executor.submit(() -> post(instanceA, "key-1", slowCreate));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<MockHttpServletResponse> second = executor.submit(() -> post(instanceB, "key-1", slowCreate));
+            //when - action or the behaviour that we are going to test
+            Thread.sleep(100);
+            release.countDown();
+            //then - verify the output
+            assertThat(first.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(201);
+            MockHttpServletResponse replayed = second.get(5, TimeUnit.SECONDS);
+            assertThat(replayed.getContentAsString()).isEqualTo("{\"id\":1}");
+            assertThat(replayed.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+            assertThat(executions.get()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    //Junit test for reusing an idempotency key with a different request body
+    @DisplayName("Junit test for reusing an idempotency key with a different request body")
+    @Test
+    public void givenCompletedRequest_whenSameKeyWithDifferentBody_thenUnprocessableEntity() throws Exception {
+        //given - precondition or setup
+        AtomicInteger executions = new AtomicInteger();
+        IdempotencyFilter filter = new IdempotencyFilter(new InMemoryIdempotencyStore(60_000, 100), 5000);
+        FilterChain create = (request, response) -> {
+            StreamUtils.copyToByteArray(request.getInputStream());
+            executions.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(201);
+        };
+        post(filter, "key-1", "{\"email\":\"fuad@gmail.com\"}", create);
+        //when - action or the behaviour that we are going to test
+        MockHttpServletResponse sameBody = post(filter, "key-1", "{\"email\":\"fuad@gmail.com\"}", create);
+        MockHttpServletResponse otherBody = post(filter, "key-1", "{\"email\":\"john@gmail.com\"}", create);
+        //then - verify the output
+        assertThat(sameBody.getStatus()).isEqualTo(201);
+        assertThat(sameBody.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(otherBody.getStatus()).isEqualTo(422);
+        assertThat(executions.get()).isEqualTo(1);
+    }
+
+    //Junit test for retrying a batch job submit
+    @DisplayName("Junit test for retrying a batch job submit")
+    @Test
+    public void givenSubmittedBatchJob_whenRetriedWithSameKey_thenReplayedUnlessTaskDiffers() throws Exception {
+        //given - precondition or setup
+        AtomicInteger submits = new AtomicInteger();
+        IdempotencyFilter filter = new IdempotencyFilter(new InMemoryIdempotencyStore(60_000, 100), 5000);
+        FilterChain submit = (request, response) -> {
+            submits.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(202);
+        };
+        submitBatchJob(filter, "key-1", "task=normalize-emails", submit);
+        //when - action or the behaviour that we are going to test
+        MockHttpServletResponse retry = submitBatchJob(filter, "key-1", "task=normalize-emails", submit);
+        MockHttpServletResponse otherTask = submitBatchJob(filter, "key-1", "task=normalize-names", submit);
+        //then - verify the output
+        assertThat(retry.getStatus()).isEqualTo(202);
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(otherTask.getStatus()).isEqualTo(422);
+        assertThat(submits.get()).isEqualTo(1);
+    }
+
+    //Junit test for an idempotency key sent with another tenant's id but no gateway token
+    @DisplayName("Junit test for an idempotency key sent with another tenant's id but no gateway token")
+    @Test
+    public void givenSpoofedTenantHeader_whenPost_thenNeitherReplayedNorStored() throws Exception {
+        //given - precondition or setup
+        AtomicInteger executions = new AtomicInteger();
+        TenantFilter tenantFilter = new TenantFilter("s3cret");
+        IdempotencyFilter idempotencyFilter = new IdempotencyFilter(new InMemoryIdempotencyStore(60_000, 100), 5000);
+        HttpServlet create = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                executions.incrementAndGet();
+                response.setStatus(201);
+            }
+        };
+        postAsTenant(tenantFilter, idempotencyFilter, create, "tenant-a", "s3cret", "key-1");
+        //when - action or the behaviour that we are going to test
+        MockHttpServletResponse spoofedReplay = postAsTenant(tenantFilter, idempotencyFilter, create, "tenant-a", null, "key-1");
+        MockHttpServletResponse spoofedClaim = postAsTenant(tenantFilter, idempotencyFilter, create, "tenant-a", null, "key-2");
+        MockHttpServletResponse genuine = postAsTenant(tenantFilter, idempotencyFilter, create, "tenant-a", "s3cret", "key-2");
+        //then - verify the output
+        assertThat(spoofedReplay.getStatus()).isEqualTo(403);
+        assertThat(spoofedReplay.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+        assertThat(spoofedClaim.getStatus()).isEqualTo(403);
+        assertThat(genuine.getStatus()).isEqualTo(201);
+        assertThat(genuine.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+        assertThat(executions.get()).isEqualTo(2);
+    }
+
+    private static MockHttpServletResponse post(IdempotencyFilter filter, String key, FilterChain chain) throws Exception {
+        return post(filter, key, "", chain);
+    }
+
+    private static MockHttpServletResponse post(IdempotencyFilter filter, String key, String body, FilterChain chain)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/employees");
+        request.addHeader(IdempotencyFilter.KEY_HEADER, key);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static MockHttpServletResponse submitBatchJob(IdempotencyFilter filter, String key, String query,
+                                                          FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/employees/batch-jobs");
+        request.addHeader(IdempotencyFilter.KEY_HEADER, key);
+        request.setQueryString(query);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static MockHttpServletResponse postAsTenant(TenantFilter tenantFilter, IdempotencyFilter idempotencyFilter,
+                                                        HttpServlet servlet, String tenantId, String gatewayToken,
+                                                        String key) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/employees");
+        request.addHeader(TenantFilter.TENANT_HEADER, tenantId);
+        if (gatewayToken != null) {
+            request.addHeader(TenantFilter.GATEWAY_TOKEN_HEADER, gatewayToken);
+        }
+        request.addHeader(IdempotencyFilter.KEY_HEADER, key);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new MockFilterChain(servlet, tenantFilter, idempotencyFilter).doFilter(request, response);
+        return response;
+    }
+}
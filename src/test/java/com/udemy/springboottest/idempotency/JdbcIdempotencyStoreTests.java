@@ -0,0 +1,85 @@
+package com.udemy.springboottest.idempotency;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JdbcIdempotencyStoreTests {
+
+    private static EmbeddedPostgres postgres;
+
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    public static void startDatabase() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        Flyway.configure().dataSource(postgres.getPostgresDatabase()).locations("classpath:db/migration/postgresql")
+                .load().migrate();
+        jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+    }
+
+    @AfterAll
+    public static void stopDatabase() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    public void setup() {
+        jdbcTemplate.update("delete from idempotency_keys");
+    }
+
+    //Junit test for two instances claiming the same key
+    @DisplayName("Junit test for two instances claiming the same key")
+    @Test
+    public void givenClaimedKey_whenOtherInstanceClaims_thenRefusedUntilCompleted() {
+        //given - precondition or setup
+        JdbcIdempotencyStore instanceA = new JdbcIdempotencyStore(jdbcTemplate, 60_000, 60_000);
+        JdbcIdempotencyStore instanceB = new JdbcIdempotencyStore(jdbcTemplate, 60_000, 60_000);
+        StoredResponse created = new StoredResponse(201, "application/json", "/api/employees/1",
+                "{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+        //when - action or the behaviour that we are going to test
+        boolean claimedByA = instanceA.claim("default:/api/employees:key-1");
+        boolean claimedByB = instanceB.claim("default:/api/employees:key-1");
+        boolean pendingOnB = instanceB.find("default:/api/employees:key-1").get().isPending();
+        instanceA.release("default:/api/employees:key-1");
+        boolean claimedByBAfterRelease = instanceB.claim("default:/api/employees:key-1");
+        instanceB.save("default:/api/employees:key-1", "abc", created);
+        instanceA.release("default:/api/employees:key-1");
+        //then - verify the output
+        assertThat(claimedByA).isTrue();
+        assertThat(claimedByB).isFalse();
+        assertThat(pendingOnB).isTrue();
+        assertThat(claimedByBAfterRelease).isTrue();
+        IdempotencyEntry completed = instanceA.find("default:/api/employees:key-1").get();
+        assertThat(completed.getFingerprint()).isEqualTo("abc");
+        assertThat(completed.getResponse().getStatus()).isEqualTo(201);
+        assertThat(completed.getResponse().getLocation()).isEqualTo("/api/employees/1");
+        assertThat(completed.getResponse().getBody()).isEqualTo("{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+    }
+
+    //Junit test for a claim left behind by an instance that died
+    @DisplayName("Junit test for a claim left behind by an instance that died")
+    @Test
+    public void givenExpiredClaim_whenClaim_thenTakenOver() throws Exception {
+        //given - precondition or setup
+        JdbcIdempotencyStore deadInstance = new JdbcIdempotencyStore(jdbcTemplate, 60_000, 1);
+        JdbcIdempotencyStore instance = new JdbcIdempotencyStore(jdbcTemplate, 60_000, 60_000);
+        deadInstance.claim("default:/api/employees:key-1");
+        Thread.sleep(20);
+        //when - action or the behaviour that we are going to test
+        boolean claimed = instance.claim("default:/api/employees:key-1");
+        //then - verify the output
+        assertThat(claimed).isTrue();
+        assertThat(instance.find("default:/api/employees:key-1").get().isPending()).isTrue();
+    }
+}
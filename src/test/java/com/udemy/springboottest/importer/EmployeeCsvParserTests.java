@@ -0,0 +1,58 @@
+package com.udemy.springboottest.importer;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeCsvParserTests {
+
+    @TempDir
+    Path tempDir;
+
+    //Junit test for parsing a csv file split into several chunks
+    @DisplayName("Junit test for parsing a csv file split into several chunks")
+    @Test
+    public void givenCsvFile_whenParseInSmallChunks_thenRowsAndRejectionsKeepFileOrder() throws Exception {
+        //given - precondition or setup
+        StringBuilder csv = new StringBuilder("first_name,last_name,email\r\n");
+        for (int i = 1; i <= 200; i++) {
+            if (i % 50 == 0) {
+                csv.append("Broken,Row,not-an-email\n");
+            } else {
+                csv.append("\"First ").append(i).append("\",Last,employee").append(i).append("@gmail.com\n");
+            }
+        }
+        Path file = tempDir.resolve("employees.csv");
+        Files.write(file, csv.toString().getBytes(StandardCharsets.UTF_8));
+        //when - action or the behaviour that we are going to test
+        List<ParsedChunk> chunks = new EmployeeCsvParser(4, 256).parse(file);
+        //then - verify the output
+        assertThat(chunks.size()).isGreaterThan(1);
+        assertThat(chunks.stream().mapToLong(ParsedChunk::getLineCount).sum()).isEqualTo(201);
+        List<String> emails = chunks.stream()
+                .flatMap(chunk -> chunk.getRows().stream())
+                .map(EmployeeRow::getEmail)
+                .collect(Collectors.toList());
+        assertThat(emails).hasSize(196).startsWith("employee1@gmail.com").endsWith("employee199@gmail.com");
+        assertThat(chunks.stream().mapToLong(chunk -> chunk.getRejected().size()).sum()).isEqualTo(4);
+    }
+
+    //Junit test for splitting quoted csv fields
+    @DisplayName("Junit test for splitting quoted csv fields")
+    @Test
+    public void givenQuotedFields_whenSplitFields_thenQuotesAndCommasPreserved() {
+        //when - action or the behaviour that we are going to test
+        List<String> fields = EmployeeCsvParser.splitFields("\"Aliyev, Jr.\",\"Say \"\"Hi\"\"\",fuad@gmail.com");
+        //then - verify the output
+        assertThat(fields).containsExactly("Aliyev, Jr.", "Say \"Hi\"", "fuad@gmail.com");
+        assertThat(EmployeeCsvParser.splitFields("\"unterminated,x,y")).isNull();
+    }
+}
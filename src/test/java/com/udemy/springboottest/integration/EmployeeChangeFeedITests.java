@@ -0,0 +1,145 @@
+package com.udemy.springboottest.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.udemy.springboottest.model.Employee;
+import com.udemy.springboottest.service.EmployeeService;
+import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+public class EmployeeChangeFeedITests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private long cursor;
+
+    @BeforeEach
+    void setup() {
+        jdbcTemplate.update("delete from employees");
+        cursor = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from employee_changes", Long.class);
+    }
+
+    //Junit test for recording a create in the outbox and serving it from the change feed
+    @DisplayName("Junit test for recording a create in the outbox and serving it from the change feed")
+    @Test
+    public void givenCreatedEmployee_whenGetChanges_thenOutboxRowServed() throws Exception {
+        //given - precondition or setup
+        create("outbox@gmail.com");
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/changes")
+                .param("since", String.valueOf(cursor)));
+        //then - verify the output
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "select type, payload, tenant_id from employee_changes where id > ?", cursor);
+        assertThat(row.get("type")).isEqualTo("CREATED");
+        assertThat((String) row.get("payload")).contains("outbox@gmail.com");
+        assertThat(row.get("tenant_id")).isEqualTo("default");
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.size()", CoreMatchers.is(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].type", CoreMatchers.is("CREATED")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].payload.email", CoreMatchers.is("outbox@gmail.com")));
+    }
+
+    //Junit test for a change that commits after a later one was already read
+    @DisplayName("Junit test for a change that commits after a later one was already read")
+    @Test
+    public void givenChangesCommittingOutOfOrder_whenFollowFeed_thenNoChangeSkipped() throws Exception {
+        //given - precondition or setup
+        CountDownLatch inTransaction = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread slowWriter = new Thread(() -> transactionTemplate.execute(status -> {
+            employeeService.saveEmployee(employee("slow@gmail.com"));
+            inTransaction.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        slowWriter.start();
+        assertThat(inTransaction.await(10, TimeUnit.SECONDS)).isTrue();
+        create("fast@gmail.com");
+        long afterFast = jdbcTemplate.queryForObject("select max(id) from employee_changes", Long.class);
+        //when - action or the behaviour that we are going to test
+        release.countDown();
+        slowWriter.join(10_000);
+        //then - verify the output
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/changes").param("since", String.valueOf(afterFast)))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.size()", CoreMatchers.is(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].payload.email", CoreMatchers.is("slow@gmail.com")));
+    }
+
+    //Junit test for streaming a committed change to a subscriber
+    @DisplayName("Junit test for streaming a committed change to a subscriber")
+    @Test
+    public void givenSubscriber_whenEmployeeCreated_thenChangeStreamed() throws Exception {
+        //given - precondition or setup
+        MvcResult stream = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/changes/stream")
+                        .param("since", String.valueOf(cursor)))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        //when - action or the behaviour that we are going to test
+        create("stream@gmail.com");
+        //then - verify the output
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!stream.getResponse().getContentAsString().contains("stream@gmail.com")
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(stream.getResponse().getContentAsString())
+                .contains("event:CREATED")
+                .contains("stream@gmail.com");
+    }
+
+    private void create(String email) throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee(email))))
+                .andExpect(MockMvcResultMatchers.status().isCreated());
+    }
+
+    private static Employee employee(String email) {
+        return Employee.builder()
+                .firstName("Fuad")
+                .lastName("Aliyev")
+                .email(email)
+                .build();
+    }
+}
@@ -3,6 +3,8 @@ package com.udemy.springboottest.integration;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.udemy.springboottest.model.Employee;
 import com.udemy.springboottest.repository.EmployeeRepository;
+import com.udemy.springboottest.stats.EmployeeStatistics;
+import com.udemy.springboottest.stats.EmployeeStatsResponse;
 import org.hamcrest.CoreMatchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,6 +12,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
@@ -17,15 +20,18 @@ import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import java.util.ArrayList;
+import java.util.Map;
 import java.util.List;
 import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willDoNothing;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @AutoConfigureMockMvc
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
 public class EmployeeControllerITests {
 
     @Autowired
@@ -37,6 +43,9 @@ public class EmployeeControllerITests {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EmployeeStatistics employeeStatistics;
+
     @BeforeEach
     void setup() {
         employeeRepository.deleteAll();
@@ -164,6 +173,36 @@ public class EmployeeControllerITests {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.email", CoreMatchers.is(updatedEmployee.getEmail())));
     }
 
+    @Test
+    public void givenUpdateChangingDomainAndInitial_whenUpdateEmployee_thenStatsMoved() throws Exception {
+        //given - precondition or setup
+        Employee savedEmployee = employeeRepository.save(Employee.builder()
+                .firstName("fuad")
+                .lastName("Aliyev")
+                .email("aliyev@gmail.com")
+                .build());
+        EmployeeStatsResponse before = employeeStatistics.getStats(1000);
+        Employee updatedEmployee = Employee.builder()
+                .firstName("fuad")
+                .lastName("Johnson")
+                .email("aliyev@yahoo.com")
+                .build();
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(
+                MockMvcRequestBuilders
+                        .put("/api/employees/{id}", savedEmployee.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updatedEmployee))
+        );
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isOk());
+        EmployeeStatsResponse after = employeeStatistics.getStats(1000);
+        assertThat(count(after.getByEmailDomain(), "gmail.com")).isEqualTo(count(before.getByEmailDomain(), "gmail.com") - 1);
+        assertThat(count(after.getByEmailDomain(), "yahoo.com")).isEqualTo(count(before.getByEmailDomain(), "yahoo.com") + 1);
+        assertThat(count(after.getByLastNameInitial(), "A")).isEqualTo(count(before.getByLastNameInitial(), "A") - 1);
+        assertThat(count(after.getByLastNameInitial(), "J")).isEqualTo(count(before.getByLastNameInitial(), "J") + 1);
+    }
+
     @Test
     public void givenUpdatedEmployee_whenUpdateEmployee_thenReturnEmpty() throws Exception {
         //given - precondition or setup
@@ -206,4 +245,8 @@ public class EmployeeControllerITests {
         response.andExpect(MockMvcResultMatchers.status().isOk())
                 .andDo(MockMvcResultHandlers.print());
     }
+
+    private static long count(Map<String, Long> counts, String key) {
+        return counts.getOrDefault(key, 0L);
+    }
 }
@@ -0,0 +1,121 @@
+package com.udemy.springboottest.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.udemy.springboottest.model.Employee;
+import com.udemy.springboottest.querycount.QueryCountHeaderAdvice;
+import com.udemy.springboottest.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Round-trip budgets of the employee API. Each request's SQL statements are counted through
+ * the datasource proxy and reported in the {@code X-Query-Count} header; lower a budget when
+ * an endpoint gets cheaper so the next regression fails the build.
+ */
+@SpringBootTest(properties = "employee.query-count.header=true")
+@AutoConfigureMockMvc
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+public class EmployeeQueryCountITests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setup() {
+        employeeRepository.deleteAll();
+    }
+
+    //Junit test for the statements executed by creating an employee
+    @DisplayName("Junit test for the statements executed by creating an employee")
+    @Test
+    public void givenEmployeeObject_whenCreateEmployee_thenAtMostThreeStatements() throws Exception {
+        //given - precondition or setup
+        Employee employee = employee("aliyev@gmail.com");
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(statementsAtMost(3));
+    }
+
+    //Junit test for the statements executed by reading an employee
+    @DisplayName("Junit test for the statements executed by reading an employee")
+    @Test
+    public void givenEmployeeId_whenGetEmployeeById_thenOneStatement() throws Exception {
+        //given - precondition or setup
+        Employee savedEmployee = employeeRepository.save(employee("aliyev@gmail.com"));
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/{id}", savedEmployee.getId()));
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(statementsAtMost(1));
+    }
+
+    //Junit test for the statements executed by updating an employee
+    @DisplayName("Junit test for the statements executed by updating an employee")
+    @Test
+    public void givenUpdatedEmployee_whenUpdateEmployee_thenAtMostFourStatements() throws Exception {
+        //given - precondition or setup
+        Employee savedEmployee = employeeRepository.save(employee("aliyev@gmail.com"));
+        Employee updatedEmployee = employee("john@gmail.com");
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.put("/api/employees/{id}", savedEmployee.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmployee)));
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(statementsAtMost(4));
+    }
+
+    //Junit test for the statements executed by deleting an employee
+    @DisplayName("Junit test for the statements executed by deleting an employee")
+    @Test
+    public void givenEmployeeId_whenDeleteEmployee_thenAtMostTwoStatements() throws Exception {
+        //given - precondition or setup
+        Employee savedEmployee = employeeRepository.save(employee("aliyev@gmail.com"));
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.delete("/api/employees/{id}", savedEmployee.getId()));
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(statementsAtMost(2));
+    }
+
+    private static ResultMatcher statementsAtMost(int budget) {
+        return result -> {
+            String header = result.getResponse().getHeader(QueryCountHeaderAdvice.HEADER);
+            assertThat(header).as("%s header", QueryCountHeaderAdvice.HEADER).isNotNull();
+            assertThat(Long.parseLong(header))
+                    .as("SQL statements for %s %s", result.getRequest().getMethod(), result.getRequest().getRequestURI())
+                    .isLessThanOrEqualTo(budget);
+        };
+    }
+
+    private static Employee employee(String email) {
+        return Employee.builder()
+                .firstName("fuad")
+                .lastName("aliyev")
+                .email(email)
+                .build();
+    }
+}
@@ -0,0 +1,90 @@
+package com.udemy.springboottest.jfr;
+
+import com.udemy.springboottest.exception.ResourceNotFoundException;
+import com.udemy.springboottest.model.Employee;
+import com.udemy.springboottest.service.EmployeeService;
+import com.udemy.springboottest.tenant.TenantContext;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+
+public class EmployeeEventInterceptorTests {
+
+    @TempDir
+    Path tempDir;
+
+    //Junit test for recording service operations as JFR events
+    @DisplayName("Junit test for recording service operations as JFR events")
+    @Test
+    public void givenRecording_whenServiceCalled_thenOperationEventsCommitted() throws Exception {
+        //given - precondition or setup
+        EmployeeService target = mock(EmployeeService.class);
+        Employee employee = Employee.builder().id(7L).firstName("Fuad").lastName("Aliyev").email("fuad@gmail.com").build();
+        given(target.getEmployeeById(7L)).willReturn(Optional.of(employee));
+        given(target.getAllEmployees()).willReturn(Arrays.asList(employee, employee.toBuilder().id(8L).build()));
+        willThrow(new ResourceNotFoundException("Employee not found with id: 9")).given(target).deleteEmployee(9L);
+        EmployeeService service = proxy(target);
+        Path file = tempDir.resolve("employee.jfr");
+        //when - action or the behaviour that we are going to test
+        try (Recording recording = new Recording()) {
+            recording.enable(EmployeeOperationEvent.NAME).withThreshold(Duration.ZERO);
+            recording.start();
+            TenantContext.runAs("acme", () -> {
+                service.getEmployeeById(7L);
+                service.getAllEmployees();
+                assertThatThrownBy(() -> service.deleteEmployee(9L)).isInstanceOf(ResourceNotFoundException.class);
+            });
+            recording.stop();
+            recording.dump(file);
+        }
+        //then - verify the output
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals(EmployeeOperationEvent.NAME))
+                .collect(Collectors.toList());
+        assertThat(events).extracting(event -> event.getString("operation"))
+                .containsExactly("getEmployeeById", "getAllEmployees", "deleteEmployee");
+        assertThat(events).allSatisfy(event -> assertThat(event.getString("tenantId")).isEqualTo("acme"));
+        assertThat(events.get(0).getLong("entityId")).isEqualTo(7L);
+        assertThat(events.get(0).getInt("rowCount")).isEqualTo(1);
+        assertThat(events.get(1).getInt("rowCount")).isEqualTo(2);
+        assertThat(events.get(2).getString("failure")).isEqualTo("ResourceNotFoundException");
+    }
+
+    //Junit test for calls made while no recording is running
+    @DisplayName("Junit test for calls made while no recording is running")
+    @Test
+    public void givenNoRecording_whenServiceCalled_thenCallPassesThrough() {
+        //given - precondition or setup
+        EmployeeService target = mock(EmployeeService.class);
+        given(target.getEmployeeById(7L)).willReturn(Optional.empty());
+        //when - action or the behaviour that we are going to test
+        Optional<Employee> employee = proxy(target).getEmployeeById(7L);
+        //then - verify the output
+        assertThat(employee).isEmpty();
+    }
+
+    private static EmployeeService proxy(EmployeeService target) {
+        ProxyFactory factory = new ProxyFactory();
+        factory.setTarget(target);
+        factory.addInterface(EmployeeService.class);
+        factory.addAdvice(new EmployeeEventInterceptor(EmployeeOperationEvent::new));
+        return (EmployeeService) factory.getProxy();
+    }
+}
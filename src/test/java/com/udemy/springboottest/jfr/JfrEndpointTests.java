@@ -0,0 +1,39 @@
+package com.udemy.springboottest.jfr;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JfrEndpointTests {
+
+    @TempDir
+    Path tempDir;
+
+    //Junit test for keeping only the newest flight recording dumps
+    @DisplayName("Junit test for keeping only the newest flight recording dumps")
+    @Test
+    public void givenMoreDumpsThanKept_whenDeleteOldDumps_thenNewestKept() throws Exception {
+        //given - precondition or setup
+        for (String name : new String[]{"employee-20261019-100000.jfr", "employee-20261019-110000.jfr",
+                "employee-20261019-120000.jfr", "employee-20261019-130000.jfr", "other.jfr"}) {
+            Files.createFile(tempDir.resolve(name));
+        }
+        //when - action or the behaviour that we are going to test
+        JfrEndpoint.deleteOldDumps(tempDir, 2);
+        //then - verify the output
+        List<String> remaining;
+        try (Stream<Path> files = Files.list(tempDir)) {
+            remaining = files.map(file -> file.getFileName().toString()).collect(Collectors.toList());
+        }
+        assertThat(remaining).containsExactlyInAnyOrder("employee-20261019-120000.jfr", "employee-20261019-130000.jfr",
+                "other.jfr");
+    }
+}
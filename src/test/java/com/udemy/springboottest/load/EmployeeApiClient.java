@@ -0,0 +1,113 @@
+package com.udemy.springboottest.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal blocking client for {@code /api/employees}; responses are read fully so the
+ * connection goes back to the JDK's keep-alive cache.
+ */
+public class EmployeeApiClient {
+
+    private static final int TIMEOUT_MILLIS = 30_000;
+
+    private final String baseUrl;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public EmployeeApiClient(int port) {
+        this.baseUrl = "http://localhost:" + port + "/api/employees";
+    }
+
+    /**
+     * @return the id of the created employee, or {@code null} if it was not created
+     */
+    public Long create(String email) throws IOException {
+        Response response = send("POST", "", employee("Load", "Test", email));
+        if (response.status != 201) {
+            throw new UnexpectedStatusException(response.status);
+        }
+        JsonNode id = objectMapper.readTree(response.body).get("id");
+        return id == null ? null : id.asLong();
+    }
+
+    public int read(long id) throws IOException {
+        return send("GET", "/" + id, null).status;
+    }
+
+    public int update(long id, String email) throws IOException {
+        return send("PUT", "/" + id, employee("Load", "Updated", email)).status;
+    }
+
+    public int delete(long id) throws IOException {
+        return send("DELETE", "/" + id, null).status;
+    }
+
+    public int list(int limit) throws IOException {
+        return send("GET", "?modifiedSince=1970-01-01T00:00:00Z&limit=" + limit, null).status;
+    }
+
+    private static String employee(String firstName, String lastName, String email) {
+        return "{\"firstName\":\"" + firstName + "\",\"lastName\":\"" + lastName + "\",\"email\":\"" + email + "\"}";
+    }
+
+    private Response send(String method, String path, String json) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout(TIMEOUT_MILLIS);
+        connection.setReadTimeout(TIMEOUT_MILLIS);
+        if (json != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(json.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int status = connection.getResponseCode();
+        InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        if (in != null) {
+            try (InputStream stream = in) {
+                byte[] buffer = new byte[8192];
+                for (int read = stream.read(buffer); read != -1; read = stream.read(buffer)) {
+                    body.write(buffer, 0, read);
+                }
+            }
+        }
+        return new Response(status, body.toByteArray());
+    }
+
+    private static class Response {
+
+        private final int status;
+
+        private final byte[] body;
+
+        Response(int status, byte[] body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    public static class UnexpectedStatusException extends IOException {
+
+        private final int status;
+
+        UnexpectedStatusException(int status) {
+            super("Unexpected status " + status);
+            this.status = status;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+    }
+}
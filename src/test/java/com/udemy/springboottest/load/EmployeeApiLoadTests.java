@@ -0,0 +1,117 @@
+package com.udemy.springboottest.load;
+
+import com.udemy.springboottest.integration.EmbeddedPostgresInitializer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.nio.file.Paths;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the running application over HTTP with an open-model traffic mix and writes a
+ * latency report to {@code build/load-test}. Run with {@code ./gradlew loadTest}; tune with
+ * {@code -Dload.rate} (requests per second), {@code -Dload.duration-seconds},
+ * {@code -Dload.warmup-seconds}, {@code -Dload.mix}, {@code -Dload.workers},
+ * {@code -Dload.seed-employees} and {@code -Dload.max-error-rate}.
+ * The per-client rate limit is lifted because all traffic comes from one address.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "employee.rate-limit.capacity=1000000",
+        "employee.rate-limit.refill-per-second=1000000",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.type=info",
+        "logging.level.org.hibernate.stat=info"
+})
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+public class EmployeeApiLoadTests {
+
+    private static final double RATE = Double.parseDouble(System.getProperty("load.rate", "200"));
+
+    private static final int DURATION_SECONDS = Integer.getInteger("load.duration-seconds", 60);
+
+    private static final int WARMUP_SECONDS = Integer.getInteger("load.warmup-seconds", 10);
+
+    private static final String MIX = System.getProperty("load.mix", "create:10,read:50,update:15,delete:5,list:20");
+
+    private static final int WORKERS = Integer.getInteger("load.workers", 64);
+
+    private static final int SEED_EMPLOYEES = Integer.getInteger("load.seed-employees", 1000);
+
+    private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("load.max-error-rate", "0.01"));
+
+    @LocalServerPort
+    private int port;
+
+    private final AtomicLong emails = new AtomicLong();
+
+    /**
+     * Ids of employees created by this run; deleted slots are reused by later creates.
+     */
+    private AtomicLongArray ids;
+
+    private final AtomicLong created = new AtomicLong();
+
+    @DisplayName("Load test of the employee API with an open-model traffic mix")
+    @Test
+    public void givenTrafficMix_whenDrivenAtFixedRate_thenReportWrittenAndErrorRateLow() throws Exception {
+        //given - precondition or setup
+        EmployeeApiClient client = new EmployeeApiClient(port);
+        ids = new AtomicLongArray(SEED_EMPLOYEES + (int) (RATE * (DURATION_SECONDS + WARMUP_SECONDS)));
+        for (int i = 0; i < SEED_EMPLOYEES; i++) {
+            remember(client.create(nextEmail()));
+        }
+        LoadMix mix = new LoadMix(MIX);
+        OpenLoadGenerator warmup = new OpenLoadGenerator(mix, operation -> execute(client, operation), WORKERS);
+        warmup.run(RATE, WARMUP_SECONDS, false);
+        //when - action or the behaviour that we are going to test
+        OpenLoadGenerator generator = new OpenLoadGenerator(mix, operation -> execute(client, operation), WORKERS);
+        long elapsed = generator.run(RATE, DURATION_SECONDS, true);
+        //then - verify the output
+        LoadTestReport report = new LoadTestReport(generator, mix, RATE, elapsed);
+        report.write(Paths.get("build", "load-test"));
+        assertThat(generator.getCompleted()).isGreaterThan(0);
+        assertThat(report.errors()).isLessThanOrEqualTo((long) (generator.getCompleted() * MAX_ERROR_RATE));
+    }
+
+    private int execute(EmployeeApiClient client, LoadMix.Operation operation) throws Exception {
+        switch (operation) {
+            case CREATE:
+                remember(client.create(nextEmail()));
+                return 201;
+            case READ:
+                return client.read(randomId());
+            case UPDATE:
+                return client.update(randomId(), nextEmail());
+            case DELETE:
+                return client.delete(randomId());
+            case LIST:
+                return client.list(100);
+            default:
+                throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+    }
+
+    private String nextEmail() {
+        return "load" + emails.incrementAndGet() + "@example.com";
+    }
+
+    private void remember(Long id) {
+        if (id != null) {
+            ids.set((int) (created.getAndIncrement() % ids.length()), id);
+        }
+    }
+
+    private long randomId() {
+        long known = Math.min(created.get(), ids.length());
+        return known == 0 ? 1 : ids.get(ThreadLocalRandom.current().nextInt((int) known));
+    }
+}
@@ -0,0 +1,71 @@
+package com.udemy.springboottest.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Weighted traffic mix parsed from {@code "create:10,read:50,update:15,delete:5,list:20"}.
+ */
+public class LoadMix {
+
+    public enum Operation {
+        CREATE, READ, UPDATE, DELETE, LIST
+    }
+
+    private final Map<Operation, Integer> weights;
+
+    private final List<Operation> operations = new ArrayList<>();
+
+    private final int[] cumulative;
+
+    private final int total;
+
+    public LoadMix(String spec) {
+        Map<Operation, Integer> parsed = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] entry = part.trim().split(":");
+            if (entry.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry '" + part + "', expected operation:weight");
+            }
+            int weight = Integer.parseInt(entry[1].trim());
+            if (weight > 0) {
+                parsed.put(Operation.valueOf(entry[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (parsed.isEmpty()) {
+            throw new IllegalArgumentException("Mix '" + spec + "' has no operation with a positive weight");
+        }
+        this.weights = Collections.unmodifiableMap(parsed);
+        this.cumulative = new int[parsed.size()];
+        int sum = 0;
+        for (Map.Entry<Operation, Integer> weight : parsed.entrySet()) {
+            sum += weight.getValue();
+            cumulative[operations.size()] = sum;
+            operations.add(weight.getKey());
+        }
+        this.total = sum;
+    }
+
+    public Operation pick(Random random) {
+        int ticket = random.nextInt(total);
+        for (int i = 0; i < cumulative.length; i++) {
+            if (ticket < cumulative[i]) {
+                return operations.get(i);
+            }
+        }
+        throw new IllegalStateException("unreachable");
+    }
+
+    public Map<Operation, Integer> getWeights() {
+        return weights;
+    }
+
+    @Override
+    public String toString() {
+        return weights.toString();
+    }
+}
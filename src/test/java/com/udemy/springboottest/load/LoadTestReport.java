@@ -0,0 +1,110 @@
+package com.udemy.springboottest.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Writes a load test run to a directory: {@code summary.properties} with one sorted
+ * {@code key=value} line per figure, meant to be diffed between releases, a readable
+ * {@code report.txt}, and the full percentile distribution of every operation as
+ * {@code <operation>.hgrm} for HdrHistogram's plotter.
+ */
+public class LoadTestReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Map<String, String> summary = new TreeMap<>();
+
+    private final OpenLoadGenerator generator;
+
+    public LoadTestReport(OpenLoadGenerator generator, LoadMix mix, double ratePerSecond, long elapsedNanos) {
+        this.generator = generator;
+        summary.put("config.mix", mix.toString());
+        summary.put("config.rate", format(ratePerSecond));
+        summary.put("total.requests", String.valueOf(generator.getCompleted()));
+        summary.put("total.throughput", format(generator.getCompleted() / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1))));
+        generator.getResponseTimes().forEach((operation, histogram) -> {
+            if (histogram.getTotalCount() > 0) {
+                add(operation.name().toLowerCase(), histogram, "response");
+                add(operation.name().toLowerCase(), generator.getServiceTimes().get(operation), "service");
+            }
+        });
+        for (Map.Entry<String, LongAdder> status : generator.getStatuses().entrySet()) {
+            summary.put("status." + status.getKey(), String.valueOf(status.getValue().sum()));
+        }
+    }
+
+    public long errors() {
+        return generator.getStatuses().entrySet().stream()
+                .filter(status -> {
+                    int code = Integer.parseInt(status.getKey().substring(status.getKey().lastIndexOf('.') + 1));
+                    return code == 0 || code >= 500;
+                })
+                .mapToLong(status -> status.getValue().sum())
+                .sum();
+    }
+
+    public void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        try (Writer writer = Files.newBufferedWriter(directory.resolve("summary.properties"), StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, String> entry : summary.entrySet()) {
+                writer.write(entry.getKey() + "=" + entry.getValue() + "\n");
+            }
+        }
+        StringBuilder report = new StringBuilder(String.format(Locale.ROOT, "%-8s %8s %10s %10s %10s %10s %10s%n",
+                "op", "count", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        generator.getResponseTimes().forEach((operation, histogram) -> {
+            if (histogram.getTotalCount() > 0) {
+                report.append(String.format(Locale.ROOT, "%-8s %8d %10.2f %10.2f %10.2f %10.2f %10.2f%n",
+                        operation.name().toLowerCase(), histogram.getTotalCount(),
+                        millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                        millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                        millis(histogram.getMaxValue())));
+                writeDistribution(directory.resolve(operation.name().toLowerCase() + ".hgrm"), histogram);
+            }
+        });
+        report.append(String.format(Locale.ROOT, "%nthroughput %s req/s, %s requests%n",
+                summary.get("total.throughput"), summary.get("total.requests")));
+        Files.write(directory.resolve("report.txt"), report.toString().getBytes(StandardCharsets.UTF_8));
+        System.out.print(report);
+    }
+
+    private void add(String operation, Histogram histogram, String kind) {
+        String prefix = operation + "." + kind + ".";
+        summary.put(operation + ".count", String.valueOf(histogram.getTotalCount()));
+        for (double percentile : PERCENTILES) {
+            summary.put(prefix + "p" + format(percentile).replace(".0", "") + "-ms", formatMillis(histogram.getValueAtPercentile(percentile)));
+        }
+        summary.put(prefix + "max-ms", formatMillis(histogram.getMaxValue()));
+    }
+
+    private static void writeDistribution(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(new FileOutputStream(file.toFile()), false, "UTF-8")) {
+            histogram.outputPercentileDistribution(out, (double) TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", millis(nanos));
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+}
@@ -0,0 +1,123 @@
+package com.udemy.springboottest.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator: requests are scheduled at a fixed arrival rate whether or not
+ * earlier ones have completed, and each request's response time is measured from the moment
+ * it was scheduled to start. A stalled server therefore shows up as queueing delay in the
+ * percentiles instead of silently lowering the offered load (coordinated omission). The
+ * service time, measured from the actual send, is recorded alongside for comparison.
+ */
+public class OpenLoadGenerator {
+
+    /**
+     * Runs one request and returns its HTTP status; thrown exceptions count as status 0.
+     */
+    public interface Request {
+        int execute(LoadMix.Operation operation) throws Exception;
+    }
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(2);
+
+    private final LoadMix mix;
+
+    private final Request request;
+
+    private final int workers;
+
+    private final Map<LoadMix.Operation, Histogram> responseTimes = new EnumMap<>(LoadMix.Operation.class);
+
+    private final Map<LoadMix.Operation, Histogram> serviceTimes = new EnumMap<>(LoadMix.Operation.class);
+
+    private final Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    private final AtomicLong completed = new AtomicLong();
+
+    public OpenLoadGenerator(LoadMix mix, Request request, int workers) {
+        this.mix = mix;
+        this.request = request;
+        this.workers = workers;
+        for (LoadMix.Operation operation : LoadMix.Operation.values()) {
+            responseTimes.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3));
+            serviceTimes.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3));
+        }
+    }
+
+    /**
+     * Offers {@code ratePerSecond} requests per second for {@code durationSeconds} and waits
+     * for the stragglers; with {@code record} false the run only warms the server up.
+     *
+     * @return the wall-clock nanoseconds from the first scheduled request to the last completion
+     */
+    public long run(double ratePerSecond, int durationSeconds, boolean record) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        Random random = new Random(42);
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        long total = (long) (ratePerSecond * durationSeconds);
+        long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long intendedStart = start + i * intervalNanos;
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            LoadMix.Operation operation = mix.pick(random);
+            executor.execute(() -> execute(operation, intendedStart, record));
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(5, TimeUnit.MINUTES)) {
+            executor.shutdownNow();
+            throw new IllegalStateException("Load test requests did not finish within 5 minutes");
+        }
+        return System.nanoTime() - start;
+    }
+
+    public Map<LoadMix.Operation, Histogram> getResponseTimes() {
+        return responseTimes;
+    }
+
+    public Map<LoadMix.Operation, Histogram> getServiceTimes() {
+        return serviceTimes;
+    }
+
+    public Map<String, LongAdder> getStatuses() {
+        return statuses;
+    }
+
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    private void execute(LoadMix.Operation operation, long intendedStart, boolean record) {
+        long sendStart = System.nanoTime();
+        int status;
+        try {
+            status = request.execute(operation);
+        } catch (EmployeeApiClient.UnexpectedStatusException e) {
+            status = e.getStatus();
+        } catch (Exception e) {
+            status = 0;
+        }
+        long end = System.nanoTime();
+        if (!record) {
+            return;
+        }
+        responseTimes.get(operation).recordValue(Math.min(end - intendedStart, HIGHEST_TRACKABLE_NANOS));
+        serviceTimes.get(operation).recordValue(Math.min(end - sendStart, HIGHEST_TRACKABLE_NANOS));
+        statuses.computeIfAbsent(operation.name().toLowerCase() + "." + status, key -> new LongAdder()).increment();
+        completed.incrementAndGet();
+    }
+}
@@ -0,0 +1,88 @@
+package com.udemy.springboottest.perf;
+
+import com.udemy.springboottest.exception.EmployeeAlreadyExistsException;
+import com.udemy.springboottest.exception.ResourceNotFoundException;
+import com.udemy.springboottest.model.Employee;
+import com.udemy.springboottest.repository.EmployeeRepository;
+import com.udemy.springboottest.service.impl.EmployeeServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Cost of the exception a duplicate create is rejected with. Both scenarios throw and catch
+ * an exception {@value #FRAMES} frames deep, about the depth of a servlet request, and differ
+ * only in its type: the stackless {@link EmployeeAlreadyExistsException} that
+ * {@link EmployeeServiceImpl} throws, checked once against a repository stub that always finds
+ * the email, or {@link ResourceNotFoundException}, which captures its stack trace. Run with
+ * {@code ./gradlew perfTest}.
+ */
+@Tag("perf")
+public class DuplicateCreatePerfTests {
+
+    private static final int FRAMES = 120;
+
+    private static final int OPERATIONS = Integer.getInteger("perf.operations", 5000) * 20;
+
+    private final PerfRunner runner = new PerfRunner(Integer.getInteger("perf.threads", 8));
+
+    private final Employee existing = Employee.builder()
+            .id(1L)
+            .firstName("Fuad")
+            .lastName("Aliyev")
+            .email("fuad@gmail.com")
+            .build();
+
+    @DisplayName("Performance of rejecting a duplicate create")
+    @Test
+    public void duplicateCreate() throws Exception {
+        //given - precondition or setup
+        EmployeeServiceImpl employeeService = new EmployeeServiceImpl(repositoryFinding(existing), event -> {
+        });
+        assertThatThrownBy(() -> employeeService.saveEmployee(existing.toBuilder().id(null).build()))
+                .isInstanceOf(EmployeeAlreadyExistsException.class);
+        //when - action or the behaviour that we are going to test
+        PerfResult stackless = runner.run("duplicateCreate", OPERATIONS,
+                op -> throwAtDepth(() -> new EmployeeAlreadyExistsException(existing.getEmail())));
+        PerfResult withStackTrace = runner.run("duplicateCreateWithStackTrace", OPERATIONS,
+                op -> throwAtDepth(() -> new ResourceNotFoundException("Employee already exists with given email: "
+                        + existing.getEmail())));
+        //then - verify the output
+        assertThat(stackless.getThroughputPerSecond()).isGreaterThan(withStackTrace.getThroughputPerSecond());
+    }
+
+    private static void throwAtDepth(Supplier<RuntimeException> exception) {
+        atDepth(FRAMES, () -> {
+            try {
+                throw exception.get();
+            } catch (RuntimeException expected) {
+                // rejected
+            }
+        });
+    }
+
+    private static void atDepth(int frames, Runnable action) {
+        if (frames == 0) {
+            action.run();
+        } else {
+            atDepth(frames - 1, action);
+        }
+    }
+
+    private static EmployeeRepository repositoryFinding(Employee employee) {
+        return (EmployeeRepository) Proxy.newProxyInstance(EmployeeRepository.class.getClassLoader(),
+                new Class<?>[]{EmployeeRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findByEmail")) {
+                        return Optional.of(employee);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,209 @@
+package com.udemy.springboottest.perf;
+
+import com.udemy.springboottest.integration.EmbeddedPostgresInitializer;
+import com.udemy.springboottest.model.Employee;
+import com.udemy.springboottest.repository.EmployeeRepository;
+import com.udemy.springboottest.tenant.TenantContext;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput and latency of every {@link EmployeeRepository} method against an embedded
+ * PostgreSQL seeded with {@code perf.rows} employees across {@value #TENANTS} tenants.
+ * Run with {@code ./gradlew perfTest}; tune with {@code -Dperf.rows}, {@code -Dperf.threads},
+ * {@code -Dperf.operations} and {@code -Dperf.tolerance}. Each run writes its numbers to
+ * {@code build/perf/repository-results.properties}; a scenario without a stored baseline fails
+ * unless the run is started with {@code -Dperf.record=true} to record one.
+ */
+@Tag("perf")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class EmployeeRepositoryPerfTests {
+
+    private static final int ROWS = Integer.getInteger("perf.rows", 1_000_000);
+
+    private static final int TENANTS = 10;
+
+    private static final int NAMES = 100_000;
+
+    private static final int OPERATIONS = Integer.getInteger("perf.operations", 5000);
+
+    private static final Instant SEEDED_AT = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final PerfRunner runner = new PerfRunner(Integer.getInteger("perf.threads", 8));
+
+    private final AtomicLong newEmployees = new AtomicLong();
+
+    private PerfBaseline baseline;
+
+    @BeforeAll
+    public void seed() throws Exception {
+        baseline = new PerfBaseline("perf/repository-baseline.properties",
+                Double.parseDouble(System.getProperty("perf.tolerance", "0.3")), Boolean.getBoolean("perf.record"));
+        jdbcTemplate.update("truncate table employees restart identity");
+        // row g: tenant g % 10, name pair g % 100000, updated g seconds before seeding, every 50th deleted a month ago
+        jdbcTemplate.update("insert into employees (first_name, last_name, email, created_at, updated_at, deleted_at, tenant_id) " +
+                "select 'First' || (g % " + NAMES + "), 'Last' || (g % " + NAMES + "), 'employee' || g || '@example.com', " +
+                "?::timestamp - g * interval '1 second', ?::timestamp - g * interval '1 second', " +
+                "case when g % 50 = 0 then ?::timestamp - interval '30 days' end, 'tenant' || (g % " + TENANTS + ") " +
+                "from generate_series(1, ?) g",
+                SEEDED_AT.toString(), SEEDED_AT.toString(), SEEDED_AT.toString(), ROWS);
+        jdbcTemplate.execute("analyze employees");
+    }
+
+    @AfterAll
+    public void writeResults() throws Exception {
+        baseline.writeResults(Paths.get("build", "perf", "repository-results.properties"));
+    }
+
+    @DisplayName("Performance of findById")
+    @Test
+    public void findById() throws Exception {
+        measure("findById", OPERATIONS, op -> asTenantOf(randomRow(), g -> employeeRepository.findById((long) g)));
+    }
+
+    @DisplayName("Performance of findByEmail")
+    @Test
+    public void findByEmail() throws Exception {
+        measure("findByEmail", OPERATIONS,
+                op -> asTenantOf(randomRow(), g -> employeeRepository.findByEmail("employee" + g + "@example.com")));
+    }
+
+    @DisplayName("Performance of findByJPQL")
+    @Test
+    public void findByJPQL() throws Exception {
+        measure("findByJPQL", OPERATIONS,
+                op -> asTenantOf(randomRow(), g -> employeeRepository.findByJPQL(firstName(g), lastName(g))));
+    }
+
+    @DisplayName("Performance of findByJPQLNamedParams")
+    @Test
+    public void findByJPQLNamedParams() throws Exception {
+        measure("findByJPQLNamedParams", OPERATIONS,
+                op -> asTenantOf(randomRow(), g -> employeeRepository.findByJPQLNamedParams(firstName(g), lastName(g))));
+    }
+
+    @DisplayName("Performance of findByNativeSQL")
+    @Test
+    public void findByNativeSQL() throws Exception {
+        measure("findByNativeSQL", OPERATIONS,
+                op -> asTenantOf(randomRow(), g -> employeeRepository.findByNativeSQL(firstName(g), lastName(g))));
+    }
+
+    @DisplayName("Performance of findByNativeSQLNamed")
+    @Test
+    public void findByNativeSQLNamed() throws Exception {
+        measure("findByNativeSQLNamed", OPERATIONS,
+                op -> asTenantOf(randomRow(), g -> employeeRepository.findByNativeSQLNamed(firstName(g), lastName(g))));
+    }
+
+    @DisplayName("Performance of findModifiedSince with 1000 row pages")
+    @Test
+    public void findModifiedSince() throws Exception {
+        measure("findModifiedSince", OPERATIONS / 10, op -> asTenantOf(randomRow(), g -> employeeRepository
+                .findModifiedSince(SEEDED_AT.minusSeconds(g), 0L, SEEDED_AT, PageRequest.of(0, 1000))));
+    }
+
+    @DisplayName("Performance of findAll for one tenant")
+    @Test
+    public void findAll() throws Exception {
+        measure("findAll", Math.max(5, OPERATIONS / 500), op -> asTenantOf(randomRow(), g -> employeeRepository.findAll()));
+    }
+
+    @DisplayName("Performance of countForTenant")
+    @Test
+    public void countForTenant() throws Exception {
+        measure("countForTenant", Math.max(5, OPERATIONS / 500), op -> asTenantOf(randomRow(), g -> employeeRepository.countForTenant()));
+    }
+
+    @DisplayName("Performance of countByEmailDomain for one tenant")
+    @Test
+    public void countByEmailDomain() throws Exception {
+        measure("countByEmailDomain", Math.max(5, OPERATIONS / 500),
+                op -> asTenantOf(randomRow(), g -> employeeRepository.countByEmailDomain()));
+    }
+
+    @DisplayName("Performance of countByLastNameInitial for one tenant")
+    @Test
+    public void countByLastNameInitial() throws Exception {
+        measure("countByLastNameInitial", Math.max(5, OPERATIONS / 500),
+                op -> asTenantOf(randomRow(), g -> employeeRepository.countByLastNameInitial()));
+    }
+
+    @DisplayName("Performance of save")
+    @Test
+    public void save() throws Exception {
+        measure("save", OPERATIONS, op -> asTenantOf(randomRow(), g -> employeeRepository.save(Employee.builder()
+                .firstName("New")
+                .lastName("Employee")
+                .email("new" + newEmployees.incrementAndGet() + "@example.com")
+                .build())));
+    }
+
+    @DisplayName("Performance of softDeleteById")
+    @Test
+    public void softDeleteById() throws Exception {
+        measure("softDeleteById", OPERATIONS, op -> asTenantOf(randomRow(), g -> employeeRepository.softDeleteById((long) g, Instant.now())));
+    }
+
+    @DisplayName("Performance of purgeDeletedBefore with 500 row batches")
+    @Test
+    public void purgeDeletedBefore() throws Exception {
+        Instant cutoff = SEEDED_AT.minus(7, ChronoUnit.DAYS);
+        measure("purgeDeletedBefore", Math.max(5, ROWS / 50 / 500 / 2),
+                op -> employeeRepository.purgeDeletedBefore(cutoff, 500));
+    }
+
+    private void measure(String scenario, int operations, IntConsumer operation) throws Exception {
+        //when - action or the behaviour that we are going to test
+        PerfResult result = runner.run(scenario, operations, operation);
+        //then - verify the output
+        assertThat(baseline.regressions(result)).isEmpty();
+    }
+
+    private static int randomRow() {
+        return ThreadLocalRandom.current().nextInt(1, ROWS + 1);
+    }
+
+    private static void asTenantOf(int row, IntConsumer action) {
+        TenantContext.runAs("tenant" + (row % TENANTS), () -> action.accept(row));
+    }
+
+    private static String firstName(int row) {
+        return "First" + (row % NAMES);
+    }
+
+    private static String lastName(int row) {
+        return "Last" + (row % NAMES);
+    }
+}
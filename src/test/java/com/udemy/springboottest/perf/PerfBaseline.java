@@ -0,0 +1,72 @@
+package com.udemy.springboottest.perf;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Stored expectations per scenario ({@code <scenario>.p99-ms} and {@code <scenario>.throughput})
+ * from {@code perf/repository-baseline.properties}. A result regresses when its p99 latency
+ * or throughput is worse than the baseline by more than the tolerance. A scenario without a
+ * baseline fails too, unless the run only records numbers for a new baseline.
+ */
+public class PerfBaseline {
+
+    private final Properties baseline = new Properties();
+
+    private final Properties results = new Properties();
+
+    private final double tolerance;
+
+    private final boolean recording;
+
+    public PerfBaseline(String resource, double tolerance, boolean recording) throws IOException {
+        this.tolerance = tolerance;
+        this.recording = recording;
+        try (InputStream in = PerfBaseline.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in != null) {
+                baseline.load(in);
+            }
+        }
+    }
+
+    public List<String> regressions(PerfResult result) {
+        String scenario = result.getScenario();
+        results.setProperty(scenario + ".p99-ms", String.format(Locale.ROOT, "%.3f", result.getP99Millis()));
+        results.setProperty(scenario + ".throughput", String.format(Locale.ROOT, "%.1f", result.getThroughputPerSecond()));
+        List<String> regressions = new ArrayList<>();
+        String p99 = baseline.getProperty(scenario + ".p99-ms");
+        String throughput = baseline.getProperty(scenario + ".throughput");
+        if (recording) {
+            return regressions;
+        }
+        if (p99 == null || throughput == null) {
+            regressions.add(scenario + " has no baseline; record one with -Dperf.record=true");
+        }
+        if (p99 != null && result.getP99Millis() > Double.parseDouble(p99) * (1 + tolerance)) {
+            regressions.add(String.format(Locale.ROOT, "%s p99 %.3f ms exceeds baseline %s ms", scenario, result.getP99Millis(), p99));
+        }
+        if (throughput != null && result.getThroughputPerSecond() < Double.parseDouble(throughput) * (1 - tolerance)) {
+            regressions.add(String.format(Locale.ROOT, "%s throughput %.1f ops/s below baseline %s ops/s", scenario,
+                    result.getThroughputPerSecond(), throughput));
+        }
+        return regressions;
+    }
+
+    /**
+     * Writes this run's numbers in the baseline format, ready to replace the stored baseline.
+     */
+    public void writeResults(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            results.store(writer, "Repository performance results");
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.udemy.springboottest.perf;
+
+import lombok.Value;
+
+import java.util.Locale;
+
+@Value
+public class PerfResult {
+    String scenario;
+    int operations;
+    double throughputPerSecond;
+    double p50Millis;
+    double p99Millis;
+    double maxMillis;
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%-28s %8d ops %10.1f ops/s  p50 %8.3f ms  p99 %8.3f ms  max %8.3f ms",
+                scenario, operations, throughputPerSecond, p50Millis, p99Millis, maxMillis);
+    }
+}
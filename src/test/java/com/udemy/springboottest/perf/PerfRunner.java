@@ -0,0 +1,72 @@
+package com.udemy.springboottest.perf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Runs a scenario as a closed loop: {@code threads} workers take operation numbers from a
+ * shared counter until {@code operations} have run, after a warm-up that is not recorded.
+ */
+public class PerfRunner {
+
+    private final int threads;
+
+    public PerfRunner(int threads) {
+        this.threads = threads;
+    }
+
+    public PerfResult run(String scenario, int operations, IntConsumer operation) throws Exception {
+        execute(Math.max(1, operations / 10), operation, new long[operations]);
+        long[] latencies = new long[operations];
+        long start = System.nanoTime();
+        execute(operations, operation, latencies);
+        long elapsed = System.nanoTime() - start;
+        Arrays.sort(latencies);
+        PerfResult result = new PerfResult(scenario, operations,
+                operations / (elapsed / (double) TimeUnit.SECONDS.toNanos(1)),
+                millis(percentile(latencies, 0.50)),
+                millis(percentile(latencies, 0.99)),
+                millis(latencies[latencies.length - 1]));
+        System.out.println(result);
+        return result;
+    }
+
+    private void execute(int operations, IntConsumer operation, long[] latencies) throws Exception {
+        int workers = Math.min(threads, operations);
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        AtomicInteger next = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int op = next.getAndIncrement(); op < operations; op = next.getAndIncrement()) {
+                        long start = System.nanoTime();
+                        operation.accept(op);
+                        latencies[op] = System.nanoTime() - start;
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
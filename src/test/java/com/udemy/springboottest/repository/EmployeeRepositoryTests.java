@@ -1,6 +1,7 @@
 package com.udemy.springboottest.repository;
 
 import com.udemy.springboottest.model.Employee;
+import com.udemy.springboottest.tenant.TenantContext;
 import static org.assertj.core.api.Assertions.*;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -8,9 +9,20 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.jpa.JpaObjectRetrievalFailureException;
 
+import javax.persistence.EntityNotFoundException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @DataJpaTest
 public class EmployeeRepositoryTests {
@@ -217,4 +229,118 @@ public class EmployeeRepositoryTests {
         //then - verify the output
         assertThat(savedEmployee).isNotNull();
     }
+
+    //Junit test for soft deleted employee hidden from queries
+    @DisplayName("Junit test for soft deleted employee hidden from queries")
+    @Test
+    public void givenSoftDeletedEmployee_whenFind_thenEmployeeNotReturned() {
+        //given - precondition or setup
+        employeeRepository.save(employee);
+        //when - action or the behaviour that we are going to test
+        int deleted = employeeRepository.softDeleteById(employee.getId(), Instant.now());
+        //then - verify the output
+        assertThat(deleted).isEqualTo(1);
+        assertThat(employeeRepository.findById(employee.getId())).isEmpty();
+        assertThat(employeeRepository.findByEmail(employee.getEmail())).isEmpty();
+        assertThat(employeeRepository.findAll()).isEmpty();
+        assertThat(employeeRepository.findByNativeSQL(employee.getFirstName(), employee.getLastName())).isNull();
+        assertThat(employeeRepository.findByNativeSQLNamed(employee.getFirstName(), employee.getLastName())).isNull();
+    }
+
+    //Junit test for purging tombstones
+    @DisplayName("Junit test for purging tombstones")
+    @Test
+    public void givenSoftDeletedEmployee_whenPurgeDeletedBefore_thenRowRemoved() {
+        //given - precondition or setup
+        employeeRepository.save(employee);
+        employeeRepository.softDeleteById(employee.getId(), Instant.now().minusSeconds(60));
+        //when - action or the behaviour that we are going to test
+        int purged = employeeRepository.purgeDeletedBefore(Instant.now(), 10);
+        //then - verify the output
+        assertThat(purged).isEqualTo(1);
+        assertThat(employeeRepository.purgeDeletedBefore(Instant.now(), 10)).isZero();
+    }
+
+    //Junit test for grouped employee counts
+    @DisplayName("Junit test for grouped employee counts")
+    @Test
+    public void givenEmployees_whenCountByGroups_thenCountsPerEmailDomainAndInitial() {
+        //given - precondition or setup
+        employeeRepository.save(employee);
+        employeeRepository.save(Employee.builder().firstName("John").lastName("Johnson").email("john@Gmail.com").build());
+        Employee deleted = employeeRepository.save(Employee.builder().firstName("Ann").lastName("Adams").email("ann@yahoo.com").build());
+        employeeRepository.softDeleteById(deleted.getId(), Instant.now());
+        //when - action or the behaviour that we are going to test
+        long total = employeeRepository.countForTenant();
+        List<Object[]> byDomain = employeeRepository.countByEmailDomain();
+        List<Object[]> byInitial = employeeRepository.countByLastNameInitial();
+        //then - verify the output
+        assertThat(total).isEqualTo(2);
+        assertThat(byDomain).hasSize(1);
+        assertThat(byDomain.get(0)).containsExactly("gmail.com", 2L);
+        assertThat(byInitial).extracting(row -> row[0]).containsExactlyInAnyOrder("A", "J");
+    }
+
+    //Junit test for selecting only requested employee fields
+    @DisplayName("Junit test for selecting only requested employee fields")
+    @Test
+    public void givenFields_whenFindFields_thenOnlyRequestedAttributesReturned() {
+        //given - precondition or setup
+        employeeRepository.save(employee);
+        Employee deleted = employeeRepository.save(Employee.builder().firstName("Ann").lastName("Adams").email("ann@yahoo.com").build());
+        employeeRepository.softDeleteById(deleted.getId(), Instant.now());
+        Set<String> fields = new LinkedHashSet<>(Arrays.asList("email", "id"));
+        //when - action or the behaviour that we are going to test
+        List<Map<String, Object>> all = employeeRepository.findAllFields(fields);
+        Optional<Map<String, Object>> one = employeeRepository.findFieldsById(employee.getId(), fields);
+        //then - verify the output
+        assertThat(all).hasSize(1);
+        assertThat(all.get(0)).containsOnlyKeys("email", "id");
+        assertThat(one).isPresent();
+        assertThat(one.get().keySet()).containsExactly("email", "id");
+        assertThat(one.get()).containsEntry("email", "fuad@gmail.com").containsEntry("id", employee.getId());
+        assertThat(employeeRepository.findFieldsById(deleted.getId(), fields)).isEmpty();
+    }
+
+    //Junit test for paging live employees by id
+    @DisplayName("Junit test for paging live employees by id")
+    @Test
+    public void givenEmployees_whenFindPageAfterId_thenLiveEmployeesInIdOrder() {
+        //given - precondition or setup
+        employeeRepository.save(employee);
+        Employee deleted = employeeRepository.save(Employee.builder().firstName("Ann").lastName("Adams").email("ann@yahoo.com").build());
+        Employee last = employeeRepository.save(Employee.builder().firstName("John").lastName("Johnson").email("john@gmail.com").build());
+        employeeRepository.softDeleteById(deleted.getId(), Instant.now());
+        //when - action or the behaviour that we are going to test
+        List<Employee> first = employeeRepository.findPageAfterId(0L, PageRequest.of(0, 1));
+        List<Employee> rest = employeeRepository.findPageAfterId(first.get(0).getId(), PageRequest.of(0, 10));
+        //then - verify the output
+        assertThat(first).extracting(Employee::getId).containsExactly(employee.getId());
+        assertThat(rest).extracting(Employee::getId).containsExactly(last.getId());
+    }
+
+    //Junit test for inherited repository methods scoped to the current tenant
+    @DisplayName("Junit test for inherited repository methods scoped to the current tenant")
+    @Test
+    public void givenEmployeeOfOtherTenant_whenInheritedMethods_thenEmployeeInvisible() {
+        //given - precondition or setup
+        Employee other = TenantContext.callAs("acme", () -> employeeRepository.save(employee));
+        List<Long> ids = Collections.singletonList(other.getId());
+        //when - action or the behaviour that we are going to test
+        Throwable getById = catchThrowable(() -> employeeRepository.getById(other.getId()));
+        Throwable deleteById = catchThrowable(() -> employeeRepository.deleteById(other.getId()));
+        employeeRepository.deleteAllByIdInBatch(ids);
+        employeeRepository.deleteAll();
+        //then - verify the output
+        assertThat(employeeRepository.count()).isZero();
+        assertThat(employeeRepository.existsById(other.getId())).isFalse();
+        assertThat(employeeRepository.findAllById(ids)).isEmpty();
+        assertThat(employeeRepository.findAll(PageRequest.of(0, 10))).isEmpty();
+        assertThat(employeeRepository.findAll(Sort.by("id"))).isEmpty();
+        assertThat(getById).isInstanceOf(JpaObjectRetrievalFailureException.class)
+                .hasCauseInstanceOf(EntityNotFoundException.class);
+        assertThat(deleteById).isInstanceOf(EmptyResultDataAccessException.class);
+        assertThat(TenantContext.callAs("acme", () -> employeeRepository.count())).isEqualTo(1);
+        assertThat(TenantContext.callAs("acme", () -> employeeRepository.existsById(other.getId()))).isTrue();
+    }
 }
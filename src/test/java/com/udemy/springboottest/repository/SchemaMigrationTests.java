@@ -0,0 +1,87 @@
+package com.udemy.springboottest.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SchemaMigrationTests {
+
+    private static final String LOCATION = "classpath:db/migration/postgresql";
+
+    private static EmbeddedPostgres postgres;
+
+    @BeforeAll
+    public static void startDatabase() throws IOException {
+        postgres = EmbeddedPostgres.start();
+    }
+
+    @AfterAll
+    public static void stopDatabase() throws IOException {
+        postgres.close();
+    }
+
+    //Junit test for applying the migrations to an empty database
+    @DisplayName("Junit test for applying the migrations to an empty database")
+    @Test
+    public void givenEmptyDatabase_whenMigrate_thenSchemaAndValidIndexesCreated() {
+        //given - precondition or setup
+        DataSource dataSource = database("empty_schema");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        //when - action or the behaviour that we are going to test
+        MigrateResult result = Flyway.configure().dataSource(dataSource).locations(LOCATION).load().migrate();
+        //then - verify the output
+        assertThat(result.migrationsExecuted).isEqualTo(12);
+        assertThat(indexes(jdbcTemplate)).contains("idx_employees_tenant_email", "idx_employees_tenant_updated_at_id",
+                "idx_employees_tenant_name", "idx_employees_deleted_at").doesNotContain("idx_employees_updated_at_id");
+        assertThat(jdbcTemplate.queryForObject("select count(*) from pg_index where not indisvalid", Long.class)).isZero();
+        jdbcTemplate.update("insert into employees (first_name, last_name, email) values ('Fuad', 'Aliyev', 'fuad@gmail.com')");
+        assertThat(jdbcTemplate.queryForObject("select tenant_id from employees", String.class)).isEqualTo("default");
+        assertThatThrownBy(() -> jdbcTemplate.update("insert into employees (first_name, last_name, email) " +
+                "values ('Fuad', 'Aliyev', 'fuad@gmail.com')")).isInstanceOf(DuplicateKeyException.class);
+        jdbcTemplate.update("update employees set deleted_at = now()");
+        jdbcTemplate.update("insert into employees (first_name, last_name, email) values ('Fuad', 'Aliyev', 'fuad@gmail.com')");
+    }
+
+    //Junit test for upgrading a database created before the migrations existed
+    @DisplayName("Junit test for upgrading a database created before the migrations existed")
+    @Test
+    public void givenSchemaWithoutHistory_whenMigrate_thenBaselinedAndUpgraded() {
+        //given - precondition or setup
+        DataSource dataSource = database("legacy_schema");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        Flyway.configure().dataSource(dataSource).locations(LOCATION).target("1").load().migrate();
+        jdbcTemplate.execute("drop table flyway_schema_history");
+        jdbcTemplate.update("insert into employees (first_name, last_name, email) values ('Fuad', 'Aliyev', 'fuad@gmail.com')");
+        jdbcTemplate.update("insert into employees (first_name, last_name, email) values ('Fuad', 'Aliyev', 'fuad@gmail.com')");
+        //when - action or the behaviour that we are going to test
+        MigrateResult result = Flyway.configure().dataSource(dataSource).locations(LOCATION)
+                .baselineOnMigrate(true).baselineVersion("1").load().migrate();
+        //then - verify the output
+        assertThat(result.migrationsExecuted).isEqualTo(11);
+        assertThat(jdbcTemplate.queryForList("select tenant_id from employees where deleted_at is null", String.class))
+                .containsExactly("default");
+        assertThat(indexes(jdbcTemplate)).contains("idx_employees_tenant_updated_at_id", "uq_employees_tenant_live_email");
+    }
+
+    private static DataSource database(String name) {
+        new JdbcTemplate(postgres.getPostgresDatabase()).execute("create database " + name);
+        return postgres.getDatabase("postgres", name);
+    }
+
+    private static List<String> indexes(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForList("select indexname from pg_indexes where tablename = 'employees'", String.class);
+    }
+}
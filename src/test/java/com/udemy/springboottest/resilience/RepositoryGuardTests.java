@@ -0,0 +1,130 @@
+package com.udemy.springboottest.resilience;
+
+import com.udemy.springboottest.exception.BulkheadFullException;
+import com.udemy.springboottest.exception.CircuitOpenException;
+import com.udemy.springboottest.model.Employee;
+import com.udemy.springboottest.repository.EmployeeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = {
+        "employee.repository.timeout.read-seconds=1",
+        "employee.repository.circuit.window-size=2",
+        "employee.repository.circuit.minimum-calls=2",
+        "employee.repository.circuit.open-ms=60000",
+        "employee.repository.bulkhead.read.max-concurrent=1",
+        "employee.repository.bulkhead.write.max-concurrent=1",
+        "employee.repository.bulkhead.max-wait-ms=0"
+})
+@Import(RepositoryGuardConfiguration.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class RepositoryGuardTests {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setup() {
+        SlowSelectTrigger.delayMillis = 0;
+        SlowSelectTrigger.entered = new CountDownLatch(1);
+        jdbcTemplate.execute("create trigger if not exists slow_employee_reads before select on employees call \""
+                + SlowSelectTrigger.class.getName() + "\"");
+        jdbcTemplate.execute("create trigger if not exists slow_employee_updates before update on employees call \""
+                + SlowSelectTrigger.class.getName() + "\"");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SlowSelectTrigger.delayMillis = 0;
+    }
+
+    //Junit test for timing out slow queries and opening the circuit
+    @DisplayName("Junit test for timing out slow queries and opening the circuit")
+    @Test
+    public void givenSlowDatabase_whenQueriesTimeOut_thenCircuitOpensAndFailsFast() {
+        //given - precondition or setup
+        employeeRepository.save(Employee.builder().firstName("Fuad").lastName("Aliyev").email("fuad@gmail.com").build());
+        SlowSelectTrigger.delayMillis = 1500;
+        //when - action or the behaviour that we are going to test
+        assertThatThrownBy(() -> employeeRepository.findByEmail("fuad@gmail.com")).isInstanceOf(DataAccessException.class);
+        assertThatThrownBy(() -> employeeRepository.findByEmail("fuad@gmail.com")).isInstanceOf(DataAccessException.class);
+        SlowSelectTrigger.delayMillis = 0;
+        long start = System.nanoTime();
+        //then - verify the output
+        assertThatThrownBy(() -> employeeRepository.findByEmail("fuad@gmail.com")).isInstanceOf(CircuitOpenException.class);
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.MILLISECONDS.toNanos(500));
+    }
+
+    //Junit test for keeping reads and writes in separate bulkheads
+    @DisplayName("Junit test for keeping reads and writes in separate bulkheads")
+    @Test
+    public void givenReadBulkheadFull_whenReadAndWrite_thenReadRejectedAndWriteServed() throws Exception {
+        //given - precondition or setup
+        SlowSelectTrigger.delayMillis = 800;
+        CompletableFuture<?> slowRead = CompletableFuture.runAsync(() -> employeeRepository.findByEmail("slow@gmail.com"));
+        assertThat(SlowSelectTrigger.entered.await(5, TimeUnit.SECONDS)).isTrue();
+        //when - action or the behaviour that we are going to test
+        Employee saved = employeeRepository.save(Employee.builder().firstName("Fuad").lastName("Aliyev").email("fuad@gmail.com").build());
+        //then - verify the output
+        assertThatThrownBy(() -> employeeRepository.findByEmail("fuad@gmail.com")).isInstanceOf(BulkheadFullException.class);
+        assertThat(saved.getId()).isNotNull();
+        slowRead.get(5, TimeUnit.SECONDS);
+    }
+
+    //Junit test for serving scheduled jobs from their own bulkhead
+    @DisplayName("Junit test for serving scheduled jobs from their own bulkhead")
+    @Test
+    public void givenReadBulkheadFull_whenBackgroundRead_thenServed() throws Exception {
+        //given - precondition or setup
+        employeeRepository.save(Employee.builder().firstName("Fuad").lastName("Aliyev").email("fuad@gmail.com").build());
+        SlowSelectTrigger.delayMillis = 800;
+        CompletableFuture<?> slowRead = CompletableFuture.runAsync(() -> employeeRepository.findByEmail("slow@gmail.com"));
+        assertThat(SlowSelectTrigger.entered.await(5, TimeUnit.SECONDS)).isTrue();
+        //when - action or the behaviour that we are going to test
+        Optional<Employee> found = RepositoryGuard.callInBackground(() -> employeeRepository.findByEmail("fuad@gmail.com"));
+        //then - verify the output
+        assertThat(found).isPresent();
+        slowRead.get(5, TimeUnit.SECONDS);
+    }
+
+    //Junit test for running scheduled writes in the background bulkhead
+    @DisplayName("Junit test for running scheduled writes in the background bulkhead")
+    @Test
+    public void givenWriteBulkheadFull_whenBackgroundPurge_thenServed() throws Exception {
+        //given - precondition or setup
+        Employee tombstone = employeeRepository.save(Employee.builder().firstName("Fuad").lastName("Aliyev")
+                .email("fuad@gmail.com").build());
+        employeeRepository.softDeleteById(tombstone.getId(), Instant.now().minusSeconds(3600));
+        SlowSelectTrigger.delayMillis = 800;
+        SlowSelectTrigger.entered = new CountDownLatch(1);
+        CompletableFuture<?> slowWrite = CompletableFuture.runAsync(() -> employeeRepository.softDeleteById(-1L, Instant.now()));
+        assertThat(SlowSelectTrigger.entered.await(5, TimeUnit.SECONDS)).isTrue();
+        Instant cutoff = Instant.now().minusSeconds(60);
+        //when - action or the behaviour that we are going to test
+        assertThatThrownBy(() -> employeeRepository.purgeDeletedBefore(cutoff, 10)).isInstanceOf(BulkheadFullException.class);
+        int purged = RepositoryGuard.callInBackground(() -> employeeRepository.purgeDeletedBefore(cutoff, 10));
+        //then - verify the output
+        assertThat(purged).isEqualTo(1);
+        slowWrite.get(5, TimeUnit.SECONDS);
+    }
+}
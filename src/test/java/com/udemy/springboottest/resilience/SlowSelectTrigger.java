@@ -0,0 +1,39 @@
+package com.udemy.springboottest.resilience;
+
+import org.h2.api.Trigger;
+
+import java.sql.Connection;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * H2 {@code BEFORE SELECT} (or {@code BEFORE UPDATE}) trigger that makes every read (or
+ * update) of its table take {@link #delayMillis}, standing in for a slow or overloaded database.
+ */
+public class SlowSelectTrigger implements Trigger {
+
+    static volatile long delayMillis;
+
+    static volatile CountDownLatch entered = new CountDownLatch(1);
+
+    @Override
+    public void init(Connection conn, String schemaName, String triggerName, String tableName, boolean before, int type) {
+    }
+
+    @Override
+    public void fire(Connection conn, Object[] oldRow, Object[] newRow) {
+        entered.countDown();
+        try {
+            Thread.sleep(delayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void remove() {
+    }
+}
@@ -0,0 +1,99 @@
+package com.udemy.springboottest.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeSearchIndexTests {
+
+    @TempDir
+    Path tempDir;
+
+    private EmployeeSearchIndex index;
+
+    @BeforeEach
+    public void setup() {
+        index = new EmployeeSearchIndex();
+        index.put("acme", new IndexedEmployee(1, 0, "Fuad", "Aliyev", "fuad@gmail.com"));
+        index.put("acme", new IndexedEmployee(2, 0, "John", "Johnson", "john.johnson@yahoo.com"));
+        index.put("globex", new IndexedEmployee(3, 0, "Fuad", "Mammadov", "fuad@globex.com"));
+    }
+
+    //Junit test for searching with typos and prefixes
+    @DisplayName("Junit test for searching with typos and prefixes")
+    @Test
+    public void givenIndexedEmployees_whenSearchWithTyposAndPrefixes_thenMatchesRankedWithinTenant() {
+        //when - action or the behaviour that we are going to test
+        List<EmployeeSearchHit> exact = index.search("acme", "Fuad Aliyev", 10);
+        List<EmployeeSearchHit> typo = index.search("acme", "aliev", 10);
+        List<EmployeeSearchHit> transposed = index.search("acme", "jonh", 10);
+        List<EmployeeSearchHit> prefix = index.search("acme", "yah", 10);
+        List<EmployeeSearchHit> unrelated = index.search("acme", "mammadov", 10);
+        //then - verify the output
+        assertThat(exact).extracting(EmployeeSearchHit::getId).containsExactly(1L);
+        assertThat(exact.get(0).getScore()).isEqualTo(1.0);
+        assertThat(typo).extracting(EmployeeSearchHit::getId).containsExactly(1L);
+        assertThat(typo.get(0).getScore()).isLessThan(1.0);
+        assertThat(transposed).extracting(EmployeeSearchHit::getId).containsExactly(2L);
+        assertThat(prefix).extracting(EmployeeSearchHit::getId).containsExactly(2L);
+        assertThat(unrelated).isEmpty();
+        assertThat(index.search("globex", "fuad", 10)).extracting(EmployeeSearchHit::getId).containsExactly(3L);
+    }
+
+    //Junit test for searching a tenant where most employees share the query's common trigrams
+    @DisplayName("Junit test for searching a tenant where most employees share the query's common trigrams")
+    @Test
+    public void givenCommonTrigrams_whenSearch_thenRareMatchesStillFound() {
+        //given - precondition or setup
+        for (long id = 100; id < 5100; id++) {
+            index.put("acme", new IndexedEmployee(id, 0, "Employee", "Number" + id, "employee" + id + "@gmail.com"));
+        }
+        //when - action or the behaviour that we are going to test
+        List<EmployeeSearchHit> rareWithCommon = index.search("acme", "aliyev gmail", 10);
+        List<EmployeeSearchHit> typoWithCommon = index.search("acme", "fuad gmial", 10);
+        List<EmployeeSearchHit> onlyCommon = index.search("acme", "employee", 10);
+        //then - verify the output
+        assertThat(rareWithCommon).extracting(EmployeeSearchHit::getId).containsExactly(1L);
+        assertThat(typoWithCommon).extracting(EmployeeSearchHit::getId).containsExactly(1L);
+        assertThat(onlyCommon).hasSize(10);
+    }
+
+    //Junit test for applying updates, stale versions and removals
+    @DisplayName("Junit test for applying updates, stale versions and removals")
+    @Test
+    public void givenUpdatedEmployee_whenOlderVersionArrives_thenLatestVersionKept() {
+        //given - precondition or setup
+        index.put("acme", new IndexedEmployee(1, 2, "Farid", "Aliyev", "farid@gmail.com"));
+        //when - action or the behaviour that we are going to test
+        index.put("acme", new IndexedEmployee(1, 1, "Fuad", "Aliyev", "fuad@gmail.com"));
+        //then - verify the output
+        assertThat(index.search("acme", "fuad", 10)).isEmpty();
+        assertThat(index.search("acme", "farid", 10)).extracting(EmployeeSearchHit::getEmail).containsExactly("farid@gmail.com");
+        index.remove("acme", 1);
+        assertThat(index.search("acme", "aliyev", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    //Junit test for saving and loading the index
+    @DisplayName("Junit test for saving and loading the index")
+    @Test
+    public void givenSavedIndex_whenLoad_thenEmployeesAndCursorsRestored() throws Exception {
+        //given - precondition or setup
+        index.changeCursor("default", 42);
+        Path file = tempDir.resolve("employee-search.idx");
+        index.save(file);
+        //when - action or the behaviour that we are going to test
+        EmployeeSearchIndex loaded = EmployeeSearchIndex.load(file);
+        //then - verify the output
+        assertThat(loaded.size()).isEqualTo(3);
+        assertThat(loaded.changeCursor("default")).isEqualTo(42);
+        assertThat(loaded.changeCursor("other")).isZero();
+        assertThat(loaded.search("acme", "johnson", 10)).extracting(EmployeeSearchHit::getId).containsExactly(2L);
+    }
+}
@@ -0,0 +1,93 @@
+package com.udemy.springboottest.search;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.udemy.springboottest.importer.EmployeeRow;
+import com.udemy.springboottest.importer.EmployeesImportedEvent;
+import com.udemy.springboottest.integration.EmbeddedPostgresInitializer;
+import com.udemy.springboottest.repository.EmployeeChangeRepository;
+import com.udemy.springboottest.tenant.ShardingProperties;
+import com.udemy.springboottest.tenant.TenantContext;
+import com.udemy.springboottest.tenant.TenantShardRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class EmployeeSearchServiceTests {
+
+    private static final String TENANT = "search-test";
+
+    @TempDir
+    Path tempDir;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EmployeeChangeRepository changeRepository;
+
+    @BeforeEach
+    public void setup() {
+        jdbcTemplate.update("delete from employees where tenant_id = ?", TENANT);
+    }
+
+    //Junit test for an import served by one instance and searched on another
+    @DisplayName("Junit test for an import served by one instance and searched on another")
+    @Test
+    public void givenImportOnOtherInstance_whenRebuilt_thenImportedEmployeeFound() {
+        //given - precondition or setup
+        EmployeeSearchService importing = service("importing.idx");
+        importing.start();
+        importing.persist();
+        EmployeeSearchService other = service("importing.idx");
+        other.start();
+        jdbcTemplate.update("insert into employees (first_name, last_name, email, created_at, updated_at, tenant_id) " +
+                "values ('Zaur', 'Quliyev', 'zaur.quliyev@example.com', now(), now(), ?)", TENANT);
+        importing.onEmployeesImported(new EmployeesImportedEvent(TENANT,
+                Collections.singletonList(new EmployeeRow(1, "Zaur", "Quliyev", "zaur.quliyev@example.com"))));
+        other.follow();
+        List<EmployeeSearchHit> beforeRebuild = search(other, "quliyev");
+        //when - action or the behaviour that we are going to test
+        other.rebuild();
+        //then - verify the output
+        assertThat(search(importing, "quliyev")).extracting(EmployeeSearchHit::getEmail)
+                .containsExactly("zaur.quliyev@example.com");
+        assertThat(beforeRebuild).isEmpty();
+        assertThat(search(other, "quliyev")).extracting(EmployeeSearchHit::getEmail)
+                .containsExactly("zaur.quliyev@example.com");
+    }
+
+    private EmployeeSearchService service(String indexFile) {
+        return new EmployeeSearchService(changeRepository, new TenantShardRegistry(new ShardingProperties()),
+                new ObjectMapper(), dataSource, transactionManager, tempDir.resolve(indexFile).toString());
+    }
+
+    private static List<EmployeeSearchHit> search(EmployeeSearchService service, String query) {
+        return TenantContext.callAs(TENANT, () -> service.search(query, 10));
+    }
+}
@@ -1,6 +1,8 @@
 package com.udemy.springboottest.service;
 
+import com.udemy.springboottest.exception.EmployeeAlreadyExistsException;
 import com.udemy.springboottest.exception.ResourceNotFoundException;
+import com.udemy.springboottest.model.ChangeType;
 import com.udemy.springboottest.model.Employee;
 import com.udemy.springboottest.repository.EmployeeRepository;
 import com.udemy.springboottest.service.impl.EmployeeServiceImpl;
@@ -9,18 +11,29 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,6 +42,9 @@ public class EmployeeServiceTests {
     @Mock
     private EmployeeRepository employeeRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private EmployeeServiceImpl employeeService;
 
@@ -66,11 +82,25 @@ public class EmployeeServiceTests {
         //given - precondition or setup
         given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.of(employee));
         //when - action or the behaviour that we are going to test
-        Assertions.assertThrows(ResourceNotFoundException.class, () -> employeeService.saveEmployee(employee));
+        Assertions.assertThrows(EmployeeAlreadyExistsException.class, () -> employeeService.saveEmployee(employee));
         //then - verify the output
         verify(employeeRepository, never()).save(any(Employee.class));
     }
 
+    //Junit test for saveEmployee method racing with a concurrent create
+    @DisplayName("Junit test for saveEmployee method racing with a concurrent create")
+    @Test
+    public void givenConcurrentCreateOfEmail_whenSaveEmployee_thenThrowsException() {
+        //given - precondition or setup
+        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.empty());
+        given(employeeRepository.save(employee)).willThrow(new DataIntegrityViolationException(
+                "could not execute statement; constraint [uq_employees_tenant_live_email]"));
+        //when - action or the behaviour that we are going to test
+        Assertions.assertThrows(EmployeeAlreadyExistsException.class, () -> employeeService.saveEmployee(employee));
+        //then - verify the output
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
     //Junit test for get all employees
     @DisplayName("Junit test for get all employees")
     @Test
@@ -103,6 +133,22 @@ public class EmployeeServiceTests {
         assertThat(allEmployees.size()).isEqualTo(0);
     }
 
+    //Junit test for holding back recently modified employees from sync
+    @DisplayName("Junit test for holding back recently modified employees from sync")
+    @Test
+    public void givenModifiedSince_whenGetEmployeesModifiedSince_thenRecentChangesHeldBack() {
+        //given - precondition or setup
+        Instant since = Instant.parse("2022-04-01T00:00:00Z");
+        ArgumentCaptor<Instant> until = ArgumentCaptor.forClass(Instant.class);
+        given(employeeRepository.findModifiedSince(eq(since), eq(5L), until.capture(), any()))
+                .willReturn(Collections.singletonList(employee));
+        //when - action or the behaviour that we are going to test
+        List<Employee> employees = employeeService.getEmployeesModifiedSince(since, 5L, 50);
+        //then - verify the output
+        assertThat(employees).containsExactly(employee);
+        assertThat(until.getValue()).isBefore(Instant.now().minusSeconds(9));
+    }
+
     //Junit test for get employee by id
     @DisplayName("Junit test for get employee by id")
     @Test
@@ -115,6 +161,41 @@ public class EmployeeServiceTests {
         assertThat(savedEmployee).isNotNull();
     }
 
+    //Junit test for concurrent get employee by id sharing a single query
+    @DisplayName("Junit test for concurrent get employee by id sharing a single query")
+    @Test
+    public void givenConcurrentCallers_whenGetEmployeeById_thenRepositoryQueriedOnce() throws Exception {
+        //given - precondition or setup
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch releaseQuery = new CountDownLatch(1);
+        given(employeeRepository.findById(1L)).willAnswer(invocation -> {
+            queryStarted.countDown();
+            releaseQuery.await();
+            return Optional.of(employee);
+        });
+        Queue<Optional<Employee>> results = new ConcurrentLinkedQueue<>();
+        Runnable lookup = () -> results.add(employeeService.getEmployeeById(1L));
+        List<Thread> callers = new ArrayList<>();
+        Thread leader = new Thread(lookup);
+        callers.add(leader);
+        leader.start();
+        assertThat(queryStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 0; i < 7; i++) {
+            Thread follower = new Thread(lookup);
+            callers.add(follower);
+            follower.start();
+        }
+        //when - action or the behaviour that we are going to test
+        awaitAllWaiting(callers);
+        releaseQuery.countDown();
+        for (Thread caller : callers) {
+            caller.join(5000);
+        }
+        //then - verify the output
+        verify(employeeRepository, times(1)).findById(1L);
+        assertThat(results).hasSize(8).allMatch(Optional::isPresent);
+    }
+
     //Junit test for update employee
     @DisplayName("Junit test for update employee")
     @Test
@@ -128,16 +209,72 @@ public class EmployeeServiceTests {
         assertThat(updatedEmployee.getEmail()).isEqualTo("aliyev@gmail.com");
     }
 
+    //Junit test for update employee taking the email of another employee
+    @DisplayName("Junit test for update employee taking the email of another employee")
+    @Test
+    public void givenEmailOfOtherEmployee_whenUpdateEmployee_thenThrowsException() {
+        //given - precondition or setup
+        given(employeeRepository.save(employee)).willReturn(employee);
+        willThrow(new DataIntegrityViolationException(
+                "could not execute statement; constraint [uq_employees_tenant_live_email]"))
+                .given(employeeRepository).flush();
+        //when - action or the behaviour that we are going to test
+        Assertions.assertThrows(EmployeeAlreadyExistsException.class, () -> employeeService.updateEmployee(employee));
+        //then - verify the output
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
     //Junit test for delete employee
     @DisplayName("Junit test for delete employee")
     @Test
     public void givenEmployeeId_whenDeleteEmployee_thenNothing() {
         //given - precondition or setup
         Long employeeId = 1L;
-        willDoNothing().given(employeeRepository).deleteById(employeeId);
+        given(employeeRepository.softDeleteById(eq(employeeId), any(Instant.class))).willReturn(1);
+        //when - action or the behaviour that we are going to test
+        employeeService.deleteEmployee(employeeId);
+        //then - verify the output
+        verify(employeeRepository, times(1)).softDeleteById(eq(employeeId), any(Instant.class));
+        verify(employeeRepository, never()).deleteById(employeeId);
+    }
+
+    //Junit test for delete employee which throws exception
+    @DisplayName("Junit test for delete employee which throws exception")
+    @Test
+    public void givenMissingEmployeeId_whenDeleteEmployee_thenThrowsException() {
+        //given - precondition or setup
+        Long employeeId = 1L;
+        given(employeeRepository.softDeleteById(eq(employeeId), any(Instant.class))).willReturn(0);
+        //when - action or the behaviour that we are going to test
+        Assertions.assertThrows(ResourceNotFoundException.class, () -> employeeService.deleteEmployee(employeeId));
+        //then - verify the output
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    //Junit test for delete employee recording the change
+    @DisplayName("Junit test for delete employee recording the change")
+    @Test
+    public void givenEmployeeId_whenDeleteEmployee_thenPublishDeletedChange() {
+        //given - precondition or setup
+        Long employeeId = 1L;
+        given(employeeRepository.softDeleteById(eq(employeeId), any(Instant.class))).willReturn(1);
         //when - action or the behaviour that we are going to test
         employeeService.deleteEmployee(employeeId);
         //then - verify the output
-        verify(employeeRepository, times(1)).deleteById(employeeId);
+        ArgumentCaptor<EmployeeChangedEvent> event = ArgumentCaptor.forClass(EmployeeChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().getType()).isEqualTo(ChangeType.DELETED);
+        assertThat(event.getValue().getEmployeeId()).isEqualTo(employeeId);
+    }
+
+    private static void awaitAllWaiting(List<Thread> threads) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            if (threads.stream().allMatch(thread -> thread.getState() == Thread.State.WAITING)) {
+                return;
+            }
+            Thread.sleep(5);
+        }
+        throw new AssertionError("callers did not block on the in-flight lookup");
     }
 }
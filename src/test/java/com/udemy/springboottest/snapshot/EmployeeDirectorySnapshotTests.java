@@ -0,0 +1,72 @@
+package com.udemy.springboottest.snapshot;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+public class EmployeeDirectorySnapshotTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    //Junit test for building a snapshot from records arriving out of id order
+    @DisplayName("Junit test for building a snapshot from records arriving out of id order")
+    @Test
+    public void givenRecordsOutOfIdOrder_whenBuild_thenListIsJsonArrayAndIdsAreIndexed() throws Exception {
+        //given - precondition or setup
+        EmployeeDirectorySnapshotBuilder builder = new EmployeeDirectorySnapshotBuilder();
+        for (int i = 5000; i >= 1; i--) {
+            builder.add(i * 2L, ("{\"id\":" + (i * 2) + ",\"email\":\"employee" + i + "@gmail.com\"}")
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+        //when - action or the behaviour that we are going to test
+        EmployeeDirectorySnapshot snapshot = builder.build();
+        //then - verify the output
+        JsonNode list = objectMapper.readTree(text(snapshot.list()));
+        assertThat(snapshot.size()).isEqualTo(5000);
+        assertThat(list.size()).isEqualTo(5000);
+        assertThat(list.get(0).get("id").asLong()).isEqualTo(10000);
+        assertThat(objectMapper.readTree(text(snapshot.employee(2))).get("email").asText()).isEqualTo("employee1@gmail.com");
+        assertThat(objectMapper.readTree(text(snapshot.employee(7000))).get("email").asText()).isEqualTo("employee3500@gmail.com");
+        assertThat(snapshot.employee(3)).isNull();
+        assertThat(snapshot.list().isDirect()).isTrue();
+    }
+
+    //Junit test for building a snapshot of an empty directory
+    @DisplayName("Junit test for building a snapshot of an empty directory")
+    @Test
+    public void givenNoRecords_whenBuild_thenEmptyJsonArray() {
+        //when - action or the behaviour that we are going to test
+        EmployeeDirectorySnapshot snapshot = new EmployeeDirectorySnapshotBuilder().build();
+        //then - verify the output
+        assertThat(text(snapshot.list())).isEqualTo("[]");
+        assertThat(snapshot.employee(1)).isNull();
+    }
+
+    //Junit test for rejecting a record added twice
+    @DisplayName("Junit test for rejecting a record added twice")
+    @Test
+    public void givenSameIdAddedTwice_whenBuild_thenThrowsException() {
+        //given - precondition or setup
+        EmployeeDirectorySnapshotBuilder builder = new EmployeeDirectorySnapshotBuilder();
+        builder.add(1, "{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+        builder.add(2, "{\"id\":2}".getBytes(StandardCharsets.UTF_8));
+        builder.add(1, "{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+        //when - action or the behaviour that we are going to test
+        Throwable thrown = catchThrowable(builder::build);
+        //then - verify the output
+        assertThat(thrown).isInstanceOf(IllegalStateException.class).hasMessageContaining("Employee 1");
+    }
+
+    private static String text(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,135 @@
+package com.udemy.springboottest.stats;
+
+import com.udemy.springboottest.importer.EmployeeRow;
+import com.udemy.springboottest.importer.EmployeesImportedEvent;
+import com.udemy.springboottest.model.Employee;
+import com.udemy.springboottest.repository.EmployeeRepository;
+import com.udemy.springboottest.service.EmployeeChangedEvent;
+import com.udemy.springboottest.tenant.TenantContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeStatisticsTests {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    private EmployeeStatistics employeeStatistics;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup() {
+        employeeStatistics = new EmployeeStatistics(employeeRepository, 600_000);
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("Fuad")
+                .lastName("Aliyev")
+                .email("fuad@gmail.com")
+                .build();
+    }
+
+    //Junit test for counters following writes without querying the database
+    @DisplayName("Junit test for counters following writes without querying the database")
+    @Test
+    public void givenLoadedCounters_whenEmployeesCreatedUpdatedAndImported_thenCountsFollow() {
+        //given - precondition or setup
+        given(employeeRepository.countForTenant()).willReturn(1L);
+        given(employeeRepository.countByEmailDomain()).willReturn(rows("gmail.com", 1L));
+        given(employeeRepository.countByLastNameInitial()).willReturn(rows("A", 1L));
+        employeeStatistics.getStats(10);
+        Employee moved = employee.toBuilder().lastName("Brown").email("fuad@yahoo.com").build();
+        //when - action or the behaviour that we are going to test
+        employeeStatistics.onEmployeeChanged(EmployeeChangedEvent.created(employee.toBuilder().id(2L).build()));
+        employeeStatistics.onEmployeeChanged(EmployeeChangedEvent.updated(employee, moved));
+        employeeStatistics.onEmployeesImported(new EmployeesImportedEvent(TenantContext.DEFAULT_TENANT,
+                Collections.singletonList(new EmployeeRow(2, "John", "Adams", "john@Yahoo.com"))));
+        EmployeeStatsResponse stats = employeeStatistics.getStats(10);
+        //then - verify the output
+        assertThat(stats.getTotal()).isEqualTo(3);
+        assertThat(stats.getByEmailDomain()).containsExactly(entry("yahoo.com", 2L), entry("gmail.com", 1L));
+        assertThat(stats.getByLastNameInitial()).containsExactly(entry("A", 2L), entry("B", 1L));
+        verify(employeeRepository, times(1)).countForTenant();
+    }
+
+    //Junit test for reconciling counters after a delete
+    @DisplayName("Junit test for reconciling counters after a delete")
+    @Test
+    public void givenDelete_whenReconcile_thenGroupsReloaded() {
+        //given - precondition or setup
+        given(employeeRepository.countForTenant()).willReturn(1L, 0L);
+        given(employeeRepository.countByEmailDomain()).willReturn(rows("gmail.com", 1L), new ArrayList<>());
+        given(employeeRepository.countByLastNameInitial()).willReturn(rows("A", 1L), new ArrayList<>());
+        employeeStatistics.getStats(10);
+        employeeStatistics.onEmployeeChanged(EmployeeChangedEvent.deleted(1L));
+        EmployeeStatsResponse beforeReconcile = employeeStatistics.getStats(10);
+        //when - action or the behaviour that we are going to test
+        employeeStatistics.reconcile();
+        EmployeeStatsResponse afterReconcile = employeeStatistics.getStats(10);
+        //then - verify the output
+        assertThat(beforeReconcile.getTotal()).isZero();
+        assertThat(beforeReconcile.getByEmailDomain()).containsEntry("gmail.com", 1L);
+        assertThat(afterReconcile.getTotal()).isZero();
+        assertThat(afterReconcile.getByEmailDomain()).isEmpty();
+        assertThat(afterReconcile.getByLastNameInitial()).isEmpty();
+    }
+
+    //Junit test for a tenant's first request while another tenant's counters are loading
+    @DisplayName("Junit test for a tenant's first request while another tenant's counters are loading")
+    @Test
+    public void givenFirstLoadInProgress_whenRequested_thenOtherTenantServedAndSameTenantSharesLoad() throws Exception {
+        //given - precondition or setup
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(employeeRepository.countForTenant()).willAnswer(invocation -> {
+            if ("slow".equals(TenantContext.getTenantId())) {
+                loading.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return 1L;
+        });
+        given(employeeRepository.countByEmailDomain()).willAnswer(invocation -> rows("gmail.com", 1L));
+        given(employeeRepository.countByLastNameInitial()).willAnswer(invocation -> rows("A", 1L));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<EmployeeStatsResponse> first = executor.submit(() -> TenantContext.callAs("slow", () -> employeeStatistics.getStats(10)));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<EmployeeStatsResponse> second = executor.submit(() -> TenantContext.callAs("slow", () -> employeeStatistics.getStats(10)));
+            //when - action or the behaviour that we are going to test
+            EmployeeStatsResponse otherTenant = TenantContext.callAs("other", () -> employeeStatistics.getStats(10));
+            release.countDown();
+            //then - verify the output
+            assertThat(otherTenant.getTotal()).isEqualTo(1);
+            assertThat(first.get(5, TimeUnit.SECONDS).getTotal()).isEqualTo(1);
+            assertThat(second.get(5, TimeUnit.SECONDS).getTotal()).isEqualTo(1);
+            verify(employeeRepository, times(2)).countForTenant();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<Object[]> rows(String group, long count) {
+        return new ArrayList<>(Arrays.<Object[]>asList(new Object[]{group, count}));
+    }
+}
@@ -0,0 +1,92 @@
+package com.udemy.springboottest.tenant;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TenantFilterTests {
+
+    private final AtomicReference<String> servedTenant = new AtomicReference<>();
+
+    //Junit test for binding the tenant named by a request from the gateway
+    @DisplayName("Junit test for binding the tenant named by a request from the gateway")
+    @Test
+    public void givenGatewayToken_whenTenantHeader_thenTenantBound() throws Exception {
+        //given - precondition or setup
+        MockHttpServletRequest request = request("acme");
+        request.addHeader(TenantFilter.GATEWAY_TOKEN_HEADER, "s3cret");
+        //when - action or the behaviour that we are going to test
+        MockHttpServletResponse response = filter(new TenantFilter("s3cret"), request);
+        //then - verify the output
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(servedTenant.get()).isEqualTo("acme");
+    }
+
+    //Junit test for refusing a tenant header without the gateway token
+    @DisplayName("Junit test for refusing a tenant header without the gateway token")
+    @Test
+    public void givenWrongGatewayToken_whenTenantHeader_thenForbidden() throws Exception {
+        //given - precondition or setup
+        MockHttpServletRequest request = request("acme");
+        request.addHeader(TenantFilter.GATEWAY_TOKEN_HEADER, "guess");
+        //when - action or the behaviour that we are going to test
+        MockHttpServletResponse response = filter(new TenantFilter("s3cret"), request);
+        //then - verify the output
+        assertThat(response.getStatus()).isEqualTo(403);
+        assertThat(servedTenant.get()).isNull();
+    }
+
+    //Junit test for refusing a tenant header when no gateway token is configured
+    @DisplayName("Junit test for refusing a tenant header when no gateway token is configured")
+    @Test
+    public void givenNoConfiguredToken_whenTenantHeader_thenForbidden() throws Exception {
+        //given - precondition or setup
+        MockHttpServletRequest request = request("acme");
+        request.addHeader(TenantFilter.GATEWAY_TOKEN_HEADER, "");
+        //when - action or the behaviour that we are going to test
+        MockHttpServletResponse response = filter(new TenantFilter(""), request);
+        //then - verify the output
+        assertThat(response.getStatus()).isEqualTo(403);
+    }
+
+    //Junit test for serving a request without a tenant header as the default tenant
+    @DisplayName("Junit test for serving a request without a tenant header as the default tenant")
+    @Test
+    public void givenNoTenantHeader_whenFilter_thenDefaultTenant() throws Exception {
+        //given - precondition or setup
+        MockHttpServletRequest request = request(null);
+        //when - action or the behaviour that we are going to test
+        MockHttpServletResponse response = filter(new TenantFilter(""), request);
+        //then - verify the output
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(servedTenant.get()).isEqualTo(TenantContext.DEFAULT_TENANT);
+    }
+
+    private static MockHttpServletRequest request(String tenantId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/employees");
+        if (tenantId != null) {
+            request.addHeader(TenantFilter.TENANT_HEADER, tenantId);
+        }
+        return request;
+    }
+
+    private MockHttpServletResponse filter(TenantFilter filter, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                servedTenant.set(TenantContext.getTenantId());
+            }
+        }));
+        return response;
+    }
+}
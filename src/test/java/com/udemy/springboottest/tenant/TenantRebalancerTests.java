@@ -0,0 +1,178 @@
+package com.udemy.springboottest.tenant;
+
+import com.udemy.springboottest.exception.TenantMovingException;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+public class TenantRebalancerTests {
+
+    private EmbeddedDatabase shardA;
+
+    private EmbeddedDatabase shardB;
+
+    private TenantShardRegistry registry;
+
+    private TenantRebalancer rebalancer;
+
+    @BeforeEach
+    public void setup() {
+        shardA = shard("shard_a");
+        shardB = shard("shard_b");
+        ShardingProperties properties = new ShardingProperties();
+        properties.setEnabled(true);
+        properties.setDefaultShard("a");
+        properties.getShards().put("a", new ShardingProperties.Shard());
+        properties.getShards().put("b", new ShardingProperties.Shard());
+        registry = new TenantShardRegistry(properties);
+        registry.useCatalog(shardA);
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        dataSources.put("a", shardA);
+        dataSources.put("b", shardB);
+        rebalancer = new TenantRebalancer(registry, new ShardDataSources(dataSources));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        shardA.shutdown();
+        shardB.shutdown();
+    }
+
+    //Junit test for moving a tenant to another shard
+    @DisplayName("Junit test for moving a tenant to another shard")
+    @Test
+    public void givenTenantOnShardA_whenMoveTenant_thenRowsAndRoutingMoveToShardB() {
+        //given - precondition or setup
+        insert(shardA, 1, 1200, "acme");
+        insert(shardA, 2000, 5, "globex");
+        change(shardB, 77, "initech");
+        change(shardA, 1, "acme");
+        change(shardA, 2000, "globex");
+        change(shardA, 2, "acme");
+        //when - action or the behaviour that we are going to test
+        TenantMove move = rebalancer.moveTenant("acme", "b");
+        //then - verify the output
+        assertThat(move.getRows()).isEqualTo(1200);
+        assertThat(registry.shardFor("acme")).isEqualTo("b");
+        assertThat(registry.shardFor("globex")).isEqualTo("a");
+        assertThat(count(shardA, "acme")).isZero();
+        assertThat(count(shardB, "acme")).isEqualTo(1200);
+        assertThat(count(shardA, "globex")).isEqualTo(5);
+        assertThat(new JdbcTemplate(shardB).queryForObject("select min(id) from employees", Long.class)).isEqualTo(1);
+        assertThat(new JdbcTemplate(shardB).queryForList("select employee_id from employee_changes order by id", Long.class))
+                .containsExactly(77L, 1L, 2L);
+        assertThat(new JdbcTemplate(shardA).queryForList("select employee_id from employee_changes", Long.class))
+                .containsExactly(2000L);
+        assertThat(TenantWriteFence.isFenced(new JdbcTemplate(shardA), "acme")).isTrue();
+        assertThat(TenantWriteFence.isFenced(new JdbcTemplate(shardB), "acme")).isFalse();
+    }
+
+    //Junit test for rejecting a write that reaches the shard a tenant was moved away from
+    @DisplayName("Junit test for rejecting a write that reaches the shard a tenant was moved away from")
+    @Test
+    public void givenMovedTenant_whenWriteOnSourceShard_thenTenantMovingException() {
+        //given - precondition or setup
+        insert(shardA, 1, 10, "acme");
+        rebalancer.moveTenant("acme", "b");
+        TenantWriteFence staleRoute = new TenantWriteFence(new JdbcTemplate(shardA), registry);
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(shardA));
+        //when - action or the behaviour that we are going to test
+        Throwable thrown = catchThrowable(() -> transaction.executeWithoutResult(status -> staleRoute.enter("acme")));
+        //then - verify the output
+        assertThat(thrown).isInstanceOf(TenantMovingException.class);
+        transaction.executeWithoutResult(status -> staleRoute.enter("globex"));
+    }
+
+    //Junit test for moving a tenant back to the shard it was moved away from
+    @DisplayName("Junit test for moving a tenant back to the shard it was moved away from")
+    @Test
+    public void givenMovedTenant_whenMoveBack_thenFenceMovesWithIt() {
+        //given - precondition or setup
+        insert(shardA, 1, 10, "acme");
+        rebalancer.moveTenant("acme", "b");
+        //when - action or the behaviour that we are going to test
+        TenantMove move = rebalancer.moveTenant("acme", "a");
+        //then - verify the output
+        assertThat(move.getRows()).isEqualTo(10);
+        assertThat(count(shardA, "acme")).isEqualTo(10);
+        assertThat(TenantWriteFence.isFenced(new JdbcTemplate(shardA), "acme")).isFalse();
+        assertThat(TenantWriteFence.isFenced(new JdbcTemplate(shardB), "acme")).isTrue();
+    }
+
+    //Junit test for refusing to start a second move of the same tenant
+    @DisplayName("Junit test for refusing to start a second move of the same tenant")
+    @Test
+    public void givenTenantBeingMoved_whenMoveTenant_thenIllegalStateException() {
+        //given - precondition or setup
+        insert(shardA, 1, 10, "acme");
+        new JdbcTemplate(shardA).update("insert into tenant_write_fences (tenant_id, fenced_at) values (?, ?)",
+                "acme", Timestamp.from(Instant.now()));
+        //when - action or the behaviour that we are going to test
+        Throwable thrown = catchThrowable(() -> rebalancer.moveTenant("acme", "b"));
+        //then - verify the output
+        assertThat(thrown).isInstanceOf(IllegalStateException.class).hasMessageContaining("already being moved");
+        assertThat(count(shardA, "acme")).isEqualTo(10);
+        assertThat(count(shardB, "acme")).isZero();
+    }
+
+    //Junit test for planning moves that even out shard sizes
+    @DisplayName("Junit test for planning moves that even out shard sizes")
+    @Test
+    public void givenUnevenShards_whenPlan_thenLargestTenantThatNarrowsTheGapMoved() {
+        //given - precondition or setup
+        insert(shardA, 1, 100, "acme");
+        insert(shardA, 1000, 40, "globex");
+        insert(shardA, 2000, 10, "initech");
+        //when - action or the behaviour that we are going to test
+        List<TenantMove> moves = rebalancer.plan();
+        //then - verify the output
+        assertThat(moves).extracting(TenantMove::getTenantId).containsExactly("acme");
+        assertThat(moves).extracting(TenantMove::getToShard).containsExactly("b");
+    }
+
+    private static EmbeddedDatabase shard(String name) {
+        EmbeddedDatabase shard = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName(name)
+                .build();
+        Flyway.configure().dataSource(shard).locations("classpath:db/migration/h2").load().migrate();
+        return shard;
+    }
+
+    private static void insert(EmbeddedDatabase shard, long firstId, int rows, String tenantId) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(shard);
+        Timestamp now = Timestamp.from(Instant.now());
+        for (int i = 0; i < rows; i++) {
+            jdbcTemplate.update("insert into employees (" + TenantRebalancer.COLUMNS + ") values (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                    firstId + i, "First", "Last", tenantId + i + "@gmail.com", now, now, null, tenantId, 0L);
+        }
+    }
+
+    private static void change(EmbeddedDatabase shard, long employeeId, String tenantId) {
+        new JdbcTemplate(shard).update("insert into employee_changes (employee_id, type, payload, created_at, tenant_id) " +
+                "values (?, 'CREATED', null, ?, ?)", employeeId, Timestamp.from(Instant.now()), tenantId);
+    }
+
+    private static long count(EmbeddedDatabase shard, String tenantId) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(shard);
+        return jdbcTemplate.queryForObject("select count(*) from employees where tenant_id = ?", Long.class, tenantId);
+    }
+}
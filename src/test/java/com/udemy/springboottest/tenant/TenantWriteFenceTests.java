@@ -0,0 +1,117 @@
+package com.udemy.springboottest.tenant;
+
+import com.udemy.springboottest.integration.EmbeddedPostgresInitializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class TenantWriteFenceTests {
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transaction;
+
+    private TenantWriteFence fence;
+
+    private final CountDownLatch entered = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @BeforeEach
+    public void setup() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate.update("delete from tenant_write_fences where tenant_id in ('acme', 'globex')");
+        ShardingProperties properties = new ShardingProperties();
+        properties.setEnabled(true);
+        fence = new TenantWriteFence(jdbcTemplate, new TenantShardRegistry(properties));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    //Junit test for writes of different tenants committing at the same time
+    @DisplayName("Junit test for writes of different tenants committing at the same time")
+    @Test
+    public void givenWriterOfOneTenantInsideFence_whenOtherTenantEnters_thenNotBlocked() throws Exception {
+        //given - precondition or setup
+        CompletableFuture<Void> acme = holdFence("acme");
+        //when - action or the behaviour that we are going to test
+        CompletableFuture<Void> globex = CompletableFuture.runAsync(() ->
+                transaction.executeWithoutResult(status -> fence.enter("globex")), executor);
+        //then - verify the output
+        globex.get(5, TimeUnit.SECONDS);
+        assertThat(acme).isNotDone();
+        release.countDown();
+        acme.get(5, TimeUnit.SECONDS);
+    }
+
+    //Junit test for a move waiting only for the writers of the tenant it moves
+    @DisplayName("Junit test for a move waiting only for the writers of the tenant it moves")
+    @Test
+    public void givenWriterOfTenantInsideFence_whenAwaitWriters_thenWaitsForThatTenantOnly() throws Exception {
+        //given - precondition or setup
+        CompletableFuture<Void> acme = holdFence("acme");
+        //when - action or the behaviour that we are going to test
+        CompletableFuture<Void> moveGlobex = awaitWriters("globex");
+        CompletableFuture<Void> moveAcme = awaitWriters("acme");
+        //then - verify the output
+        moveGlobex.get(5, TimeUnit.SECONDS);
+        assertThatThrownBy(() -> moveAcme.get(500, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+        release.countDown();
+        acme.get(5, TimeUnit.SECONDS);
+        moveAcme.get(5, TimeUnit.SECONDS);
+    }
+
+    private CompletableFuture<Void> holdFence(String tenantId) throws InterruptedException {
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> transaction.executeWithoutResult(status -> {
+            fence.enter(tenantId);
+            entered.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }), executor);
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        return writer;
+    }
+
+    private CompletableFuture<Void> awaitWriters(String tenantId) {
+        return CompletableFuture.runAsync(() ->
+                transaction.executeWithoutResult(status -> TenantWriteFence.awaitWriters(jdbcTemplate, tenantId)), executor);
+    }
+}
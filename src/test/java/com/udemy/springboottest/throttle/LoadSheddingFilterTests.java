@@ -0,0 +1,128 @@
+package com.udemy.springboottest.throttle;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LoadSheddingFilterTests {
+
+    //Junit test for rejecting a client that exceeds its rate limit
+    @DisplayName("Junit test for rejecting a client that exceeds its rate limit")
+    @Test
+    public void givenClientOverRateLimit_whenRequest_thenTooManyRequestsForThatClientOnly() throws Exception {
+        //given - precondition or setup
+        AtomicLong clock = new AtomicLong();
+        LoadSheddingFilter filter = new LoadSheddingFilter(new ClientRateLimiter(2, 1, 100, clock::get),
+                new GradientConcurrencyLimiter(10, 1, 10), "");
+        filter(filter, "10.0.0.1");
+        filter(filter, "10.0.0.1");
+        //when - action or the behaviour that we are going to test
+        MockHttpServletResponse rejected = filter(filter, "10.0.0.1");
+        MockHttpServletResponse otherClient = filter(filter, "10.0.0.2");
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        MockHttpServletResponse afterRefill = filter(filter, "10.0.0.1");
+        //then - verify the output
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(otherClient.getStatus()).isEqualTo(200);
+        assertThat(afterRefill.getStatus()).isEqualTo(200);
+    }
+
+    //Junit test for telling clients apart by the configured client header
+    @DisplayName("Junit test for telling clients apart by the configured client header")
+    @Test
+    public void givenClientHeader_whenRequestsShareAnAddress_thenLimitedPerClientId() throws Exception {
+        //given - precondition or setup
+        LoadSheddingFilter filter = new LoadSheddingFilter(new ClientRateLimiter(1, 1, 100, () -> 0L),
+                new GradientConcurrencyLimiter(10, 1, 10), "X-Client-Id");
+        filter(filter, "10.0.0.1", "team-a");
+        //when - action or the behaviour that we are going to test
+        MockHttpServletResponse sameClient = filter(filter, "10.0.0.1", "team-a");
+        MockHttpServletResponse otherClient = filter(filter, "10.0.0.1", "team-b");
+        //then - verify the output
+        assertThat(sameClient.getStatus()).isEqualTo(429);
+        assertThat(otherClient.getStatus()).isEqualTo(200);
+    }
+
+    //Junit test for bounding the number of tracked clients
+    @DisplayName("Junit test for bounding the number of tracked clients")
+    @Test
+    public void givenMaxClientsBusy_whenNewClients_thenTheyShareTheOverflowBucket() {
+        //given - precondition or setup
+        AtomicLong clock = new AtomicLong();
+        ClientRateLimiter limiter = new ClientRateLimiter(2, 1, 2, clock::get);
+        limiter.tryAcquire("10.0.0.1");
+        limiter.tryAcquire("10.0.0.2");
+        //when - action or the behaviour that we are going to test
+        long first = limiter.tryAcquire("10.0.0.3");
+        long second = limiter.tryAcquire("10.0.0.4");
+        long third = limiter.tryAcquire("10.0.0.5");
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        long afterIdle = limiter.tryAcquire("10.0.0.6");
+        //then - verify the output
+        assertThat(first).isZero();
+        assertThat(second).isZero();
+        assertThat(third).isPositive();
+        assertThat(afterIdle).isZero();
+        assertThat(limiter.trackedClients()).isEqualTo(1);
+    }
+
+    //Junit test for shedding requests beyond the concurrency limit
+    @DisplayName("Junit test for shedding requests beyond the concurrency limit")
+    @Test
+    public void givenConcurrencyLimitReached_whenRequest_thenServiceUnavailable() throws Exception {
+        //given - precondition or setup
+        GradientConcurrencyLimiter concurrencyLimiter = new GradientConcurrencyLimiter(2, 1, 10);
+        LoadSheddingFilter filter = new LoadSheddingFilter(new ClientRateLimiter(100, 100, 100), concurrencyLimiter, "");
+        assertThat(concurrencyLimiter.tryAcquire()).isTrue();
+        assertThat(concurrencyLimiter.tryAcquire()).isTrue();
+        //when - action or the behaviour that we are going to test
+        MockHttpServletResponse response = filter(filter, "10.0.0.1");
+        //then - verify the output
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(concurrencyLimiter.getInFlight()).isEqualTo(2);
+    }
+
+    //Junit test for adapting the concurrency limit to latency
+    @DisplayName("Junit test for adapting the concurrency limit to latency")
+    @Test
+    public void givenLatencyRises_whenSamplesRecorded_thenLimitGrowsThenShrinks() {
+        //given - precondition or setup
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(20, 5, 200);
+        //when - action or the behaviour that we are going to test
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(TimeUnit.MILLISECONDS.toNanos(10), limiter.getLimit());
+        }
+        int healthyLimit = limiter.getLimit();
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(TimeUnit.MILLISECONDS.toNanos(200), limiter.getLimit());
+        }
+        //then - verify the output
+        assertThat(healthyLimit).isGreaterThan(20);
+        assertThat(limiter.getLimit()).isLessThan(healthyLimit / 2);
+    }
+
+    private static MockHttpServletResponse filter(LoadSheddingFilter filter, String clientAddress) throws Exception {
+        return filter(filter, clientAddress, null);
+    }
+
+    private static MockHttpServletResponse filter(LoadSheddingFilter filter, String clientAddress, String clientId)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/employees");
+        request.setRemoteAddr(clientAddress);
+        if (clientId != null) {
+            request.addHeader("X-Client-Id", clientId);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,236 @@
+package com.udemy.springboottest.writebehind;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.dao.DeadlockLoserDataAccessException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+public class WriteBehindWriterTests {
+
+    private static final int JOURNAL_SIZE = 1 << 20;
+
+    @TempDir
+    Path tempDir;
+
+    //Junit test for replaying the journal after the writer is killed mid-batch
+    @DisplayName("Junit test for replaying the journal after the writer is killed mid-batch")
+    @Test
+    public void givenWriterKilledMidBatch_whenJournalReplayed_thenEveryWriteAppliedExactlyOnce() throws Exception {
+        //given - precondition or setup
+        Path journalPath = tempDir.resolve("employees.journal");
+        CrashingApplier database = new CrashingApplier(2, 3);
+        WriteJournal journal = WriteJournal.open(journalPath, JOURNAL_SIZE);
+        WriteBehindWriter writer = new WriteBehindWriter(journal, database, 10, 10);
+        for (int i = 1; i <= 50; i++) {
+            writer.submit(WriteOperation.CREATE, ("employee-" + i).getBytes(StandardCharsets.UTF_8));
+        }
+        assertThat(writer.queueDepth()).isEqualTo(50);
+        writer.start();
+        assertThat(database.crashed.await(5, TimeUnit.SECONDS)).isTrue();
+        writer.close();
+        journal.close();
+        //when - action or the behaviour that we are going to test
+        WriteJournal reopened = WriteJournal.open(journalPath, JOURNAL_SIZE);
+        WriteBehindWriter restarted = new WriteBehindWriter(reopened, database, 10, 10);
+        assertThat(restarted.queueDepth()).isEqualTo(40);
+        restarted.start();
+        boolean drained = restarted.awaitDrained(5000);
+        restarted.close();
+        reopened.close();
+        //then - verify the output
+        assertThat(drained).isTrue();
+        assertThat(database.committed()).containsExactlyElementsOf(IntStream.rangeClosed(1, 50)
+                .mapToObj(i -> "employee-" + i)
+                .collect(Collectors.toList()));
+    }
+
+    //Junit test for continuing sequence numbers after the journal is truncated
+    @DisplayName("Junit test for continuing sequence numbers after the journal is truncated")
+    @Test
+    public void givenAppliedJournalTruncated_whenSubmit_thenSequenceContinues() throws Exception {
+        //given - precondition or setup
+        CrashingApplier database = new CrashingApplier(0, 0);
+        WriteJournal journal = WriteJournal.open(tempDir.resolve("small.journal"), 128);
+        WriteBehindWriter writer = new WriteBehindWriter(journal, database, 10, 10);
+        writer.start();
+        //when - action or the behaviour that we are going to test
+        List<Long> sequences = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            sequences.add(writer.submit(WriteOperation.UPDATE, ("update-" + i).getBytes(StandardCharsets.UTF_8)).getSeq());
+        }
+        boolean drained = writer.awaitDrained(5000);
+        writer.close();
+        journal.close();
+        //then - verify the output
+        assertThat(drained).isTrue();
+        assertThat(sequences).isSorted().doesNotHaveDuplicates();
+        assertThat(database.committed()).hasSize(20);
+    }
+
+    //Junit test for dead-lettering entries that can never be applied
+    @DisplayName("Junit test for dead-lettering entries that can never be applied")
+    @Test
+    public void givenUnappliableEntries_whenFlushed_thenDeadLetteredAndOthersApplied() throws Exception {
+        //given - precondition or setup
+        CrashingApplier database = new CrashingApplier(0, 0, "employee-7", "employee-8", "employee-23");
+        WriteJournal journal = WriteJournal.open(tempDir.resolve("poison.journal"), JOURNAL_SIZE);
+        WriteBehindWriter writer = new WriteBehindWriter(journal, database, 10, 10);
+        for (int i = 1; i <= 30; i++) {
+            writer.submit(WriteOperation.CREATE, ("employee-" + i).getBytes(StandardCharsets.UTF_8));
+        }
+        //when - action or the behaviour that we are going to test
+        writer.start();
+        boolean drained = writer.awaitDrained(5000);
+        writer.close();
+        journal.close();
+        //then - verify the output
+        assertThat(drained).isTrue();
+        assertThat(database.deadLetters()).containsExactly("employee-7", "employee-8", "employee-23");
+        assertThat(database.committed()).hasSize(27).doesNotContain("employee-7", "employee-8", "employee-23");
+        assertThat(database.lastAppliedSeq()).isEqualTo(30);
+        assertThat(writer.deadLetteredCount()).isEqualTo(3);
+    }
+
+    //Junit test for retrying a batch that lost a deadlock
+    @DisplayName("Junit test for retrying a batch that lost a deadlock")
+    @Test
+    public void givenDeadlockWhileApplying_whenFlushed_thenRetriedNotDeadLettered() throws Exception {
+        //given - precondition or setup
+        CrashingApplier database = new CrashingApplier(0, 0);
+        database.deadlockNext(3);
+        WriteJournal journal = WriteJournal.open(tempDir.resolve("deadlock.journal"), JOURNAL_SIZE);
+        WriteBehindWriter writer = new WriteBehindWriter(journal, database, 10, 10);
+        for (int i = 1; i <= 10; i++) {
+            writer.submit(WriteOperation.CREATE, ("employee-" + i).getBytes(StandardCharsets.UTF_8));
+        }
+        //when - action or the behaviour that we are going to test
+        writer.start();
+        boolean drained = writer.awaitDrained(5000);
+        writer.close();
+        journal.close();
+        //then - verify the output
+        assertThat(drained).isTrue();
+        assertThat(database.deadLetters()).isEmpty();
+        assertThat(database.committed()).hasSize(10);
+        assertThat(database.lastAppliedSeq()).isEqualTo(10);
+        assertThat(writer.deadLetteredCount()).isZero();
+    }
+
+    //Junit test for refusing writes once the writer thread has died
+    @DisplayName("Junit test for refusing writes once the writer thread has died")
+    @Test
+    public void givenWriterThreadDied_whenSubmit_thenRefusedAndHealthDown() throws Exception {
+        //given - precondition or setup
+        CrashingApplier database = new CrashingApplier(1, 0);
+        WriteJournal journal = WriteJournal.open(tempDir.resolve("dead.journal"), JOURNAL_SIZE);
+        WriteBehindWriter writer = new WriteBehindWriter(journal, database, 10, 10);
+        writer.submit(WriteOperation.CREATE, "employee-1".getBytes(StandardCharsets.UTF_8));
+        writer.start();
+        assertThat(database.crashed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(writer.awaitDrained(5000)).isFalse();
+        //when - action or the behaviour that we are going to test
+        Throwable refused = catchThrowable(() -> writer.submit(WriteOperation.CREATE, "employee-2".getBytes(StandardCharsets.UTF_8)));
+        //then - verify the output
+        assertThat(refused).isInstanceOf(IllegalStateException.class);
+        assertThat(writer.health().getStatus()).isEqualTo(Status.DOWN);
+        writer.close();
+        journal.close();
+    }
+
+    /**
+     * Stand-in database: a batch is staged and only becomes visible together with its
+     * checkpoint, like a transaction. On the configured batch it throws an {@link Error}
+     * half way through, which kills the writer thread the way a process crash would. Poison
+     * payloads fail every batch that contains them with a non-retryable exception, and
+     * {@link #deadlockNext} makes the next batches lose a deadlock.
+     */
+    private static class CrashingApplier implements BatchApplier {
+
+        private final List<String> committed = new ArrayList<>();
+
+        private final List<String> deadLetters = new ArrayList<>();
+
+        private final Set<String> poison;
+
+        private final CountDownLatch crashed = new CountDownLatch(1);
+
+        private final int entriesBeforeCrash;
+
+        private int batchesUntilCrash;
+
+        private int deadlocks;
+
+        private long lastAppliedSeq;
+
+        CrashingApplier(int crashOnBatch, int entriesBeforeCrash, String... poison) {
+            this.batchesUntilCrash = crashOnBatch;
+            this.entriesBeforeCrash = entriesBeforeCrash;
+            this.poison = new HashSet<>(Arrays.asList(poison));
+        }
+
+        @Override
+        public synchronized long lastAppliedSeq() {
+            return lastAppliedSeq;
+        }
+
+        synchronized void deadlockNext(int batches) {
+            deadlocks = batches;
+        }
+
+        @Override
+        public synchronized void apply(List<JournalEntry> batch) {
+            if (deadlocks > 0) {
+                deadlocks--;
+                throw new DeadlockLoserDataAccessException("deadlock detected", null);
+            }
+            boolean crash = --batchesUntilCrash == 0;
+            List<String> staged = new ArrayList<>();
+            for (JournalEntry entry : batch) {
+                if (crash && staged.size() == entriesBeforeCrash) {
+                    crashed.countDown();
+                    throw new SimulatedCrash();
+                }
+                String payload = new String(entry.getPayload(), StandardCharsets.UTF_8);
+                if (poison.contains(payload)) {
+                    throw new IllegalArgumentException("Cannot apply " + payload);
+                }
+                staged.add(payload);
+            }
+            committed.addAll(staged);
+            lastAppliedSeq = batch.get(batch.size() - 1).getSeq();
+        }
+
+        @Override
+        public synchronized void deadLetter(JournalEntry entry, Throwable failure) {
+            deadLetters.add(new String(entry.getPayload(), StandardCharsets.UTF_8));
+            lastAppliedSeq = entry.getSeq();
+        }
+
+        synchronized List<String> committed() {
+            return new ArrayList<>(committed);
+        }
+
+        synchronized List<String> deadLetters() {
+            return new ArrayList<>(deadLetters);
+        }
+    }
+
+    private static class SimulatedCrash extends Error {
+    }
+}